@@ -0,0 +1,275 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark de Traductor.traducir para los seis pares de idiomas sobre código generado de 1 KB a 100 MB.
+ * Con --modo estructural mide TraductorEstructural.traducir en su lugar, y con --modo ambos mide los dos y
+ * muestra al final cuánto rendimiento cuesta el modo estructural en cada caso.
+ * Para cada caso mide la latencia media, el rendimiento en MB/s y los bytes asignados por operación
+ * (sumando todos los hilos, para incluir la traducción en paralelo).
+ *
+ * Uso (desde la raíz del repositorio):
+ *
+ *   javac -encoding UTF-8 -d out src/*.java bench/*.java
+ *   java -Xmx4g -cp out BenchmarkTraductor [--max-mb N] [--modo lineas|estructural|ambos] [--csv archivo]
+ *                                          [--comparar bench/linea_base.csv] [--tolerancia 0.25]
+ *
+ * Con --comparar se muestra la diferencia con la línea base y el proceso termina con código 1 si algún caso
+ * perdió más rendimiento que la tolerancia.
+ */
+public class BenchmarkTraductor {
+
+    private static final String[][] PARES = {
+            {"Java", "JS"}, {"Java", "C++"},
+            {"C++", "JS"}, {"C++", "Java"},
+            {"JS", "Java"}, {"JS", "C++"}
+    };
+
+    private static final int[] TAMANOS_KB = {1, 64, 1024, 16 * 1024, 100 * 1024};
+
+    private static final long NANOS_CALENTAMIENTO = 1_000_000_000L;
+    private static final long NANOS_MEDICION = 2_000_000_000L;
+
+    // Resultado de un caso
+    static class Medicion {
+        final String par;
+        final int kb;
+        final double msPorOperacion;
+        final double mbPorSegundo;
+        final double bytesPorOperacion;
+
+        Medicion(String par, int kb, double msPorOperacion, double mbPorSegundo, double bytesPorOperacion) {
+            this.par = par;
+            this.kb = kb;
+            this.msPorOperacion = msPorOperacion;
+            this.mbPorSegundo = mbPorSegundo;
+            this.bytesPorOperacion = bytesPorOperacion;
+        }
+
+        String clave() {
+            return par + "/" + kb;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxMb = 100;
+        String csv = null;
+        String lineaBase = null;
+        double tolerancia = 0.25;
+        String modo = "lineas";
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--max-mb")) {
+                maxMb = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--csv")) {
+                csv = args[++i];
+            } else if (args[i].equals("--comparar")) {
+                lineaBase = args[++i];
+            } else if (args[i].equals("--tolerancia")) {
+                tolerancia = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--modo")) {
+                modo = args[++i];
+                if (!modo.equals("lineas") && !modo.equals("estructural") && !modo.equals("ambos")) {
+                    System.err.println("Modo desconocido: " + modo);
+                    System.exit(2);
+                }
+            } else {
+                System.err.println("Opción desconocida: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        boolean lineas = !modo.equals("estructural");
+        boolean estructural = !modo.equals("lineas");
+        System.out.println(String.format(Locale.ROOT, "%-16s %10s %12s %10s %16s", "par", "tamaño", "ms/op", "MB/s", "bytes asig./op"));
+        List<Medicion> mediciones = new ArrayList<>();
+        List<String> costos = new ArrayList<>();
+        for (String[] par : PARES) {
+            for (int kb : TAMANOS_KB) {
+                if (kb > maxMb * 1024) {
+                    continue;
+                }
+                String codigo = GeneradorCodigo.generar(par[0], kb * 1024, 42);
+                Medicion porLineas = null;
+                if (lineas) {
+                    porLineas = medir(par[0] + "->" + par[1], kb, codigo, par[0], par[1], false);
+                    mostrar(porLineas);
+                    mediciones.add(porLineas);
+                }
+                if (estructural) {
+                    Medicion medicion = medir(par[0] + "->" + par[1] + " est.", kb, codigo, par[0], par[1], true);
+                    mostrar(medicion);
+                    mediciones.add(medicion);
+                    if (porLineas != null) {
+                        costos.add(String.format(Locale.ROOT, "%-12s %10s %8.2fx tiempo %8.2fx memoria", par[0] + "->" + par[1],
+                                formatoTamano(kb), porLineas.mbPorSegundo / medicion.mbPorSegundo,
+                                medicion.bytesPorOperacion / Math.max(porLineas.bytesPorOperacion, 1)));
+                    }
+                }
+            }
+        }
+        if (!costos.isEmpty()) {
+            System.out.println();
+            System.out.println("Costo del modo estructural respecto del modo por líneas:");
+            for (String costo : costos) {
+                System.out.println(costo);
+            }
+        }
+
+        if (csv != null) {
+            escribirCsv(Paths.get(csv), mediciones);
+        }
+        if (lineaBase != null && !compararConLineaBase(Paths.get(lineaBase), mediciones, tolerancia)) {
+            System.exit(1);
+        }
+    }
+
+    private static void mostrar(Medicion medicion) {
+        System.out.println(String.format(Locale.ROOT, "%-16s %10s %12.3f %10.1f %16.0f",
+                medicion.par, formatoTamano(medicion.kb), medicion.msPorOperacion, medicion.mbPorSegundo, medicion.bytesPorOperacion));
+    }
+
+    static Medicion medir(String nombre, int kb, String codigo, String origen, String destino, boolean estructural) throws Exception {
+        // Calentamiento para que el JIT compile el camino de traducción.
+        long limite = System.nanoTime() + NANOS_CALENTAMIENTO;
+        do {
+            consumir(traducir(codigo, origen, destino, estructural));
+        } while (System.nanoTime() < limite);
+
+        ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        long asignadosAntes = bytesAsignados(hilos);
+        long operaciones = 0;
+        long inicio = System.nanoTime();
+        limite = inicio + NANOS_MEDICION;
+        do {
+            consumir(traducir(codigo, origen, destino, estructural));
+            operaciones++;
+        } while (System.nanoTime() < limite);
+        long nanos = System.nanoTime() - inicio;
+        long asignados = bytesAsignados(hilos) - asignadosAntes;
+
+        double msPorOperacion = nanos / 1e6 / operaciones;
+        double mbPorSegundo = (codigo.length() / (1024.0 * 1024.0)) * operaciones / (nanos / 1e9);
+        return new Medicion(nombre, kb, msPorOperacion, mbPorSegundo, (double) asignados / operaciones);
+    }
+
+    private static Traductor.ResultadoTraduccion traducir(String codigo, String origen, String destino, boolean estructural) throws Exception {
+        return estructural ? TraductorEstructural.traducir(codigo, origen, destino) : Traductor.traducir(codigo, origen, destino);
+    }
+
+    // Evita que el JIT descarte la traducción por no usarse
+    private static int sumidero;
+
+    private static void consumir(Traductor.ResultadoTraduccion resultado) {
+        sumidero += resultado.traduccion.length() + resultado.errores.size();
+    }
+
+    private static long bytesAsignados(ThreadMXBean hilos) {
+        if (!(hilos instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        long[] asignados = ((com.sun.management.ThreadMXBean) hilos).getThreadAllocatedBytes(hilos.getAllThreadIds());
+        long total = 0;
+        for (long bytes : asignados) {
+            total += Math.max(bytes, 0);
+        }
+        return total;
+    }
+
+    private static String formatoTamano(int kb) {
+        return kb >= 1024 ? (kb / 1024) + " MB" : kb + " KB";
+    }
+
+    private static void escribirCsv(Path archivo, List<Medicion> mediciones) throws IOException {
+        StringBuilder texto = new StringBuilder("par,kb,ms_op,mb_s,bytes_op\n");
+        for (Medicion medicion : mediciones) {
+            texto.append(String.format(Locale.ROOT, "%s,%d,%.4f,%.2f,%.0f%n",
+                    medicion.par, medicion.kb, medicion.msPorOperacion, medicion.mbPorSegundo, medicion.bytesPorOperacion));
+        }
+        Files.write(archivo, texto.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean compararConLineaBase(Path archivo, List<Medicion> mediciones, double tolerancia) throws IOException {
+        Map<String, Double> base = new HashMap<>();
+        List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        for (int i = 1; i < lineas.size(); i++) {
+            String[] campos = lineas.get(i).split(",");
+            if (campos.length >= 4) {
+                base.put(campos[0] + "/" + campos[1], Double.parseDouble(campos[3]));
+            }
+        }
+
+        boolean correcto = true;
+        System.out.println();
+        System.out.println("Comparación con " + archivo + " (tolerancia " + Math.round(tolerancia * 100) + "%):");
+        for (Medicion medicion : mediciones) {
+            Double anterior = base.get(medicion.clave());
+            if (anterior == null) {
+                continue;
+            }
+            double cambio = (medicion.mbPorSegundo - anterior) / anterior;
+            boolean regresion = cambio < -tolerancia;
+            correcto &= !regresion;
+            System.out.println(String.format(Locale.ROOT, "%-16s %10s %+8.1f%%%s",
+                    medicion.par, formatoTamano(medicion.kb), cambio * 100, regresion ? "  REGRESIÓN" : ""));
+        }
+        return correcto;
+    }
+
+    /*
+     * Genera programas válidos para el idioma de origen, con una mezcla de líneas que activan las reglas,
+     * líneas que no cambian y comentarios, hasta alcanzar el tamaño pedido.
+     */
+    static class GeneradorCodigo {
+
+        static String generar(String idioma, int tamano, long semilla) {
+            Random aleatorio = new Random(semilla);
+            StringBuilder codigo = new StringBuilder(tamano + 256);
+            String[] cuerpo;
+            if (idioma.equals("Java")) {
+                codigo.append("public class Programa {\n    public static void main(String[] args) {\n");
+                cuerpo = new String[]{
+                        "        System.out.println(\"Valor: \" + %d);\n",
+                        "        int x%d = %d * 2;\n",
+                        "        for (int i = 0; i < %d; i++) { total += i; }\n",
+                        "        // comentario %d\n",
+                        "        String s%d = \"texto\" + %d;\n"
+                };
+            } else if (idioma.equals("C++")) {
+                codigo.append("#include <iostream>\nusing namespace std;\n\nint main() {\n");
+                cuerpo = new String[]{
+                        "    std::cout << \"Valor: \" << %d << std::endl;\n",
+                        "    int x%d = %d * 2;\n",
+                        "    for (int i = 0; i < %d; i++) { total += i; }\n",
+                        "    // comentario %d\n",
+                        "    std::cout << %d;\n"
+                };
+            } else {
+                codigo.append("function main() {\n");
+                cuerpo = new String[]{
+                        "    console.log(\"Valor: \" + %d);\n",
+                        "    let x%d = %d * 2;\n",
+                        "    for (let i = 0; i < %d; i++) { total += i; }\n",
+                        "    // comentario %d\n",
+                        "    const s%d = \"texto\" + %d;\n"
+                };
+            }
+            while (codigo.length() < tamano) {
+                int n = aleatorio.nextInt(1000);
+                codigo.append(String.format(Locale.ROOT, cuerpo[aleatorio.nextInt(cuerpo.length)], n, n));
+            }
+            codigo.append(idioma.equals("Java") ? "    }\n}\n" : "}\n");
+            return codigo.toString();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prueba de Traductor.traducirArchivo con un archivo más grande que el heap.
+ *
+ * Primero comprueba que un archivo de 1 MB da exactamente los mismos bytes que traducir(String, ...). Después
+ * genera un archivo que repite un bloque de código (con caracteres de varios bytes, para que algunos queden
+ * partidos entre dos ventanas del mapeo) hasta superar Runtime.maxMemory(), lo traduce, compara la salida con
+ * la traducción del bloque repetida y muestra el rendimiento y el pico de heap usado.
+ *
+ * Uso (desde la raíz del repositorio):
+ *
+ *   javac -encoding UTF-8 -d out src/*.java bench/*.java
+ *   java -Xmx64m -cp out PruebaArchivoGrande [--mb N] [--dir directorio]
+ *
+ * Sin --mb el archivo mide el doble del heap máximo. Termina con código 1 si alguna comprobación falla.
+ */
+public class PruebaArchivoGrande {
+
+    public static void main(String[] args) throws Exception {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        long tamano = Math.max(2 * maxHeap, 128L * 1024 * 1024);
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"));
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--mb")) {
+                tamano = Long.parseLong(args[++i]) * 1024 * 1024;
+            } else if (args[i].equals("--dir")) {
+                dir = Paths.get(args[++i]);
+            } else {
+                System.err.println("Opción desconocida: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        Path entrada = Files.createTempFile(dir, "entrada", ".java");
+        Path salida = Files.createTempFile(dir, "salida", ".js");
+        boolean correcto;
+        try {
+            correcto = compararConTraducirCadena(entrada, salida) && traducirArchivoGrande(entrada, salida, tamano, maxHeap);
+        } finally {
+            Files.deleteIfExists(entrada);
+            Files.deleteIfExists(salida);
+        }
+        System.out.println(correcto ? "Correcto" : "FALLO");
+        if (!correcto) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean compararConTraducirCadena(Path entrada, Path salida) throws Exception {
+        String codigo = bloque(1024 * 1024);
+        Files.write(entrada, codigo.getBytes(StandardCharsets.UTF_8));
+        List<Traductor.ErrorInfo> errores = Traductor.traducirArchivo(entrada, salida, "Java", "JS");
+        byte[] esperado = Traductor.traducir(codigo, "Java", "JS").traduccion.getBytes(StandardCharsets.UTF_8);
+        boolean iguales = errores.isEmpty() && Arrays.equals(esperado, Files.readAllBytes(salida));
+        System.out.println("1 MB igual a traducir(String): " + (iguales ? "sí" : "no"));
+        return iguales;
+    }
+
+    private static boolean traducirArchivoGrande(Path entrada, Path salida, long tamano, long maxHeap) throws Exception {
+        // Cada repetición del bloque es un programa completo y termina en salto de línea, así que la traducción
+        // del archivo es la del bloque repetida.
+        byte[] bloque = bloque(256 * 1024).getBytes(StandardCharsets.UTF_8);
+        byte[] traduccionBloque = Traductor.traducir(new String(bloque, StandardCharsets.UTF_8), "Java", "JS")
+                .traduccion.getBytes(StandardCharsets.UTF_8);
+        long repeticiones = (tamano + bloque.length - 1) / bloque.length;
+        try (OutputStream salidaBloques = new BufferedOutputStream(Files.newOutputStream(entrada), 1 << 16)) {
+            for (long i = 0; i < repeticiones; i++) {
+                salidaBloques.write(bloque);
+            }
+        }
+        long bytesEntrada = Files.size(entrada);
+
+        System.gc();
+        List<MemoryPoolMXBean> heap = reiniciarPicos();
+        long inicio = System.nanoTime();
+        List<Traductor.ErrorInfo> errores = Traductor.traducirArchivo(entrada, salida, "Java", "JS");
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long pico = 0;
+        for (MemoryPoolMXBean zona : heap) {
+            pico += zona.getPeakUsage().getUsed();
+        }
+
+        double megas = bytesEntrada / (1024.0 * 1024.0);
+        System.out.println(String.format(Locale.ROOT, "Archivo: %.1f MB (heap máximo %.1f MB), %.2f s, %.1f MB/s, pico de heap: %.1f MB",
+                megas, maxHeap / (1024.0 * 1024.0), segundos, megas / segundos, pico / (1024.0 * 1024.0)));
+
+        boolean correcto = true;
+        if (bytesEntrada <= maxHeap) {
+            System.out.println("El archivo no supera el heap máximo; use un -Xmx menor o un --mb mayor.");
+            correcto = false;
+        }
+        if (!errores.isEmpty()) {
+            System.out.println("Errores: " + errores.size() + ", primero: " + errores.get(0).mensaje);
+            correcto = false;
+        }
+        boolean salidaIgual = salidaRepite(salida, traduccionBloque, repeticiones);
+        System.out.println("Salida igual a la traducción del bloque repetida: " + (salidaIgual ? "sí" : "no"));
+        return correcto && salidaIgual;
+    }
+
+    // Código Java válido con acentos y símbolos de varios bytes en comentarios y cadenas; termina en salto de línea
+    private static String bloque(int tamano) {
+        String base = BenchmarkTraductor.GeneradorCodigo.generar("Java", tamano, 42);
+        StringBuilder codigo = new StringBuilder(base.length() + 128);
+        String[] lineas = base.split("\n");
+        for (int i = 0; i < lineas.length; i++) {
+            codigo.append(lineas[i]).append('\n');
+            if (i == 2 || i % 97 == 0 && i > 0 && i < lineas.length - 3) {
+                codigo.append("        // año, ñandú, 5 €, 𝄞\n");
+            }
+        }
+        return codigo.toString();
+    }
+
+    private static List<MemoryPoolMXBean> reiniciarPicos() {
+        List<MemoryPoolMXBean> zonas = new ArrayList<>();
+        for (MemoryPoolMXBean zona : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (zona.getType() == MemoryType.HEAP) {
+                zona.resetPeakUsage();
+                zonas.add(zona);
+            }
+        }
+        return zonas;
+    }
+
+    private static boolean salidaRepite(Path salida, byte[] bloque, long repeticiones) throws Exception {
+        if (Files.size(salida) != bloque.length * repeticiones) {
+            return false;
+        }
+        byte[] leido = new byte[bloque.length];
+        try (InputStream lector = Files.newInputStream(salida)) {
+            for (long i = 0; i < repeticiones; i++) {
+                int cantidad = lector.readNBytes(leido, 0, leido.length);
+                if (cantidad != bloque.length || !Arrays.equals(leido, bloque)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
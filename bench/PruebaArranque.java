@@ -0,0 +1,145 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Mide el tiempo hasta la primera traducción de los tres empaquetados de empaquetar.sh: el jar, el jar con el
+ * archivo AppCDS y la imagen nativa. Cada repetición lanza un proceso nuevo que traduce un archivo Java pequeño
+ * por lotes y se cronometra desde que se lanza hasta que termina; se informan el mínimo, la mediana y el p90.
+ * También comprueba que los tres empaquetados escriban la misma traducción.
+ *
+ * Uso (desde la raíz del repositorio):
+ *
+ *   sh empaquetar.sh
+ *   javac -encoding UTF-8 -d out src/*.java bench/*.java
+ *   java -cp out PruebaArranque [--jar out/traductor.jar] [--cds out/traductor.jsa] [--nativo out/traductor]
+ *                               [--repeticiones 20]
+ *
+ * Los empaquetados cuyo archivo no existe se omiten.
+ */
+public class PruebaArranque {
+
+    private static final String CODIGO = "public class Hola {\n"
+            + "    public static void main(String[] args) {\n"
+            + "        int total = 0;\n"
+            + "        for (int i = 0; i < 10; i++) {\n"
+            + "            total += i;\n"
+            + "        }\n"
+            + "        System.out.println(\"Total: \" + total);\n"
+            + "    }\n"
+            + "}\n";
+
+    public static void main(String[] args) throws Exception {
+        String jar = "out/traductor.jar";
+        String cds = "out/traductor.jsa";
+        String nativo = "out/traductor";
+        int repeticiones = 20;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--jar")) {
+                jar = args[++i];
+            } else if (args[i].equals("--cds")) {
+                cds = args[++i];
+            } else if (args[i].equals("--nativo")) {
+                nativo = args[++i];
+            } else if (args[i].equals("--repeticiones")) {
+                repeticiones = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Opción desconocida: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> nombres = new ArrayList<>();
+        List<List<String>> comandos = new ArrayList<>();
+        if (new File(jar).isFile()) {
+            nombres.add("jar");
+            comandos.add(Arrays.asList(java, "-jar", jar));
+            if (new File(cds).isFile()) {
+                nombres.add("jar + AppCDS");
+                comandos.add(Arrays.asList(java, "-XX:SharedArchiveFile=" + cds, "-Xlog:cds=off", "-jar", jar));
+            }
+        }
+        if (new File(nativo).isFile()) {
+            nombres.add("imagen nativa");
+            comandos.add(Arrays.asList(nativo));
+        }
+        if (comandos.isEmpty()) {
+            System.err.println("No se encontró ningún empaquetado; ejecute antes sh empaquetar.sh");
+            System.exit(2);
+        }
+
+        Path directorio = Files.createTempDirectory("arranque");
+        Path entrada = Files.createDirectories(directorio.resolve("entrada"));
+        Files.write(entrada.resolve("Hola.java"), CODIGO.getBytes(StandardCharsets.UTF_8));
+
+        System.out.println(String.format(Locale.ROOT, "%-16s %10s %10s %10s", "empaquetado", "mín. ms", "mediana", "p90"));
+        String referencia = null;
+        boolean iguales = true;
+        for (int c = 0; c < comandos.size(); c++) {
+            Path salida = directorio.resolve("salida" + c);
+            // Una ejecución sin medir para que el sistema operativo tenga los archivos en caché.
+            ejecutar(comandos.get(c), entrada, salida);
+            long[] nanos = new long[repeticiones];
+            for (int r = 0; r < repeticiones; r++) {
+                nanos[r] = ejecutar(comandos.get(c), entrada, salida);
+            }
+            Arrays.sort(nanos);
+            System.out.println(String.format(Locale.ROOT, "%-16s %10.1f %10.1f %10.1f", nombres.get(c),
+                    nanos[0] / 1e6, nanos[repeticiones / 2] / 1e6, nanos[Math.min(repeticiones - 1, repeticiones * 9 / 10)] / 1e6));
+            String traduccion = new String(Files.readAllBytes(salida.resolve("Hola.js")), StandardCharsets.UTF_8);
+            if (referencia == null) {
+                referencia = traduccion;
+            } else if (!referencia.equals(traduccion)) {
+                System.out.println("La traducción de " + nombres.get(c) + " no coincide con la de " + nombres.get(0));
+                iguales = false;
+            }
+        }
+        borrar(directorio);
+        if (!iguales) {
+            System.exit(1);
+        }
+    }
+
+    // Lanza una traducción por lotes y devuelve los nanosegundos hasta que el proceso termina
+    private static long ejecutar(List<String> comando, Path entrada, Path salida) throws Exception {
+        List<String> argumentos = new ArrayList<>(comando);
+        argumentos.addAll(Arrays.asList("--from", "Java", "--to", "JS", "--in", entrada.toString(),
+                "--out", salida.toString(), "--hilos", "1"));
+        ProcessBuilder proceso = new ProcessBuilder(argumentos);
+        proceso.redirectErrorStream(true);
+        proceso.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        long inicio = System.nanoTime();
+        int codigo = proceso.start().waitFor();
+        long nanos = System.nanoTime() - inicio;
+        if (codigo != 0) {
+            throw new IllegalStateException("La traducción terminó con código " + codigo + ": " + argumentos);
+        }
+        return nanos;
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        Files.walkFileTree(directorio, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path archivo, BasicFileAttributes atributos) throws IOException {
+                Files.delete(archivo);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException error) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,168 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga de ServidorTraduccion: varios clientes envían lotes de archivos en bucle cerrado durante un
+ * tiempo fijo y al final se informan las peticiones/s, los archivos/s, la latencia p50/p99 de las respuestas
+ * correctas y cuántas se rechazaron con 503.
+ *
+ * Uso (desde la raíz del repositorio):
+ *
+ *   javac -encoding UTF-8 -d out src/*.java bench/*.java
+ *   java -cp out PruebaCargaServidor [--url http://127.0.0.1:8080/traducir] [--clientes 32] [--segundos 10]
+ *                                    [--archivos 4] [--kb 4] [--hilos N] [--cola N]
+ *
+ * Sin --url se arranca un servidor en el mismo proceso, en un puerto libre, con --hilos y --cola.
+ */
+public class PruebaCargaServidor {
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clientes = 32;
+        int segundos = 10;
+        int archivos = 4;
+        int kb = 4;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int cola = hilos * 16;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--url")) {
+                url = args[++i];
+            } else if (args[i].equals("--clientes")) {
+                clientes = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--segundos")) {
+                segundos = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--archivos")) {
+                archivos = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--kb")) {
+                kb = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--hilos")) {
+                hilos = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--cola")) {
+                cola = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Opción desconocida: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        ServidorTraduccion servidor = null;
+        if (url == null) {
+            servidor = new ServidorTraduccion(0, hilos, cola);
+            servidor.calentar();
+            servidor.iniciar();
+            url = "http://127.0.0.1:" + servidor.getPuerto() + "/traducir";
+        }
+
+        final String cuerpo = crearCuerpo(archivos, kb);
+        final URI destino = URI.create(url);
+        final HttpClient cliente = HttpClient.newHttpClient();
+        final AtomicLong correctas = new AtomicLong();
+        final AtomicLong rechazadas = new AtomicLong();
+        final AtomicLong fallidas = new AtomicLong();
+        final long[][] latencias = new long[clientes][];
+        final int[] cantidades = new int[clientes];
+
+        // Un segundo de calentamiento del cliente y del servidor antes de medir.
+        ejecutarClientes(cliente, destino, cuerpo, clientes, 1, new long[clientes][], new int[clientes],
+                new AtomicLong(), new AtomicLong(), new AtomicLong());
+        long inicio = System.nanoTime();
+        ejecutarClientes(cliente, destino, cuerpo, clientes, segundos, latencias, cantidades, correctas, rechazadas, fallidas);
+        double transcurrido = (System.nanoTime() - inicio) / 1e9;
+
+        int total = 0;
+        for (int cantidad : cantidades) {
+            total += cantidad;
+        }
+        long[] todas = new long[total];
+        int pos = 0;
+        for (int i = 0; i < clientes; i++) {
+            System.arraycopy(latencias[i], 0, todas, pos, cantidades[i]);
+            pos += cantidades[i];
+        }
+        Arrays.sort(todas);
+
+        System.out.println(String.format(Locale.ROOT, "Clientes: %d, archivos por petición: %d de %d KB, duración: %.1f s",
+                clientes, archivos, kb, transcurrido));
+        System.out.println(String.format(Locale.ROOT, "Peticiones/s: %.1f, archivos/s: %.1f",
+                correctas.get() / transcurrido, correctas.get() * archivos / transcurrido));
+        System.out.println(String.format(Locale.ROOT, "Latencia p50: %.2f ms, p99: %.2f ms, máx.: %.2f ms",
+                percentil(todas, 0.50), percentil(todas, 0.99), todas.length == 0 ? 0.0 : todas[todas.length - 1] / 1e6));
+        System.out.println("Correctas: " + correctas.get() + ", rechazadas (503): " + rechazadas.get() + ", fallidas: " + fallidas.get());
+
+        if (servidor != null) {
+            servidor.detener();
+        }
+    }
+
+    private static void ejecutarClientes(final HttpClient cliente, final URI destino, final String cuerpo, int clientes,
+                                         int segundos, final long[][] latencias, final int[] cantidades,
+                                         final AtomicLong correctas, final AtomicLong rechazadas, final AtomicLong fallidas)
+            throws InterruptedException {
+        final long limite = System.nanoTime() + segundos * 1_000_000_000L;
+        Thread[] hilos = new Thread[clientes];
+        for (int i = 0; i < clientes; i++) {
+            final int indice = i;
+            hilos[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long[] propias = new long[1024];
+                    int cantidad = 0;
+                    HttpRequest peticion = HttpRequest.newBuilder(destino)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                            .build();
+                    while (System.nanoTime() < limite) {
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<String> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+                            long nanos = System.nanoTime() - inicio;
+                            if (respuesta.statusCode() == 200) {
+                                correctas.incrementAndGet();
+                                if (cantidad == propias.length) {
+                                    propias = Arrays.copyOf(propias, cantidad * 2);
+                                }
+                                propias[cantidad++] = nanos;
+                            } else if (respuesta.statusCode() == 503) {
+                                rechazadas.incrementAndGet();
+                                // Un cliente real esperaría Retry-After; aquí se reintenta enseguida para mantener la presión.
+                            } else {
+                                fallidas.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            fallidas.incrementAndGet();
+                        }
+                    }
+                    latencias[indice] = propias;
+                    cantidades[indice] = cantidad;
+                }
+            }, "cliente-" + i);
+            hilos[i].start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+    }
+
+    private static String crearCuerpo(int archivos, int kb) {
+        StringBuilder json = new StringBuilder("{\"origen\": \"Java\", \"destino\": \"JS\", \"archivos\": [");
+        for (int i = 0; i < archivos; i++) {
+            json.append(i == 0 ? "" : ", ").append("{\"nombre\": \"Archivo").append(i).append(".java\", \"codigo\": ");
+            Json.escribir(BenchmarkTraductor.GeneradorCodigo.generar("Java", kb * 1024, i), json);
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1);
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+}
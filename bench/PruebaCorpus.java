@@ -0,0 +1,750 @@
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Prueba de regresión del traductor en tres partes:
+ *
+ * 1. Corpus dorado: cada programa de bench/corpus (.java, .cpp o .js) se traduce a los otros dos idiomas con
+ *    Traductor.traducir y el resultado se compara con su archivo .esperado (por ejemplo programa.java.C++.esperado),
+ *    que guarda los errores y la traducción. Así cualquier cambio en las reglas o en el motor que altere la salida
+ *    aparece como diferencia.
+ * 2. Propiedades: un generador con semilla arma programas aleatorios de los tres idiomas (comentarios de varias
+ *    líneas, cadenas con ');' y comillas, bloques de texto, líneas 'error', finales CRLF, código inválido y pares
+ *    no soportados) y comprueba que el flujo, el paralelo (también con un límite de errores), la caché, la
+ *    traducción incremental y traducirArchivo den exactamente lo mismo que traducir(String, ...) línea por
+ *    línea, y que el modo estructural no lance excepciones. Los programas del corpus pasan por la misma comparación. Un caso que falla se reduce quitando
+ *    líneas mientras siga fallando y se muestra con la semilla para repetirlo. Un programa con miles de bloques
+ *    anidados debe traducirse en el modo estructural sin agotar la pila, igual que en el modo por líneas.
+ * 3. Presupuestos: cada caso de bench/corpus/presupuestos.csv se mide (mediana de varias repeticiones después
+ *    de calentar) y falla si tarda más que su presupuesto en milisegundos multiplicado por --factor.
+ *
+ * Uso (desde la raíz del repositorio):
+ *
+ *   javac -encoding UTF-8 -d out src/*.java bench/*.java
+ *   java -Xmx1g -cp out PruebaCorpus [--casos 500] [--semilla N] [--factor 1.0] [--sin-tiempos]
+ *                                    [--actualizar] [--actualizar-presupuestos]
+ *
+ * --actualizar reescribe los archivos .esperado con la salida actual (revisar el diff antes de confirmarlos) y
+ * --actualizar-presupuestos escribe presupuestos.csv con el triple de la mediana medida en esta máquina.
+ * Termina con código 1 si alguna comprobación falla.
+ */
+public class PruebaCorpus {
+
+    private static final String[] IDIOMAS = {"Java", "C++", "JS"};
+    private static final String VACIO = "El código es nulo o está vacío.";
+
+    // Repeticiones de cada caso de tiempo y triple de la mediana al escribir los presupuestos
+    private static final int REPETICIONES = 9;
+    private static final long CALENTAMIENTO_NANOS = 500_000_000L;
+    private static final double MARGEN_PRESUPUESTO = 3.0;
+    // Límite de errores del modo "paralelo con límite", mayor que el predeterminado que se fija mientras corre
+    private static final int LIMITE_ERRORES = 4;
+
+    private static Path corpus = Paths.get("bench", "corpus");
+    private static Path temporal;
+    private static int fallos;
+
+    public static void main(String[] args) throws Exception {
+        int casos = 500;
+        long semilla = System.currentTimeMillis();
+        double factor = 1.0;
+        boolean tiempos = true;
+        boolean actualizar = false;
+        boolean actualizarPresupuestos = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--casos")) {
+                casos = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--semilla")) {
+                semilla = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--factor")) {
+                factor = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--corpus")) {
+                corpus = Paths.get(args[++i]);
+            } else if (args[i].equals("--sin-tiempos")) {
+                tiempos = false;
+            } else if (args[i].equals("--actualizar")) {
+                actualizar = true;
+            } else if (args[i].equals("--actualizar-presupuestos")) {
+                actualizarPresupuestos = true;
+            } else {
+                System.err.println("Opción desconocida: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        temporal = Files.createTempDirectory("corpus");
+        try {
+            probarCorpus(actualizar);
+            probarPropiedades(casos, semilla);
+            probarAnidamiento();
+            if (tiempos || actualizarPresupuestos) {
+                probarPresupuestos(factor, actualizarPresupuestos);
+            }
+        } finally {
+            borrar(temporal);
+        }
+        System.out.println(fallos == 0 ? "Correcto" : "FALLO: " + fallos + " comprobaciones fallidas");
+        if (fallos > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Corpus dorado
+
+    private static void probarCorpus(boolean actualizar) throws Exception {
+        List<Path> programas = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(corpus)) {
+            for (Path archivo : archivos) {
+                if (TraductorLotes.idiomaPorExtension(archivo) != null) {
+                    programas.add(archivo);
+                }
+            }
+        }
+        Collections.sort(programas);
+        if (programas.isEmpty()) {
+            System.out.println("No hay programas en " + corpus);
+            fallos++;
+            return;
+        }
+
+        int comparados = 0;
+        int actualizados = 0;
+        for (Path programa : programas) {
+            String origen = TraductorLotes.idiomaPorExtension(programa);
+            String codigo = new String(Files.readAllBytes(programa), StandardCharsets.UTF_8);
+            for (String destino : IDIOMAS) {
+                if (destino.equals(origen)) {
+                    continue;
+                }
+                String nombre = programa.getFileName() + " " + origen + "->" + destino;
+                String obtenido = referencia(codigo, origen, destino);
+                Path esperado = corpus.resolve(programa.getFileName() + "." + destino + ".esperado");
+                if (actualizar) {
+                    if (!Files.exists(esperado) || !leer(esperado).equals(obtenido)) {
+                        Files.write(esperado, obtenido.getBytes(StandardCharsets.UTF_8));
+                        actualizados++;
+                    }
+                } else if (!Files.exists(esperado)) {
+                    System.out.println("Falta " + esperado + " (ejecute con --actualizar)");
+                    fallos++;
+                } else {
+                    String texto = leer(esperado);
+                    if (!texto.equals(obtenido)) {
+                        System.out.println("La traducción de " + nombre + " no coincide con " + esperado.getFileName());
+                        mostrarDiferencia(texto, obtenido);
+                        fallos++;
+                    }
+                }
+                String modo = compararModos(codigo, origen, destino, true);
+                if (modo != null) {
+                    System.out.println("El modo " + modo + " no coincide con la referencia en " + nombre);
+                    fallos++;
+                }
+                comparados++;
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "Corpus: %d traducciones de %d programas%s", comparados,
+                programas.size(), actualizar ? ", " + actualizados + " archivos .esperado actualizados" : ""));
+    }
+
+    // Muestra la primera línea distinta entre el archivo esperado y la salida actual
+    private static void mostrarDiferencia(String esperado, String obtenido) {
+        String[] a = esperado.split("\n", -1);
+        String[] b = obtenido.split("\n", -1);
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            String x = i < a.length ? a[i] : "(fin)";
+            String y = i < b.length ? b[i] : "(fin)";
+            if (!x.equals(y)) {
+                System.out.println("  línea " + (i + 1) + " esperada: " + x);
+                System.out.println("  línea " + (i + 1) + " obtenida: " + y);
+                return;
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Comparación de los modos con la referencia
+
+    /*
+     * Resultado de Traductor.traducir(String, ...) como texto: primero los errores, uno por línea, y después de
+     * una línea "---" la traducción. Es el formato de los archivos .esperado.
+     */
+    private static String referencia(String codigo, String origen, String destino) {
+        return referencia(codigo, origen, destino, new ErroresTraduccion());
+    }
+
+    private static String referencia(String codigo, String origen, String destino, ErroresTraduccion errores) {
+        try {
+            Traductor.ResultadoTraduccion resultado = Traductor.traducir(codigo, origen, destino, errores);
+            return formatear(resultado.traduccion, resultado.errores);
+        } catch (Exception e) {
+            return "excepción: " + e.getMessage() + "\n";
+        }
+    }
+
+    private static String formatear(String traduccion, List<Traductor.ErrorInfo> errores) {
+        StringBuilder texto = new StringBuilder();
+        texto.append("errores: ").append(errores.size()).append('\n');
+        for (Traductor.ErrorInfo error : errores) {
+            texto.append(error.linea).append(": ").append(error.mensaje).append('\n');
+        }
+        texto.append("---\n");
+        // En el flujo y en traducirArchivo la salida de un código inválido se descarta, igual que en la referencia
+        if (!descartada(errores)) {
+            texto.append(traduccion);
+        }
+        return texto.toString();
+    }
+
+    private static boolean descartada(List<Traductor.ErrorInfo> errores) {
+        if (errores.size() != 1) {
+            return false;
+        }
+        CodigoError codigo = errores.get(0).codigo;
+        return codigo == CodigoError.NO_ES_JAVA || codigo == CodigoError.NO_ES_CPP || codigo == CodigoError.NO_ES_JS
+                || codigo == CodigoError.PAR_NO_SOPORTADO;
+    }
+
+    /*
+     * Traduce el código con cada modo alternativo y devuelve el nombre del primero que no coincide con la
+     * referencia, o null si todos coinciden. conArchivo incluye traducirArchivo, que escribe archivos temporales.
+     */
+    private static String compararModos(String codigo, String origen, String destino, boolean conArchivo) {
+        String esperado = referencia(codigo, origen, destino);
+        String[] modos = {"flujo", "flujo de 3 caracteres", "paralelo", "paralelo con límite", "caché", "caché en memoria",
+                "caché en disco", "incremental", "archivo"};
+        for (String modo : modos) {
+            if (modo.equals("archivo") && !conArchivo) {
+                continue;
+            }
+            String esperadoModo = !modo.equals("paralelo con límite") ? esperado
+                    : referencia(codigo, origen, destino, new ErroresTraduccion(LIMITE_ERRORES, null));
+            String obtenido;
+            try {
+                obtenido = traducir(modo, codigo, origen, destino);
+            } catch (Exception e) {
+                obtenido = "excepción: " + e.getMessage() + "\n";
+            }
+            if (!esperadoModo.equals(obtenido)) {
+                return modo;
+            }
+        }
+        if (!estructuralSinExcepciones(codigo, origen, destino)) {
+            return "estructural";
+        }
+        return null;
+    }
+
+    private static String traducir(String modo, String codigo, String origen, String destino) throws Exception {
+        if (modo.startsWith("flujo")) {
+            Reader lector = new StringReader(codigo);
+            if (modo.equals("flujo de 3 caracteres")) {
+                // Cortes de lectura en cualquier lugar, incluso entre '\r' y '\n'
+                lector = new FilterReader(lector) {
+                    @Override
+                    public int read(char[] buffer, int desde, int cantidad) throws IOException {
+                        return super.read(buffer, desde, Math.min(cantidad, 3));
+                    }
+                };
+            }
+            StringWriter salida = new StringWriter();
+            List<Traductor.ErrorInfo> errores = Traductor.traducir(lector, salida, origen, destino);
+            return formatear(salida.toString(), errores);
+        }
+        if (modo.equals("paralelo")) {
+            // Trozos mínimos para que casi cada línea caiga en un trozo distinto
+            Traductor.ResultadoTraduccion resultado = Traductor.traducirEnParalelo(codigo, origen, destino, 7);
+            return formatear(resultado.traduccion, resultado.errores);
+        }
+        if (modo.equals("paralelo con límite")) {
+            // Con un límite predeterminado menor, un trozo que no use el de la colección final omitiría errores
+            int predeterminado = ErroresTraduccion.getLimitePredeterminado();
+            ErroresTraduccion.setLimitePredeterminado(1);
+            try {
+                Traductor.ResultadoTraduccion resultado = Traductor.traducirEnParalelo(codigo, origen, destino, 7,
+                        new ErroresTraduccion(LIMITE_ERRORES, null));
+                return formatear(resultado.traduccion, resultado.errores);
+            } finally {
+                ErroresTraduccion.setLimitePredeterminado(predeterminado);
+            }
+        }
+        if (modo.startsWith("caché")) {
+            Path directorio = temporal.resolve("cache");
+            CacheTraduccion cache = new CacheTraduccion(1 << 20, directorio);
+            Traductor.ResultadoTraduccion resultado = cache.traducir(codigo, origen, destino);
+            if (modo.equals("caché en memoria")) {
+                resultado = cache.traducir(codigo, origen, destino);
+            } else if (modo.equals("caché en disco")) {
+                resultado = new CacheTraduccion(1 << 20, directorio).traducir(codigo, origen, destino);
+            }
+            return formatear(resultado.traduccion, resultado.errores);
+        }
+        if (modo.equals("incremental")) {
+            return traducirIncremental(codigo, origen, destino);
+        }
+        Path entrada = temporal.resolve("entrada");
+        Path salida = temporal.resolve("salida");
+        Files.write(entrada, codigo.getBytes(StandardCharsets.UTF_8));
+        List<Traductor.ErrorInfo> errores = Traductor.traducirArchivo(entrada, salida, origen, destino);
+        return formatear(leer(salida), errores);
+    }
+
+    /*
+     * Parte de un texto con un rango de líneas reemplazado por otras (líneas 'error', comentarios sin cerrar,
+     * líneas vacías) y lo corrige con actualizar, como cuando se edita en la ventana.
+     */
+    private static String traducirIncremental(String codigo, String origen, String destino) throws Exception {
+        List<String> lineas = Arrays.asList(codigo.split("\n", -1));
+        Random aleatorio = new Random(codigo.hashCode());
+        int inicio = aleatorio.nextInt(lineas.size() + 1);
+        int fin = inicio + aleatorio.nextInt(lineas.size() - inicio + 1);
+        List<String> editadas = new ArrayList<>();
+        int cantidad = aleatorio.nextInt(4);
+        for (int i = 0; i < cantidad; i++) {
+            String[] opciones = {"int error = 0;", "/* sin cerrar", "", "\"cadena"};
+            editadas.add(opciones[aleatorio.nextInt(opciones.length)]);
+        }
+        List<String> anterior = new ArrayList<>(lineas.subList(0, inicio));
+        anterior.addAll(editadas);
+        anterior.addAll(lineas.subList(fin, lineas.size()));
+
+        TraduccionIncremental incremental = new TraduccionIncremental(origen, destino);
+        incremental.reconstruir(String.join("\n", anterior));
+        incremental.actualizar(inicio, cantidad, new ArrayList<>(lineas.subList(inicio, fin)));
+        if (incremental.esVacio()) {
+            // La ventana no traduce un texto vacío; traducir(String, ...) lanza la excepción
+            throw new Exception(VACIO);
+        }
+        return formatear(incremental.getTraduccion(), incremental.getErrores());
+    }
+
+    // El modo estructural puede dar otra salida, pero no debe lanzar excepciones con ningún código
+    private static boolean estructuralSinExcepciones(String codigo, String origen, String destino) {
+        try {
+            TraductorEstructural.traducir(codigo, origen, destino);
+            return true;
+        } catch (Exception e) {
+            return VACIO.equals(e.getMessage());
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Propiedades con programas aleatorios
+
+    private static void probarPropiedades(int casos, long semilla) throws Exception {
+        Random aleatorio = new Random(semilla);
+        int fallidos = 0;
+        for (int caso = 0; caso < casos; caso++) {
+            long semillaCaso = aleatorio.nextLong();
+            Random generador = new Random(semillaCaso);
+            String idioma = IDIOMAS[generador.nextInt(IDIOMAS.length)];
+            String codigo = GeneradorProgramas.generar(idioma, generador);
+            // A veces se declara otro idioma de origen o un destino sin par, para probar la validación
+            String origen = generador.nextInt(20) == 0 ? IDIOMAS[generador.nextInt(IDIOMAS.length)] : idioma;
+            String destino = generador.nextInt(30) == 0 ? "Python" : IDIOMAS[generador.nextInt(IDIOMAS.length)];
+            if (destino.equals(origen)) {
+                destino = IDIOMAS[(Arrays.asList(IDIOMAS).indexOf(origen) + 1) % IDIOMAS.length];
+            }
+            String modo = compararModos(codigo, origen, destino, caso % 10 == 0);
+            if (modo != null) {
+                fallidos++;
+                fallos++;
+                String reducido = reducir(codigo, origen, destino, modo);
+                System.out.println("El modo " + modo + " no coincide con la referencia (" + origen + "->" + destino
+                        + ", semilla del caso " + semillaCaso + "). Código reducido:");
+                System.out.println("  " + escapar(reducido));
+                System.out.println("  referencia: " + escapar(referencia(reducido, origen, destino)));
+                if (fallidos >= 5) {
+                    System.out.println("Se detiene la prueba de propiedades después de 5 fallos");
+                    break;
+                }
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "Propiedades: %d programas aleatorios, semilla %d, %d fallos",
+                casos, semilla, fallidos));
+    }
+
+    /*
+     * 20000 ifs anidados, más de los que admite AnalizadorSintactico: el modo estructural debe informar
+     * ANIDAMIENTO y devolver la traducción del modo por líneas, en un hilo con una pila chica.
+     */
+    private static void probarAnidamiento() throws Exception {
+        int niveles = 20000;
+        StringBuilder codigo = new StringBuilder("public class Programa {\n    public static void main(String[] args) {\n");
+        for (int i = 0; i < niveles; i++) {
+            codigo.append("if (x) {\n");
+        }
+        for (int i = 0; i < niveles; i++) {
+            codigo.append("}\n");
+        }
+        codigo.append("    }\n}\n");
+        final String fuente = codigo.toString();
+        final Traductor.ResultadoTraduccion[] obtenido = new Traductor.ResultadoTraduccion[1];
+        final Throwable[] excepcion = new Throwable[1];
+        Thread hilo = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    obtenido[0] = TraductorEstructural.traducir(fuente, "Java", "JS");
+                } catch (Throwable e) {
+                    excepcion[0] = e;
+                }
+            }
+        }, "anidamiento", 512 * 1024);
+        hilo.start();
+        hilo.join();
+        String problema = null;
+        if (excepcion[0] != null) {
+            problema = "el modo estructural lanzó " + excepcion[0];
+        } else if (obtenido[0].errores.isEmpty() || obtenido[0].errores.get(0).codigo != CodigoError.ANIDAMIENTO) {
+            problema = "no se informó el error de anidamiento";
+        } else {
+            ErroresTraduccion esperados = new ErroresTraduccion();
+            esperados.agregar(obtenido[0].errores.get(0).linea, CodigoError.ANIDAMIENTO,
+                    Integer.toString(AnalizadorSintactico.MAX_ANIDAMIENTO));
+            Traductor.ResultadoTraduccion porLineas = Traductor.traducir(fuente, "Java", "JS", esperados);
+            if (!formatear(porLineas.traduccion, porLineas.errores)
+                    .equals(formatear(obtenido[0].traduccion, obtenido[0].errores))) {
+                problema = "el modo estructural no coincide con el modo por líneas";
+            }
+        }
+        if (problema != null) {
+            fallos++;
+        }
+        System.out.println("Anidamiento: " + niveles + " niveles, " + (problema == null ? "correcto" : problema));
+    }
+
+    // Quita líneas del código mientras el mismo modo siga fallando, para mostrar un caso mínimo
+    private static String reducir(String codigo, String origen, String destino, String modo) {
+        List<String> lineas = new ArrayList<>(Arrays.asList(codigo.split("\n", -1)));
+        boolean reducido = true;
+        while (reducido) {
+            reducido = false;
+            for (int i = lineas.size() - 1; i >= 0 && lineas.size() > 1; i--) {
+                List<String> prueba = new ArrayList<>(lineas);
+                prueba.remove(i);
+                if (modo.equals(compararModos(String.join("\n", prueba), origen, destino, modo.equals("archivo")))) {
+                    lineas = prueba;
+                    reducido = true;
+                }
+            }
+        }
+        return String.join("\n", lineas);
+    }
+
+    private static String escapar(String texto) {
+        return texto.replace("\\", "\\\\").replace("\r", "\\r").replace("\n", "\\n").replace("\t", "\\t");
+    }
+
+    /*
+     * Genera programas aleatorios con las construcciones que más afectan al motor: estado léxico que cruza
+     * líneas, cadenas y comentarios con el texto de las reglas, identificadores parecidos a 'error' y
+     * líneas vacías o con espacios al final.
+     */
+    static class GeneradorProgramas {
+
+        private static final String[] NOMBRES = {"x", "total", "error", "errores", "terror", "error_", "valor", "ñu"};
+        private static final String[] TEXTOS = {"hola", "a);b", "// no", "/* no */", "error", "\\\"", "ñandú",
+                "System.out.println(1);", "std::cout << 1;", "console.log(1);", "#include <x>", "'", "`"};
+
+        static String generar(String idioma, Random aleatorio) {
+            StringBuilder codigo = new StringBuilder();
+            boolean completo = aleatorio.nextInt(10) != 0;
+            String sangria = "";
+            if (idioma.equals("Java")) {
+                if (completo) {
+                    codigo.append("public class Programa {\n    public static void main(String[] args) {\n");
+                    sangria = "        ";
+                }
+            } else if (idioma.equals("C++")) {
+                if (completo) {
+                    codigo.append("#include <iostream>\nusing namespace std;\n\nint main() {\n");
+                    sangria = "    ";
+                }
+            } else if (completo) {
+                codigo.append("function main() {\n");
+                sangria = "    ";
+            }
+            int lineas = aleatorio.nextInt(25);
+            for (int i = 0; i < lineas; i++) {
+                sentencia(codigo, idioma, sangria, aleatorio);
+            }
+            if (completo) {
+                codigo.append(idioma.equals("Java") ? "    }\n}" : "}");
+            }
+            int saltos = aleatorio.nextInt(4);
+            for (int i = 0; i < saltos; i++) {
+                codigo.append(aleatorio.nextInt(5) == 0 ? "\r\n" : "\n");
+            }
+            return codigo.toString();
+        }
+
+        private static void sentencia(StringBuilder codigo, String idioma, String sangria, Random aleatorio) {
+            String nombre = NOMBRES[aleatorio.nextInt(NOMBRES.length)];
+            String texto = TEXTOS[aleatorio.nextInt(TEXTOS.length)];
+            String cadena = "\"" + texto.replace("\\\"", "\\\\\"").replace("\"", "\\\"") + "\"";
+            String linea;
+            switch (aleatorio.nextInt(12)) {
+                case 0:
+                    linea = imprimir(idioma, cadena);
+                    break;
+                case 1:
+                    linea = imprimir(idioma, cadena + (idioma.equals("C++") ? " << " : " + ") + nombre);
+                    break;
+                case 2:
+                    linea = (idioma.equals("JS") ? "let " : "int ") + nombre + " = " + aleatorio.nextInt(100) + ";";
+                    break;
+                case 3:
+                    linea = "// " + texto + " " + imprimir(idioma, nombre);
+                    break;
+                case 4:
+                    linea = "/* " + texto + "\n" + sangria + imprimir(idioma, cadena) + "\n" + sangria + "*/";
+                    break;
+                case 5:
+                    linea = imprimir(idioma, nombre) + " /* " + texto + " */ " + imprimir(idioma, cadena);
+                    break;
+                case 6:
+                    linea = "for (" + (idioma.equals("JS") ? "let" : "int") + " i = 0; i < 3; i++) {\n"
+                            + sangria + "    " + imprimir(idioma, "i") + "\n" + sangria + "}";
+                    break;
+                case 7:
+                    linea = "if (" + nombre + " > 0) " + imprimir(idioma, cadena);
+                    break;
+                case 8:
+                    linea = multilinea(idioma, texto, sangria);
+                    break;
+                case 9:
+                    linea = aleatorio.nextBoolean() ? "" : "\t  ";
+                    break;
+                case 10:
+                    linea = nombre + "++;" + (aleatorio.nextBoolean() ? " // " + texto : "");
+                    break;
+                default:
+                    linea = imprimir(idioma, "'" + (texto.equals("'") ? "\\'" : "x") + "'");
+                    break;
+            }
+            codigo.append(sangria).append(linea);
+            if (aleatorio.nextInt(8) == 0) {
+                codigo.append("  ");
+            }
+            codigo.append(aleatorio.nextInt(15) == 0 ? "\r\n" : "\n");
+        }
+
+        private static String imprimir(String idioma, String valor) {
+            if (idioma.equals("Java")) {
+                return "System.out.println(" + valor + ");";
+            }
+            if (idioma.equals("C++")) {
+                return "std::cout << " + valor + " << std::endl;";
+            }
+            return "console.log(" + valor + ");";
+        }
+
+        // Literal de varias líneas de cada idioma, con el texto de una regla dentro
+        private static String multilinea(String idioma, String texto, String sangria) {
+            if (idioma.equals("Java")) {
+                return "String b = \"\"\"\n" + sangria + imprimir(idioma, "\"" + texto + "\"") + "\n" + sangria + "\"\"\";";
+            }
+            if (idioma.equals("C++")) {
+                return "auto r = R\"(" + texto + "\n" + imprimir(idioma, "1") + "\n)\";";
+            }
+            return "const t = `" + texto.replace("`", "\\`") + "\n" + imprimir(idioma, "t") + "\n${1}`;";
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Presupuestos de tiempo
+
+    private interface Caso {
+        void ejecutar() throws Exception;
+    }
+
+    private static void probarPresupuestos(double factor, boolean actualizar) throws Exception {
+        Path archivo = corpus.resolve("presupuestos.csv");
+        Map<String, Double> presupuestos = new LinkedHashMap<>();
+        if (Files.exists(archivo)) {
+            List<String> filas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+            for (String fila : filas.subList(1, filas.size())) {
+                int coma = fila.lastIndexOf(',');
+                if (coma > 0) {
+                    presupuestos.put(fila.substring(0, coma), Double.parseDouble(fila.substring(coma + 1)));
+                }
+            }
+        }
+
+        Map<String, Caso> casos = casosDeTiempo();
+        StringBuilder csv = new StringBuilder("caso,ms_max\n");
+        System.out.println(String.format(Locale.ROOT, "%-40s %12s %12s", "caso", "mediana ms", "presupuesto"));
+        for (Map.Entry<String, Caso> caso : casos.entrySet()) {
+            double mediana = medir(caso.getValue());
+            Double presupuesto = presupuestos.get(caso.getKey());
+            if (!actualizar && presupuesto != null && mediana > presupuesto * factor) {
+                // Una pausa de la máquina no debe hacer fallar la prueba: se vuelve a medir antes de darlo por fallido
+                mediana = Math.min(mediana, medir(caso.getValue()));
+            }
+            String estado;
+            if (actualizar) {
+                double nuevo = Math.max(1, Math.ceil(mediana * MARGEN_PRESUPUESTO));
+                csv.append(caso.getKey()).append(',').append(String.format(Locale.ROOT, "%.0f", nuevo)).append('\n');
+                estado = "nuevo presupuesto " + String.format(Locale.ROOT, "%.0f", nuevo);
+            } else if (presupuesto == null) {
+                estado = "FALLO: sin presupuesto";
+                fallos++;
+            } else if (mediana > presupuesto * factor) {
+                estado = "FALLO: " + String.format(Locale.ROOT, "%.1f", mediana / presupuesto) + " veces el presupuesto";
+                fallos++;
+            } else {
+                estado = "";
+            }
+            System.out.println(String.format(Locale.ROOT, "%-40s %12.2f %12s  %s", caso.getKey(), mediana,
+                    presupuesto == null ? "-" : String.format(Locale.ROOT, "%.0f", presupuesto * factor), estado));
+        }
+        if (actualizar) {
+            Files.write(archivo, csv.toString().getBytes(StandardCharsets.UTF_8));
+            System.out.println("Presupuestos escritos en " + archivo);
+        }
+    }
+
+    // Mediana en milisegundos después de repetir el caso durante el calentamiento
+    private static double medir(Caso caso) throws Exception {
+        long finCalentamiento = System.nanoTime() + CALENTAMIENTO_NANOS;
+        do {
+            caso.ejecutar();
+        } while (System.nanoTime() < finCalentamiento);
+        long[] nanos = new long[REPETICIONES];
+        for (int i = 0; i < REPETICIONES; i++) {
+            long inicio = System.nanoTime();
+            caso.ejecutar();
+            nanos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(nanos);
+        return nanos[REPETICIONES / 2] / 1e6;
+    }
+
+    private static Map<String, Caso> casosDeTiempo() throws Exception {
+        Map<String, Caso> casos = new LinkedHashMap<>();
+        final Map<String, String> codigos = new LinkedHashMap<>();
+        for (String idioma : IDIOMAS) {
+            codigos.put(idioma, BenchmarkTraductor.GeneradorCodigo.generar(idioma, 512 * 1024, 42));
+        }
+        // Por debajo del umbral del paralelo, para medir la traducción secuencial de cada par
+        for (final String origen : IDIOMAS) {
+            for (final String destino : IDIOMAS) {
+                if (!origen.equals(destino)) {
+                    casos.put("lineas " + origen + "->" + destino + " 512KB", new Caso() {
+                        @Override
+                        public void ejecutar() throws Exception {
+                            Traductor.traducir(codigos.get(origen), origen, destino);
+                        }
+                    });
+                }
+            }
+        }
+
+        final String grande = BenchmarkTraductor.GeneradorCodigo.generar("Java", 4 * 1024 * 1024, 7);
+        casos.put("paralelo Java->JS 4MB", new Caso() {
+            @Override
+            public void ejecutar() throws Exception {
+                Traductor.traducirEnParalelo(grande, "Java", "JS");
+            }
+        });
+        casos.put("flujo C++->JS 512KB", new Caso() {
+            @Override
+            public void ejecutar() throws Exception {
+                Traductor.traducir(new StringReader(codigos.get("C++")), new StringWriter(), "C++", "JS");
+            }
+        });
+
+        final Path entrada = temporal.resolve("tiempo.js");
+        final Path salida = temporal.resolve("tiempo.cpp");
+        Files.write(entrada, BenchmarkTraductor.GeneradorCodigo.generar("JS", 4 * 1024 * 1024, 3).getBytes(StandardCharsets.UTF_8));
+        casos.put("archivo JS->C++ 4MB", new Caso() {
+            @Override
+            public void ejecutar() throws Exception {
+                Traductor.traducirArchivo(entrada, salida, "JS", "C++");
+            }
+        });
+
+        final CacheTraduccion cache = new CacheTraduccion(16L * 1024 * 1024, null);
+        cache.traducir(codigos.get("Java"), "Java", "C++");
+        casos.put("cache acierto Java->C++ 512KB", new Caso() {
+            @Override
+            public void ejecutar() throws Exception {
+                cache.traducir(codigos.get("Java"), "Java", "C++");
+            }
+        });
+
+        // Una línea editada en medio de un documento de 100000 líneas
+        StringBuilder documento = new StringBuilder("public class Programa {\n    public static void main(String[] args) {\n");
+        for (int i = 0; i < 100000; i++) {
+            documento.append("        System.out.println(\"Valor: \" + ").append(i).append(");\n");
+        }
+        documento.append("    }\n}\n");
+        final TraduccionIncremental incremental = new TraduccionIncremental("Java", "C++");
+        incremental.reconstruir(documento.toString());
+        final int[] edicion = {0};
+        casos.put("incremental Java->C++ 1 de 100000 lineas", new Caso() {
+            @Override
+            public void ejecutar() throws Exception {
+                String linea = edicion[0]++ % 2 == 0 ? "        /* comentario */ int x = 1;" : "        int x = 2;";
+                incremental.actualizar(50000, 1, Collections.singletonList(linea));
+            }
+        });
+
+        casos.put("estructural Java->JS 512KB", new Caso() {
+            @Override
+            public void ejecutar() throws Exception {
+                TraductorEstructural.traducir(codigos.get("Java"), "Java", "JS");
+            }
+        });
+        casos.put("deteccion de idioma 512KB", new Caso() {
+            @Override
+            public void ejecutar() throws Exception {
+                DetectorIdioma.detectar(codigos.get("C++"));
+            }
+        });
+        return casos;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+
+    private static String leer(Path archivo) throws IOException {
+        return new String(Files.readAllBytes(archivo), StandardCharsets.UTF_8);
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        Files.walkFileTree(directorio, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path archivo, BasicFileAttributes atributos) throws IOException {
+                Files.delete(archivo);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException error) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
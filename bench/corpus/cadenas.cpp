@@ -0,0 +1,14 @@
+#include <iostream>
+#include <string>
+using namespace std;
+
+/* Bloque con std::cout << "no" << std::endl;
+   que no se traduce */
+int main() {
+    std::string s = "std::cout << \"dentro\" << std::endl;";
+    std::cout << s << std::endl; // std::cout << "comentario";
+    std::cout << "a << b" << std::endl;
+    std::cout << R"(std::cout << "crudo")" << std::endl;
+    std::cout << 'x' << "ñ" << std::endl;
+    return 0;
+}
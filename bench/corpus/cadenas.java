@@ -0,0 +1,14 @@
+public class Cadenas {
+    /* Comentario de varias líneas que menciona System.out.println("no");
+       y public static void main(String[] args) sin traducirlos */
+    public static void main(String[] args) {
+        String s = "System.out.println(\"dentro de una cadena\");";
+        char c = '"';
+        System.out.println(s); // System.out.println("en un comentario");
+        System.out.println("a);b" + c);
+        String bloque = """
+            System.out.println("bloque de texto");
+            """;
+        System.out.println("ñandú " + bloque.length());
+    }
+}
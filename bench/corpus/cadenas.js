@@ -0,0 +1,12 @@
+/* console.log("en un comentario
+   de varias líneas"); */
+function main() {
+    const s = "console.log(\"dentro\");";
+    const t = `plantilla ${s}
+console.log("sigue dentro de la plantilla");
+fin`;
+    console.log(s); // console.log("comentario");
+    console.log('a);b', t.length);
+    console.log("ñandú");
+}
+main();
@@ -0,0 +1,13 @@
+#include <iostream>
+using namespace std;
+
+int main() {
+    int error = 0;
+    std::cout << "error en texto" << std::endl;
+    /* error en comentario */
+    if (error) {
+        std::cout << error << std::endl;
+    }
+    int errores = 3;
+    return errores;
+}
@@ -0,0 +1,12 @@
+public class Errores {
+    public static void main(String[] args) {
+        int error = 1;
+        System.out.println("sin error aquí");
+        // un error en un comentario no cuenta
+        System.out.println(error);
+        int errores = 2;
+        String msg = "error" + errores;
+        System.out.println(msg);
+        error++;
+    }
+}
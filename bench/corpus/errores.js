@@ -0,0 +1,9 @@
+function comprobar(valor) {
+    let error = valor < 0;
+    console.log("error solo en texto");
+    // error en un comentario
+    if (error) console.log(error);
+    const errores = [];
+    return errores;
+}
+console.log(comprobar(1));
@@ -0,0 +1,4 @@
+// Sin include ni función principal
+int suma(int a, int b) {
+    return a + b;
+}
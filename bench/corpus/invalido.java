@@ -0,0 +1,4 @@
+// Solo una función suelta: no tiene clase
+static int doble(int x) {
+    return x * 2;
+}
@@ -0,0 +1,3 @@
+// Sin función ni salida por consola
+const x = 1;
+let y = x + 2;
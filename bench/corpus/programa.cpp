@@ -0,0 +1,35 @@
+#include <iostream>
+#include <vector>
+#include <string>
+using namespace std;
+
+class Contador {
+public:
+    Contador(int inicio) {
+        this->valor = inicio;
+    }
+    int siguiente() {
+        return ++valor;
+    }
+private:
+    int valor;
+};
+
+int doble(int x);
+
+int doble(int x) { return x * 2; }
+
+int main() {
+    std::vector<int> v = {1, 2, 3};
+    std::string saludo = "hola";
+    for (auto& e : v) {
+        std::cout << e << " " << doble(e)
+                  << std::endl;
+    }
+    cout << "suma: " << 1 + 2 << endl;
+    if (v.size() > 2 && saludo == "hola") {
+        cout << saludo << endl;
+    }
+    int arr[] = {4, 5};
+    return 0;
+}
@@ -0,0 +1,45 @@
+import java.util.*;
+
+// Programa de prueba
+public class Main {
+    static final int LIMITE = 10;
+    static int[] valores = {1, 2, 3};
+
+    /* Suma los valores */
+    static int sumar(int[] datos) {
+        int total = 0;
+        for (int v : datos) {
+            total += v; // acumula
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        String nombre = "Mundo";
+        System.out.println(
+            "Hola, " + nombre);
+        for (int i = 0; i < LIMITE; i++) {
+            if (i % 2 == 0) System.out.println("par " + i);
+            else if (i == 3) {
+                continue;
+            } else {
+                System.out.print(i);
+            }
+        }
+        int x = 1 + 2;
+        System.out.println(x + 1 + " total " + sumar(valores));
+        while (x > 0) x--;
+        do {
+            x++;
+        } while (x < 3);
+        switch (x) {
+            case 1:
+                System.out.println("uno");
+                break;
+            default:
+                break;
+        }
+        String s = String.valueOf(x);
+        System.out.println(s.length());
+    }
+}
@@ -0,0 +1,21 @@
+// Ejemplo JS
+const PI = 3.14;
+let nombres = ['ana', "luis"];
+
+function area(r) {
+    return PI * r * r
+}
+
+function saludar(nombre, saludo = "Hola") {
+    console.log(`${saludo}, ${nombre}!`);
+}
+
+for (const n of nombres) {
+    saludar(n)
+}
+let total = 0
+for (let i = 0; i < 3; i++) {
+    total += i;
+}
+console.log("total", total, area(2));
+if (total === 3) console.log('tres')
@@ -0,0 +1,51 @@
+#!/bin/sh
+# Empaqueta el traductor en out/ de tres formas para arrancar más rápido en las traducciones cortas:
+#
+#   out/traductor.jar   jar ejecutable (ventana sin argumentos, lotes o servidor con argumentos)
+#   out/traductor.jsa   archivo AppCDS con las clases que carga una traducción por lotes
+#   out/traductor       imagen nativa del modo por lotes (solo si native-image está en el PATH)
+#
+# Uso, desde la raíz del repositorio: sh empaquetar.sh [--sin-nativo]
+# Después: java -XX:SharedArchiveFile=out/traductor.jsa -jar out/traductor.jar --from Java --to JS --in src/ --out salida/
+set -e
+
+NATIVO=1
+if [ "$1" = "--sin-nativo" ]; then
+    NATIVO=0
+fi
+
+rm -rf out/clases out/entrenamiento
+mkdir -p out/clases out/entrenamiento/fuente
+javac -encoding UTF-8 -d out/clases src/*.java
+jar cfm out/traductor.jar MANIFEST.MF -C out/clases .
+
+# Una ejecución de entrenamiento por lotes registra al salir las clases que cargó. El classpath del
+# entrenamiento debe ser el mismo que el de las ejecuciones que usen el archivo, por eso se usa solo el jar.
+cat > out/entrenamiento/fuente/Entrenamiento.java <<'FIN'
+import java.util.ArrayList;
+
+/* Archivo de entrenamiento para AppCDS */
+public class Entrenamiento {
+    public static void main(String[] args) {
+        ArrayList<Integer> valores = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            valores.add(i * 2);
+        }
+        String texto = "Total: " + valores.size();
+        System.out.println(texto);
+    }
+}
+FIN
+rm -f out/traductor.jsa
+java -XX:ArchiveClassesAtExit=out/traductor.jsa -jar out/traductor.jar \
+    --from Java --to JS --in out/entrenamiento/fuente --out out/entrenamiento/salida --hilos 1
+
+# La imagen nativa parte de TraductorLotes.main, así que no incluye Swing ni AWT. Solo tiene los pares de
+# idiomas incluidos: los proveedores externos se buscan con ServiceLoader al arrancar y no existen en ella.
+if [ "$NATIVO" = "1" ]; then
+    if command -v native-image >/dev/null 2>&1; then
+        native-image --no-fallback -O2 -cp out/clases -o out/traductor TraductorLotes
+    else
+        echo "native-image no está en el PATH; se omite la imagen nativa."
+    fi
+fi
@@ -0,0 +1,181 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autómata de Aho-Corasick que busca varios patrones a la vez en una sola pasada sobre el texto.
+ * Se compila una sola vez a una tabla de transiciones completa (sin seguir enlaces de fallo al buscar),
+ * así que el costo por carácter no depende de la cantidad de patrones.
+ *
+ * Las coincidencias no se solapan: al encontrar un patrón se registra el más largo que termina en esa
+ * posición y la búsqueda continúa después de él, igual que hace String.replace con un solo patrón.
+ */
+public class AhoCorasick {
+
+    // Coincidencias de una búsqueda: pares (posición de inicio, índice de patrón) en un arreglo reutilizable.
+    public static class Coincidencias {
+        private int[] datos = new int[32];
+        private int cantidad;
+
+        public int cantidad() {
+            return cantidad;
+        }
+
+        public int inicio(int i) {
+            return datos[2 * i];
+        }
+
+        public int patron(int i) {
+            return datos[2 * i + 1];
+        }
+
+        public void limpiar() {
+            cantidad = 0;
+        }
+
+        // Sobrescribe la coincidencia i; junto con truncar permite descartar coincidencias sin copiar el arreglo.
+        void establecer(int i, int inicio, int patron) {
+            datos[2 * i] = inicio;
+            datos[2 * i + 1] = patron;
+        }
+
+        void truncar(int cantidad) {
+            this.cantidad = cantidad;
+        }
+
+        void agregar(int inicio, int patron) {
+            if (2 * cantidad + 2 > datos.length) {
+                int[] nuevos = new int[datos.length * 2];
+                System.arraycopy(datos, 0, nuevos, 0, datos.length);
+                datos = nuevos;
+            }
+            datos[2 * cantidad] = inicio;
+            datos[2 * cantidad + 1] = patron;
+            cantidad++;
+        }
+    }
+
+    private final int[] claseAscii = new int[128];
+    private final Map<Character, Integer> claseOtros = new HashMap<>();
+    private final int alfabeto;
+    private final int[] transiciones;
+    private final int[] salida;
+    private final int[] longitudes;
+
+    public AhoCorasick(String[] patrones) {
+        // Cada carácter que aparece en algún patrón recibe una clase; la clase 0 es "cualquier otro carácter".
+        int clases = 1;
+        for (String patron : patrones) {
+            if (patron.isEmpty()) {
+                throw new IllegalArgumentException("Los patrones no pueden estar vacíos.");
+            }
+            for (int i = 0; i < patron.length(); i++) {
+                char c = patron.charAt(i);
+                if (c < 128) {
+                    if (claseAscii[c] == 0) {
+                        claseAscii[c] = clases++;
+                    }
+                } else if (!claseOtros.containsKey(c)) {
+                    claseOtros.put(c, clases++);
+                }
+            }
+        }
+        alfabeto = clases;
+
+        // Trie de los patrones.
+        List<int[]> hijos = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        hijos.add(new int[alfabeto]);
+        terminal.add(-1);
+        longitudes = new int[patrones.length];
+        for (int p = 0; p < patrones.length; p++) {
+            String patron = patrones[p];
+            longitudes[p] = patron.length();
+            int estado = 0;
+            for (int i = 0; i < patron.length(); i++) {
+                int clase = clase(patron.charAt(i));
+                int siguiente = hijos.get(estado)[clase];
+                if (siguiente == 0) {
+                    siguiente = hijos.size();
+                    hijos.add(new int[alfabeto]);
+                    terminal.add(-1);
+                    hijos.get(estado)[clase] = siguiente;
+                }
+                estado = siguiente;
+            }
+            if (terminal.get(estado) == -1) {
+                terminal.set(estado, p);
+            }
+        }
+
+        // Recorrido en anchura: enlaces de fallo y tabla de transiciones completa.
+        int estados = hijos.size();
+        transiciones = new int[estados * alfabeto];
+        salida = new int[estados];
+        int[] fallo = new int[estados];
+        int[] cola = new int[estados];
+        int cabeza = 0;
+        int fin = 0;
+        salida[0] = -1;
+        for (int clase = 1; clase < alfabeto; clase++) {
+            int hijo = hijos.get(0)[clase];
+            transiciones[clase] = hijo;
+            if (hijo != 0) {
+                fallo[hijo] = 0;
+                salida[hijo] = terminal.get(hijo);
+                cola[fin++] = hijo;
+            }
+        }
+        while (cabeza < fin) {
+            int estado = cola[cabeza++];
+            for (int clase = 1; clase < alfabeto; clase++) {
+                int hijo = hijos.get(estado)[clase];
+                if (hijo != 0) {
+                    fallo[hijo] = transiciones[fallo[estado] * alfabeto + clase];
+                    // El patrón propio es siempre el más largo que termina en este estado.
+                    salida[hijo] = terminal.get(hijo) != -1 ? terminal.get(hijo) : salida[fallo[hijo]];
+                    transiciones[estado * alfabeto + clase] = hijo;
+                    cola[fin++] = hijo;
+                } else {
+                    transiciones[estado * alfabeto + clase] = transiciones[fallo[estado] * alfabeto + clase];
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca todas las coincidencias en texto[desde, hasta) y las agrega a resultado en orden.
+     *
+     * @return Cantidad de coincidencias agregadas.
+     */
+    public int buscar(CharSequence texto, int desde, int hasta, Coincidencias resultado) {
+        int encontradas = 0;
+        int estado = 0;
+        for (int i = desde; i < hasta; i++) {
+            estado = transiciones[estado * alfabeto + clase(texto.charAt(i))];
+            int patron = salida[estado];
+            if (patron != -1) {
+                resultado.agregar(i - longitudes[patron] + 1, patron);
+                encontradas++;
+                estado = 0;
+            }
+        }
+        return encontradas;
+    }
+
+    public int longitud(int patron) {
+        return longitudes[patron];
+    }
+
+    private int clase(char c) {
+        if (c < 128) {
+            return claseAscii[c];
+        }
+        if (claseOtros.isEmpty()) {
+            return 0;
+        }
+        Integer clase = claseOtros.get(c);
+        return clase == null ? 0 : clase;
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * Analizador léxico escrito a mano para Java, C++ y JavaScript.
+ * Trabaja línea a línea y devuelve el estado en que termina la línea (por ejemplo, dentro de un comentario
+ * de bloque), que se pasa como estado de entrada de la línea siguiente. Los tokens se guardan en un arreglo
+ * de enteros reutilizable (tipo, inicio, fin), sin crear un objeto por token.
+ *
+ * La validación, la búsqueda de la palabra 'error' y la reescritura trabajan sobre los mismos tokens, así
+ * que las cadenas y los comentarios no se confunden con código.
+ */
+public class AnalizadorLexico {
+
+    // Tipos de token
+    public static final int IDENTIFICADOR = 1;
+    public static final int NUMERO = 2;
+    public static final int CADENA = 3;
+    public static final int COMENTARIO = 4;
+    public static final int DIRECTIVA = 5;
+    public static final int OPERADOR = 6;
+
+    // Estados al final de una línea
+    public static final int NORMAL = 0;
+    public static final int EN_COMENTARIO = 1;
+    public static final int EN_PLANTILLA = 2;
+    public static final int EN_BLOQUE_TEXTO = 3;
+
+    // Dialectos. El genérico solo reconoce los comentarios // y /* */ y las cadenas entre comillas simples o dobles.
+    public static final int DIALECTO_JAVA = 0;
+    public static final int DIALECTO_CPP = 1;
+    public static final int DIALECTO_JS = 2;
+    public static final int DIALECTO_GENERICO = 3;
+
+    private static final boolean[] INICIO_IDENTIFICADOR = new boolean[128];
+    private static final boolean[] PARTE_IDENTIFICADOR = new boolean[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            INICIO_IDENTIFICADOR[c] = Character.isJavaIdentifierStart(c);
+            PARTE_IDENTIFICADOR[c] = Character.isJavaIdentifierPart(c) && c > ' ';
+        }
+    }
+
+    // Tokens de una línea: ternas (tipo, inicio, fin) en un arreglo de enteros que se reutiliza
+    public static class Tokens {
+        private int[] datos = new int[3 * 64];
+        private int cantidad;
+
+        public int cantidad() {
+            return cantidad;
+        }
+
+        public int tipo(int i) {
+            return datos[3 * i];
+        }
+
+        public int inicio(int i) {
+            return datos[3 * i + 1];
+        }
+
+        public int fin(int i) {
+            return datos[3 * i + 2];
+        }
+
+        public void limpiar() {
+            cantidad = 0;
+        }
+
+        /*Indica si el token i es exactamente el texto dado.*/
+        public boolean es(CharSequence linea, int i, String texto) {
+            int inicio = inicio(i);
+            if (fin(i) - inicio != texto.length()) {
+                return false;
+            }
+            for (int k = 0; k < texto.length(); k++) {
+                if (linea.charAt(inicio + k) != texto.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void agregar(int tipo, int inicio, int fin) {
+            if (3 * cantidad + 3 > datos.length) {
+                int[] nuevos = new int[datos.length * 2];
+                System.arraycopy(datos, 0, nuevos, 0, datos.length);
+                datos = nuevos;
+            }
+            datos[3 * cantidad] = tipo;
+            datos[3 * cantidad + 1] = inicio;
+            datos[3 * cantidad + 2] = fin;
+            cantidad++;
+        }
+    }
+
+    private final int dialecto;
+
+    /*@param dialecto Uno de los DIALECTO_*; ParIdiomas.getDialectoOrigen indica el del idioma de origen.*/
+    public AnalizadorLexico(int dialecto) {
+        this.dialecto = dialecto;
+    }
+
+    /*Dialecto de un idioma incluido por su nombre, o el genérico si no es Java, C++ ni JS.*/
+    public static int dialecto(String idioma) {
+        if (idioma.equals("Java")) {
+            return DIALECTO_JAVA;
+        } else if (idioma.equals("C++")) {
+            return DIALECTO_CPP;
+        } else if (idioma.equals("JS")) {
+            return DIALECTO_JS;
+        }
+        return DIALECTO_GENERICO;
+    }
+
+    public static boolean esParteIdentificador(char c) {
+        return c < 128 ? PARTE_IDENTIFICADOR[c] : Character.isJavaIdentifierPart(c);
+    }
+
+    private static boolean esInicioIdentificador(char c) {
+        return c < 128 ? INICIO_IDENTIFICADOR[c] : Character.isJavaIdentifierStart(c);
+    }
+
+    /**
+     * Agrega a tokens los tokens de linea[inicio, fin).
+     *
+     * @param estado Estado en que terminó la línea anterior.
+     * @return Estado en que termina esta línea.
+     */
+    public int analizar(CharSequence linea, int inicio, int fin, int estado, Tokens tokens) {
+        int i = inicio;
+        if (estado != NORMAL) {
+            i = continuar(linea, i, fin, estado, tokens);
+            if (i < 0) {
+                return estado;
+            }
+        }
+        boolean primero = true;
+        while (i < fin) {
+            char c = linea.charAt(i);
+            if (c <= ' ') {
+                i++;
+                continue;
+            }
+            int desde = i;
+            if (esInicioIdentificador(c)) {
+                i++;
+                while (i < fin && esParteIdentificador(linea.charAt(i))) {
+                    i++;
+                }
+                tokens.agregar(IDENTIFICADOR, desde, i);
+            } else if (c >= '0' && c <= '9') {
+                i++;
+                while (i < fin && (esParteIdentificador(linea.charAt(i)) || linea.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.agregar(NUMERO, desde, i);
+            } else if (c == '"' && dialecto == DIALECTO_JAVA && i + 2 < fin && linea.charAt(i + 1) == '"' && linea.charAt(i + 2) == '"') {
+                int cierre = buscarCierreBloqueTexto(linea, i + 3, fin);
+                if (cierre < 0) {
+                    tokens.agregar(CADENA, desde, fin);
+                    return EN_BLOQUE_TEXTO;
+                }
+                tokens.agregar(CADENA, desde, cierre);
+                i = cierre;
+            } else if (c == '"' || c == '\'') {
+                // Una cadena sin cerrar termina con la línea.
+                int cierre = buscarCierreCadena(linea, i + 1, fin, c);
+                i = cierre < 0 ? fin : cierre;
+                tokens.agregar(CADENA, desde, i);
+            } else if (c == '`' && dialecto == DIALECTO_JS) {
+                int cierre = buscarCierreCadena(linea, i + 1, fin, '`');
+                if (cierre < 0) {
+                    tokens.agregar(CADENA, desde, fin);
+                    return EN_PLANTILLA;
+                }
+                tokens.agregar(CADENA, desde, cierre);
+                i = cierre;
+            } else if (c == '/' && i + 1 < fin && linea.charAt(i + 1) == '/') {
+                tokens.agregar(COMENTARIO, desde, fin);
+                i = fin;
+            } else if (c == '/' && i + 1 < fin && linea.charAt(i + 1) == '*') {
+                int cierre = buscar(linea, i + 2, fin, '*', '/');
+                if (cierre < 0) {
+                    tokens.agregar(COMENTARIO, desde, fin);
+                    return EN_COMENTARIO;
+                }
+                tokens.agregar(COMENTARIO, desde, cierre);
+                i = cierre;
+            } else if (c == '#' && dialecto == DIALECTO_CPP && primero) {
+                tokens.agregar(DIRECTIVA, desde, fin);
+                i = fin;
+            } else {
+                tokens.agregar(OPERADOR, desde, i + 1);
+                i++;
+            }
+            primero = false;
+        }
+        return NORMAL;
+    }
+
+    // Continúa un comentario o una cadena que viene de la línea anterior; devuelve -1 si ocupa toda la línea
+    private int continuar(CharSequence linea, int inicio, int fin, int estado, Tokens tokens) {
+        int cierre;
+        int tipo;
+        if (estado == EN_COMENTARIO) {
+            cierre = buscar(linea, inicio, fin, '*', '/');
+            tipo = COMENTARIO;
+        } else if (estado == EN_BLOQUE_TEXTO) {
+            cierre = buscarCierreBloqueTexto(linea, inicio, fin);
+            tipo = CADENA;
+        } else {
+            cierre = buscarCierreCadena(linea, inicio, fin, '`');
+            tipo = CADENA;
+        }
+        if (cierre < 0) {
+            if (fin > inicio) {
+                tokens.agregar(tipo, inicio, fin);
+            }
+            return -1;
+        }
+        tokens.agregar(tipo, inicio, cierre);
+        return cierre;
+    }
+
+    // Devuelve la posición siguiente al delimitador que cierra la cadena, o -1 si no se cierra en la línea
+    private static int buscarCierreCadena(CharSequence linea, int i, int fin, char delimitador) {
+        while (i < fin) {
+            char c = linea.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == delimitador) {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    // Devuelve la posición siguiente a la pareja de caracteres a+b, o -1
+    private static int buscar(CharSequence linea, int i, int fin, char a, char b) {
+        for (; i + 1 < fin; i++) {
+            if (linea.charAt(i) == a && linea.charAt(i + 1) == b) {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
+
+    private static int buscarCierreBloqueTexto(CharSequence linea, int i, int fin) {
+        while (i + 2 < fin) {
+            char c = linea.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"' && linea.charAt(i + 1) == '"' && linea.charAt(i + 2) == '"') {
+                return i + 3;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+}
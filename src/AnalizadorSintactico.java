@@ -0,0 +1,1093 @@
+
+/**
+ * Analizador sintáctico del modo estructural (TraductorEstructural).
+ * Recorre el código línea a línea con AnalizadorLexico, guarda los tokens en un ArbolSintactico y arma el árbol
+ * de un subconjunto de Java, C++ y JavaScript: directivas, clases, funciones, declaraciones, impresiones,
+ * if/else, while, do/while, for, for-each, switch y return. Las expresiones no se analizan, quedan como rangos
+ * de tokens que EmisorCodigo copia con algunos reemplazos. Como se trabaja sobre tokens y no sobre líneas,
+ * una sentencia puede ocupar varias líneas.
+ *
+ * Una construcción que no reconoce (try/catch, plantillas, interfaces, listas de inicialización...) se informa
+ * como error en su línea y el análisis sigue después de ella.
+ *
+ * El análisis es recursivo, así que el anidamiento se limita a MAX_ANIDAMIENTO niveles para no agotar la pila
+ * del hilo; pasado el límite se informa ANIDAMIENTO, se deja de analizar y excedioAnidamiento() devuelve true.
+ */
+public class AnalizadorSintactico {
+
+    // Idiomas del modo estructural
+    static final int JAVA = 0;
+    static final int CPP = 1;
+    static final int JS = 2;
+
+    // Niveles de sentencias y elementos anidados que se analizan; cada uno usa unos pocos marcos de pila
+    static final int MAX_ANIDAMIENTO = 256;
+
+    private static final String[] RESERVADAS = {
+            "if", "else", "while", "for", "do", "switch", "case", "default", "return", "break", "continue",
+            "new", "delete", "throw", "try", "catch", "finally", "class", "struct", "function", "let", "var",
+            "import", "package", "using", "typeof", "instanceof", "sizeof", "this", "true", "false", "null",
+            "nullptr", "template", "enum", "interface", "namespace", "extends", "implements", "throws", "goto"};
+
+    private static final String[] MODIFICADORES = {
+            "public", "private", "protected", "static", "final", "abstract", "synchronized", "native", "transient",
+            "volatile", "inline", "virtual", "explicit", "constexpr", "extern", "export", "async", "const"};
+
+    private final ArbolSintactico arbol;
+    private final String codigo;
+    private final String idiomaOrigen;
+    private final int idioma;
+    private final ErroresTraduccion errores;
+    private int n; // Cantidad de tokens
+    private int p; // Token actual
+    private int lineas;
+    private int profundidad; // Sentencias y elementos que se están analizando
+    private boolean anidamientoExcedido;
+    private int lineaAnidamiento; // Línea donde se superó MAX_ANIDAMIENTO
+
+    public AnalizadorSintactico(ArbolSintactico arbol, String codigo, String idiomaOrigen, ErroresTraduccion errores) {
+        this.arbol = arbol;
+        this.codigo = codigo;
+        this.idiomaOrigen = idiomaOrigen;
+        this.idioma = idioma(idiomaOrigen);
+        this.errores = errores;
+    }
+
+    /*Índice del idioma en el modo estructural, o -1 si no lo admite.*/
+    static int idioma(String nombre) {
+        if (nombre.equals("Java")) {
+            return JAVA;
+        } else if (nombre.equals("C++")) {
+            return CPP;
+        } else if (nombre.equals("JS")) {
+            return JS;
+        }
+        return -1;
+    }
+
+    public int getLineas() {
+        return lineas;
+    }
+
+    /*Indica si el último analizar() se detuvo por superar MAX_ANIDAMIENTO; el árbol queda incompleto.*/
+    public boolean excedioAnidamiento() {
+        return anidamientoExcedido;
+    }
+
+    public int getLineaAnidamiento() {
+        return lineaAnidamiento;
+    }
+
+    /**
+     * Pasa el código por el analizador léxico y guarda los tokens en el árbol con su número de línea.
+     * En la misma pasada calcula las marcas de validación e informa las líneas con la palabra 'error'; a
+     * diferencia del modo por líneas, esas líneas se siguen traduciendo para no romper la estructura.
+     *
+     * @return Marcas de validación (ValidadorIdioma) de todo el código.
+     */
+    public int tokenizar() {
+        AnalizadorLexico lexico = new AnalizadorLexico(AnalizadorLexico.dialecto(idiomaOrigen));
+        ValidadorIdioma validador = Traductor.ValidadorIncremental.para(idiomaOrigen);
+        AnalizadorLexico.Tokens tokens = new AnalizadorLexico.Tokens();
+        // Igual que en el modo por líneas, las líneas vacías del final no cuentan.
+        int fin = codigo.length();
+        while (fin > 0 && codigo.charAt(fin - 1) == '\n') {
+            fin--;
+        }
+        int marcas = 0;
+        int estado = AnalizadorLexico.NORMAL;
+        int inicio = 0;
+        int numLinea = 1;
+        while (inicio < fin) {
+            int salto = codigo.indexOf('\n', inicio);
+            if (salto == -1 || salto > fin) {
+                salto = fin;
+            }
+            tokens.limpiar();
+            estado = lexico.analizar(codigo, inicio, salto, estado, tokens);
+            marcas |= validador.marcas(codigo, tokens);
+            boolean conError = false;
+            for (int i = 0; i < tokens.cantidad(); i++) {
+                int tipo = tokens.tipo(i);
+                conError |= tipo == AnalizadorLexico.IDENTIFICADOR && tokens.es(codigo, i, "error");
+                arbol.agregarToken(tipo, tokens.inicio(i), tokens.fin(i), numLinea);
+            }
+            if (conError) {
+                errores.agregar(numLinea, CodigoError.PALABRA_ERROR);
+            }
+            inicio = salto + 1;
+            numLinea++;
+        }
+        lineas = numLinea - 1;
+        return marcas;
+    }
+
+    /*Arma el árbol con los tokens guardados por tokenizar() y devuelve el nodo raíz.*/
+    public int analizar() {
+        n = arbol.tokens;
+        p = 0;
+        profundidad = 0;
+        anidamientoExcedido = false;
+        int raiz = arbol.nuevoNodo(-1, ArbolSintactico.PROGRAMA, 0, n);
+        elementos(raiz, n, -1);
+        return raiz;
+    }
+
+    // Elementos del programa o del cuerpo de una clase (clase es -1 en el nivel superior)
+    private void elementos(int padre, int limite, int clase) {
+        while (p < limite) {
+            if (comentario(padre)) {
+                continue;
+            }
+            int i = p;
+            elemento(padre, limite, clase);
+            if (p <= i) {
+                p = i + 1;
+            }
+        }
+    }
+
+    private void elemento(int padre, int limite, int clase) {
+        if (!entrar()) {
+            return;
+        }
+        try {
+            elementoAnidado(padre, limite, clase);
+        } finally {
+            profundidad--;
+        }
+    }
+
+    private void elementoAnidado(int padre, int limite, int clase) {
+        int i = p;
+        if (tipo(i) == AnalizadorLexico.DIRECTIVA) {
+            arbol.nuevoNodo(padre, ArbolSintactico.DIRECTIVA, i, i + 1);
+            p = i + 1;
+        } else if (es(i, "import") || es(i, "package") || (idioma == CPP && es(i, "using"))) {
+            int f = finSentencia(i, limite);
+            int fin = recortar(i, f);
+            arbol.nuevoNodo(padre, ArbolSintactico.DIRECTIVA, i, fin);
+            p = terminar(f, fin);
+        } else if (idioma == CPP && clase != -1 && (es(i, "public") || es(i, "private") || es(i, "protected"))
+                && es(sig(i + 1), ":")) {
+            // Las etiquetas de acceso de C++ no se conservan: los miembros se emiten públicos.
+            p = sig(i + 1) + 1;
+        } else if (esClase(i)) {
+            clase(padre, limite);
+        } else {
+            int nombre = nombreFuncion(i, clase);
+            if (nombre != -1) {
+                funcion(padre, nombre, clase);
+            } else if (idioma == JS) {
+                sentencia(padre, limite);
+            } else if (esDeclaracion(i)) {
+                declaracion(padre, limite);
+            } else {
+                noSoportado(limite);
+            }
+        }
+    }
+
+    // Agrega el comentario del token actual como nodo, si lo es
+    private boolean comentario(int padre) {
+        if (tipo(p) != AnalizadorLexico.COMENTARIO) {
+            return false;
+        }
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.COMENTARIO, p, p + 1);
+        if (p > 0 && arbol.tokenLinea[p - 1] == arbol.tokenLinea[p]) {
+            arbol.marcas[nodo] |= ArbolSintactico.MISMA_LINEA;
+        }
+        p++;
+        return true;
+    }
+
+    private boolean esClase(int i) {
+        int j = saltarModificadores(i);
+        return (es(j, "class") || (idioma == CPP && es(j, "struct"))) && esIdentificador(sig(j + 1));
+    }
+
+    private void clase(int padre, int limite) {
+        int j = saltarModificadores(p);
+        int nombre = sig(j + 1);
+        int abre = nombre + 1;
+        while (abre < limite && !es(abre, "{") && !es(abre, ";")) {
+            abre++;
+        }
+        int cierra = es(abre, "{") ? cierre(abre) : -1;
+        if (cierra == -1) {
+            error(nombre, CodigoError.FALTA_CUERPO_CLASE, null);
+            saltar(limite);
+            return;
+        }
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.CLASE, j, cierra + 1);
+        arbol.nombre[nodo] = nombre;
+        p = abre + 1;
+        elementos(nodo, cierra, nodo);
+        p = cierra + 1;
+        if (idioma == CPP && es(sig(p), ";")) {
+            p = sig(p) + 1;
+        }
+    }
+
+    /*
+     * Si en i empieza la definición (o el prototipo) de una función devuelve el token de su nombre, si no -1.
+     * En una clase también reconoce los métodos y los constructores.
+     */
+    private int nombreFuncion(int i, int clase) {
+        int j = saltarModificadores(i);
+        if (idioma == JS) {
+            if (es(j, "function")) {
+                j = sig(j + 1);
+                if (es(j, "*")) {
+                    j = sig(j + 1);
+                }
+                return esIdentificador(j) && es(sig(j + 1), "(") && finEncabezado(j) != -1 ? j : -1;
+            }
+            if (clase != -1 && esIdentificador(j) && es(sig(j + 1), "(")) {
+                int cierra = cierre(sig(j + 1));
+                return cierra != -1 && es(sig(cierra + 1), "{") ? j : -1;
+            }
+            return -1;
+        }
+        if (clase != -1 && mismoTexto(j, arbol.nombre[clase]) && es(sig(j + 1), "(")) {
+            return finEncabezado(j) != -1 ? j : -1;
+        }
+        int k = finTipo(j);
+        if (k == -1 || !esIdentificador(k) || !es(sig(k + 1), "(")) {
+            return -1;
+        }
+        return finEncabezado(k) != -1 ? k : -1;
+    }
+
+    // Token '{' o ';' que sigue a los parámetros de la función, o -1
+    private int finEncabezado(int nombre) {
+        int cierra = cierre(sig(nombre + 1));
+        if (cierra == -1) {
+            return -1;
+        }
+        int k = sig(cierra + 1);
+        while (es(k, "const") || es(k, "override") || es(k, "noexcept") || es(k, "final")) {
+            k = sig(k + 1);
+        }
+        if (idioma == JAVA && es(k, "throws")) {
+            k = sig(k + 1);
+            while (esIdentificador(k) || es(k, ",") || es(k, ".")) {
+                k = sig(k + 1);
+            }
+        }
+        return es(k, "{") || es(k, ";") ? k : -1;
+    }
+
+    private void funcion(int padre, int nombre, int clase) {
+        int marcas = 0;
+        int j = p;
+        while (esModificador(j)) {
+            if (es(j, "static")) {
+                marcas |= ArbolSintactico.ESTATICO;
+            }
+            j = sig(j + 1);
+        }
+        if (idioma == JS) {
+            // Las funciones de JS no tienen tipo de retorno
+            j = nombre;
+            if (clase != -1 && es(nombre, "constructor")) {
+                marcas |= ArbolSintactico.CONSTRUCTOR;
+            }
+        } else if (j == nombre) {
+            marcas |= ArbolSintactico.CONSTRUCTOR;
+        }
+        if (es(nombre, "main") && (clase == -1 || (marcas & ArbolSintactico.ESTATICO) != 0)) {
+            marcas |= ArbolSintactico.PRINCIPAL;
+        }
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.FUNCION, j, nombre);
+        arbol.nombre[nodo] = nombre;
+        int abre = sig(nombre + 1);
+        parametros(nodo, abre + 1, cierre(abre));
+        int k = finEncabezado(nombre);
+        if (es(k, ";")) {
+            marcas |= ArbolSintactico.PROTOTIPO;
+            p = k + 1;
+        } else {
+            p = k;
+            bloque(nodo);
+        }
+        arbol.marcas[nodo] = marcas;
+        arbol.hasta[nodo] = p;
+    }
+
+    // Parámetros separados por comas de nivel 0 en [desde, hasta)
+    private void parametros(int funcion, int desde, int hasta) {
+        int inicio = desde;
+        int profundidad = 0;
+        for (int k = desde; k <= hasta; k++) {
+            if (k == hasta || (profundidad == 0 && es(k, ","))) {
+                parametro(funcion, sig(inicio), k);
+                inicio = k + 1;
+            } else if (es(k, "(") || es(k, "[") || es(k, "{") || es(k, "<")) {
+                profundidad++;
+            } else if (es(k, ")") || es(k, "]") || es(k, "}") || es(k, ">")) {
+                profundidad--;
+            }
+        }
+    }
+
+    private void parametro(int funcion, int desde, int hasta) {
+        hasta = recortar(desde, hasta);
+        if (desde >= hasta || (hasta - desde == 1 && es(desde, "void"))) {
+            return;
+        }
+        int igual = buscarIgual(desde, hasta);
+        int finDeclarador = igual == -1 ? hasta : igual;
+        int nombre = -1;
+        for (int k = finDeclarador - 1; k >= desde; k--) {
+            if (tipo(k) == AnalizadorLexico.IDENTIFICADOR) {
+                nombre = k;
+                break;
+            }
+        }
+        if (nombre == -1) {
+            error(desde, CodigoError.PARAMETRO, null);
+            return;
+        }
+        int nodo = arbol.nuevoNodo(funcion, ArbolSintactico.PARAMETRO, desde, hasta);
+        arbol.nombre[nodo] = nombre;
+        if (igual != -1) {
+            arbol.nuevoNodo(nodo, ArbolSintactico.EXPRESION, igual + 1, hasta);
+        }
+    }
+
+    // p está en '{'
+    private void bloque(int padre) {
+        int abre = p;
+        int cierra = cierre(abre);
+        if (cierra == -1) {
+            error(abre, CodigoError.FALTA_LLAVE, null);
+            cierra = n;
+        }
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.BLOQUE, abre, Math.min(cierra + 1, n));
+        p = abre + 1;
+        while (p < cierra) {
+            if (comentario(nodo)) {
+                continue;
+            }
+            int antes = p;
+            sentencia(nodo, cierra);
+            if (p <= antes) {
+                p = antes + 1;
+            }
+        }
+        p = Math.min(cierra + 1, n);
+    }
+
+    private void sentencia(int padre, int limite) {
+        if (!entrar()) {
+            return;
+        }
+        try {
+            sentenciaAnidada(padre, limite);
+        } finally {
+            profundidad--;
+        }
+    }
+
+    /*
+     * Sube un nivel de anidamiento. Si ya se superó MAX_ANIDAMIENTO devuelve false, informa el error la primera
+     * vez y lleva p al final para que todos los niveles abiertos terminen sin analizar nada más.
+     */
+    private boolean entrar() {
+        if (anidamientoExcedido || profundidad >= MAX_ANIDAMIENTO) {
+            if (!anidamientoExcedido) {
+                anidamientoExcedido = true;
+                lineaAnidamiento = arbol.tokenLinea[Math.min(p, n - 1)];
+                error(p, CodigoError.ANIDAMIENTO, Integer.toString(MAX_ANIDAMIENTO));
+            }
+            p = n;
+            return false;
+        }
+        profundidad++;
+        return true;
+    }
+
+    private void sentenciaAnidada(int padre, int limite) {
+        int i = p;
+        if (es(i, "{")) {
+            bloque(padre);
+        } else if (es(i, ";")) {
+            arbol.nuevoNodo(padre, ArbolSintactico.VACIO, i, i + 1);
+            p = i + 1;
+        } else if (es(i, "if")) {
+            si(padre, limite);
+        } else if (es(i, "while")) {
+            int nodo = arbol.nuevoNodo(padre, ArbolSintactico.MIENTRAS, i, i);
+            int cierra = condicion(nodo, i);
+            if (cierra == -1) {
+                arbol.tipo[nodo] = ArbolSintactico.VACIO;
+                saltar(limite);
+                return;
+            }
+            p = sig(cierra + 1);
+            cuerpo(nodo, limite);
+            arbol.hasta[nodo] = p;
+        } else if (es(i, "do")) {
+            hacer(padre, limite);
+        } else if (es(i, "for")) {
+            para(padre, limite);
+        } else if (es(i, "switch")) {
+            int nodo = arbol.nuevoNodo(padre, ArbolSintactico.SELECCION, i, i);
+            int cierra = condicion(nodo, i);
+            if (cierra == -1 || !es(sig(cierra + 1), "{")) {
+                error(i, CodigoError.FALTA_BLOQUE_SWITCH, null);
+                arbol.tipo[nodo] = ArbolSintactico.VACIO;
+                saltar(limite);
+                return;
+            }
+            p = sig(cierra + 1);
+            bloque(nodo);
+            arbol.hasta[nodo] = p;
+        } else if (es(i, "case") || es(i, "default")) {
+            etiqueta(padre, limite);
+        } else if (es(i, "return")) {
+            int f = finSentencia(i + 1, limite);
+            int fin = recortar(i, f);
+            int nodo = arbol.nuevoNodo(padre, ArbolSintactico.RETORNO, i, fin);
+            if (sig(i + 1) < fin) {
+                arbol.nuevoNodo(nodo, ArbolSintactico.EXPRESION, sig(i + 1), fin);
+            }
+            p = terminar(f, fin);
+        } else if (es(i, "try") || es(i, "catch") || es(i, "finally") || esClase(i)) {
+            noSoportado(limite);
+        } else if (idioma == JS && es(i, "function") && nombreFuncion(i, -1) != -1) {
+            funcion(padre, nombreFuncion(i, -1), -1);
+        } else if (esImpresion(i) && imprimir(padre, limite)) {
+            return;
+        } else if (esDeclaracion(i)) {
+            declaracion(padre, limite);
+        } else {
+            expresion(padre, limite);
+        }
+    }
+
+    // Cuerpo de una sentencia de control: una sentencia o un bloque
+    private void cuerpo(int nodo, int limite) {
+        p = sig(p);
+        if (p >= limite) {
+            error(p - 1, CodigoError.FALTA_SENTENCIA, null);
+            arbol.nuevoNodo(nodo, ArbolSintactico.VACIO, p, p);
+            return;
+        }
+        int anterior = arbol.ultimoHijo[nodo];
+        sentencia(nodo, limite);
+        if (arbol.ultimoHijo[nodo] == anterior) {
+            // La sentencia tenía un error y no agregó nodo
+            arbol.nuevoNodo(nodo, ArbolSintactico.VACIO, p, p);
+        }
+    }
+
+    /*
+     * Agrega como EXPRESION la condición entre paréntesis que sigue a la palabra clave y devuelve el índice
+     * del ')', o -1 si no la encuentra.
+     */
+    private int condicion(int nodo, int palabra) {
+        int abre = sig(palabra + 1);
+        int cierra = es(abre, "(") ? cierre(abre) : -1;
+        if (cierra == -1) {
+            error(palabra, CodigoError.FALTA_PARENTESIS, texto(palabra));
+            return -1;
+        }
+        arbol.nuevoNodo(nodo, ArbolSintactico.EXPRESION, abre + 1, cierra);
+        return cierra;
+    }
+
+    private void si(int padre, int limite) {
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.SI, p, p);
+        int cierra = condicion(nodo, p);
+        if (cierra == -1) {
+            arbol.tipo[nodo] = ArbolSintactico.VACIO;
+            saltar(limite);
+            return;
+        }
+        p = cierra + 1;
+        cuerpo(nodo, limite);
+        int q = sig(p);
+        if (q < limite && es(q, "else")) {
+            p = q + 1;
+            cuerpo(nodo, limite);
+        }
+        arbol.hasta[nodo] = p;
+    }
+
+    private void hacer(int padre, int limite) {
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.HACER, p, p);
+        p++;
+        cuerpo(nodo, limite);
+        int q = sig(p);
+        int cierra = es(q, "while") ? condicion(nodo, q) : -1;
+        if (cierra == -1) {
+            error(q, CodigoError.FALTA_WHILE, null);
+            arbol.tipo[nodo] = ArbolSintactico.VACIO;
+            saltar(limite);
+            return;
+        }
+        p = cierra + 1;
+        if (es(sig(p), ";")) {
+            p = sig(p) + 1;
+        } else if (idioma != JS) {
+            error(cierra, CodigoError.FALTA_PUNTO_Y_COMA, null);
+        }
+        arbol.hasta[nodo] = p;
+    }
+
+    /*
+     * for clásico: los hijos son la inicialización (DECLARACION, EXPRESION o VACIO), la condición, la
+     * actualización y el cuerpo. for-each: PARA_CADA con el tipo y el nombre de la variable en el nodo y los
+     * hijos EXPRESION (lo que se recorre) y cuerpo.
+     */
+    private void para(int padre, int limite) {
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.PARA, p, p);
+        int abre = sig(p + 1);
+        int cierra = es(abre, "(") ? cierre(abre) : -1;
+        if (cierra == -1) {
+            error(p, CodigoError.FALTA_PARENTESIS, "for");
+            arbol.tipo[nodo] = ArbolSintactico.VACIO;
+            saltar(limite);
+            return;
+        }
+        int primerPuntoComa = -1;
+        int segundoPuntoComa = -1;
+        int separador = -1;
+        int profundidad = 0;
+        boolean ternario = false;
+        for (int k = abre + 1; k < cierra; k++) {
+            if (es(k, "(") || es(k, "[") || es(k, "{")) {
+                profundidad++;
+            } else if (es(k, ")") || es(k, "]") || es(k, "}")) {
+                profundidad--;
+            } else if (profundidad == 0 && es(k, ";")) {
+                if (primerPuntoComa == -1) {
+                    primerPuntoComa = k;
+                } else if (segundoPuntoComa == -1) {
+                    segundoPuntoComa = k;
+                }
+            } else if (es(k, "?")) {
+                ternario = true;
+            } else if (profundidad == 0 && separador == -1 && !ternario && es(k, ":")
+                    && !esOperador(k - 1, "::") && !esOperador(k, "::")) {
+                separador = k;
+            } else if (profundidad == 0 && separador == -1 && idioma == JS && es(k, "of")) {
+                separador = k;
+            }
+        }
+
+        if (primerPuntoComa == -1 && separador != -1) {
+            arbol.tipo[nodo] = ArbolSintactico.PARA_CADA;
+            int j = sig(abre + 1);
+            while (esModificador(j) || es(j, "let") || es(j, "var")) {
+                if (es(j, "final") || es(j, "const")) {
+                    arbol.marcas[nodo] |= ArbolSintactico.CONSTANTE;
+                }
+                j = sig(j + 1);
+            }
+            int nombre = -1;
+            for (int k = separador - 1; k >= j; k--) {
+                if (tipo(k) == AnalizadorLexico.IDENTIFICADOR) {
+                    nombre = k;
+                    break;
+                }
+            }
+            if (nombre == -1) {
+                error(p, CodigoError.VARIABLE_FOR, null);
+                arbol.tipo[nodo] = ArbolSintactico.VACIO;
+                saltar(limite);
+                return;
+            }
+            arbol.desde[nodo] = j;
+            arbol.nombre[nodo] = nombre;
+            arbol.nuevoNodo(nodo, ArbolSintactico.EXPRESION, sig(separador + 1), recortar(separador + 1, cierra));
+        } else if (primerPuntoComa != -1 && segundoPuntoComa != -1) {
+            int inicio = sig(abre + 1);
+            if (inicio >= primerPuntoComa) {
+                arbol.nuevoNodo(nodo, ArbolSintactico.VACIO, inicio, inicio);
+            } else if (esDeclaracion(inicio)) {
+                int guardado = p;
+                p = inicio;
+                declaracion(nodo, primerPuntoComa);
+                p = guardado;
+            } else {
+                arbol.nuevoNodo(nodo, ArbolSintactico.EXPRESION, inicio, recortar(inicio, primerPuntoComa));
+            }
+            parteFor(nodo, primerPuntoComa + 1, segundoPuntoComa);
+            parteFor(nodo, segundoPuntoComa + 1, cierra);
+        } else {
+            error(p, CodigoError.ENCABEZADO_FOR, null);
+            arbol.tipo[nodo] = ArbolSintactico.VACIO;
+            saltar(limite);
+            return;
+        }
+        p = cierra + 1;
+        cuerpo(nodo, limite);
+        arbol.hasta[nodo] = p;
+    }
+
+    private void parteFor(int nodo, int desde, int hasta) {
+        desde = sig(desde);
+        hasta = recortar(desde, hasta);
+        arbol.nuevoNodo(nodo, desde < hasta ? ArbolSintactico.EXPRESION : ArbolSintactico.VACIO, desde, hasta);
+    }
+
+    // case/default hasta el ':'
+    private void etiqueta(int padre, int limite) {
+        int i = p;
+        int profundidad = 0;
+        for (int k = i + 1; k < limite; k++) {
+            if (es(k, "(") || es(k, "[") || es(k, "{")) {
+                profundidad++;
+            } else if (es(k, ")") || es(k, "]") || es(k, "}")) {
+                profundidad--;
+            } else if (profundidad == 0 && es(k, ":") && !esOperador(k - 1, "::") && !esOperador(k, "::")) {
+                arbol.nuevoNodo(padre, ArbolSintactico.ETIQUETA, i, k);
+                p = k + 1;
+                return;
+            } else if (profundidad < 0 || es(k, ";")) {
+                break;
+            }
+        }
+        error(i, CodigoError.FALTA_DOS_PUNTOS, texto(i));
+        saltar(limite);
+    }
+
+    private boolean esImpresion(int i) {
+        if (idioma == JAVA) {
+            return es(i, "System") && es(i + 1, ".") && es(i + 2, "out") && es(i + 3, ".")
+                    && (es(i + 4, "println") || es(i + 4, "print")) && es(sig(i + 5), "(");
+        } else if (idioma == JS) {
+            return es(i, "console") && es(i + 1, ".") && es(i + 2, "log") && es(sig(i + 3), "(");
+        }
+        int k = es(i, "std") && esOperador(i + 1, "::") ? i + 3 : i;
+        return es(k, "cout") && esOperador(sig(k + 1), "<<");
+    }
+
+    /*
+     * Impresión por la salida estándar. Los hijos son los argumentos de println/console.log o los términos
+     * de la cadena de '<<' de cout; un std::endl en medio de la cadena queda como EXPRESION con NUEVA_LINEA.
+     * Devuelve false si la sentencia no es solo la impresión (por ejemplo, si se encadena otra llamada).
+     */
+    private boolean imprimir(int padre, int limite) {
+        int i = p;
+        int f = finSentencia(i, limite);
+        int fin = recortar(i, f);
+        if (idioma == CPP) {
+            int k = es(i, "std") ? i + 3 : i;
+            int desde = sig(k + 1) + 2;
+            int nodo = arbol.nuevoNodo(padre, ArbolSintactico.IMPRIMIR, i, fin);
+            int inicio = desde;
+            int profundidad = 0;
+            for (int t = desde; t <= fin; t++) {
+                if (t == fin || (profundidad == 0 && esOperador(t, "<<"))) {
+                    int a = sig(inicio);
+                    int b = recortar(a, t);
+                    if (esFinDeLinea(a, b)) {
+                        if (t == fin) {
+                            arbol.marcas[nodo] |= ArbolSintactico.NUEVA_LINEA;
+                        } else {
+                            int termino = arbol.nuevoNodo(nodo, ArbolSintactico.EXPRESION, a, b);
+                            arbol.marcas[termino] |= ArbolSintactico.NUEVA_LINEA;
+                        }
+                    } else if (a < b) {
+                        arbol.nuevoNodo(nodo, ArbolSintactico.EXPRESION, a, b);
+                    }
+                    inicio = t + 2;
+                    t++;
+                } else if (es(t, "(") || es(t, "[") || es(t, "{")) {
+                    profundidad++;
+                } else if (es(t, ")") || es(t, "]") || es(t, "}")) {
+                    profundidad--;
+                }
+            }
+            p = terminar(f, fin);
+            return true;
+        }
+
+        int abre = sig(idioma == JAVA ? i + 5 : i + 3);
+        int cierra = cierre(abre);
+        if (cierra == -1 || cierra != fin - 1) {
+            return false;
+        }
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.IMPRIMIR, i, fin);
+        if (idioma == JS || es(i + 4, "println")) {
+            arbol.marcas[nodo] |= ArbolSintactico.NUEVA_LINEA;
+        }
+        int inicio = abre + 1;
+        int profundidad = 0;
+        for (int t = abre + 1; t <= cierra; t++) {
+            if (t == cierra || (profundidad == 0 && es(t, ","))) {
+                int a = sig(inicio);
+                int b = recortar(a, t);
+                if (a < b) {
+                    arbol.nuevoNodo(nodo, ArbolSintactico.EXPRESION, a, b);
+                }
+                inicio = t + 1;
+            } else if (es(t, "(") || es(t, "[") || es(t, "{")) {
+                profundidad++;
+            } else if (es(t, ")") || es(t, "]") || es(t, "}")) {
+                profundidad--;
+            }
+        }
+        p = terminar(f, fin);
+        return true;
+    }
+
+    // endl o std::endl
+    private boolean esFinDeLinea(int desde, int hasta) {
+        return (hasta - desde == 1 && es(desde, "endl"))
+                || (hasta - desde == 4 && es(desde, "std") && esOperador(desde + 1, "::") && es(desde + 3, "endl"));
+    }
+
+    private boolean esDeclaracion(int i) {
+        if (idioma == JS) {
+            int k = sig(i + 1);
+            return (es(i, "let") || es(i, "const") || es(i, "var"))
+                    && (tipo(k) == AnalizadorLexico.IDENTIFICADOR || es(k, "[") || es(k, "{"));
+        }
+        int k = finTipo(saltarModificadores(i));
+        if (k == -1 || !esIdentificador(k)) {
+            return false;
+        }
+        int s = sig(k + 1);
+        return es(s, "=") || es(s, ";") || es(s, ",") || es(s, "[") || (idioma == CPP && (es(s, "{") || es(s, "(")));
+    }
+
+    /*
+     * Declaración de variables. El rango [desde, nombre) es el tipo (en JS, let/const/var) y [nombre, hasta)
+     * los declaradores con sus valores iniciales.
+     */
+    private void declaracion(int padre, int limite) {
+        int marcas = 0;
+        int j = p;
+        while (esModificador(j) && !(idioma == JS && es(j, "const"))) {
+            if (es(j, "static")) {
+                marcas |= ArbolSintactico.ESTATICO;
+            } else if (es(j, "final") || es(j, "const") || es(j, "constexpr")) {
+                marcas |= ArbolSintactico.CONSTANTE;
+            }
+            j = sig(j + 1);
+        }
+        int nombre;
+        if (idioma == JS) {
+            if (es(j, "const")) {
+                marcas |= ArbolSintactico.CONSTANTE;
+            }
+            nombre = sig(j + 1);
+        } else {
+            nombre = finTipo(j);
+        }
+        int f = finSentencia(nombre, limite);
+        int fin = recortar(nombre, f);
+        int nodo = arbol.nuevoNodo(padre, ArbolSintactico.DECLARACION, j, fin);
+        arbol.nombre[nodo] = nombre;
+        arbol.marcas[nodo] = marcas;
+        p = terminar(f, fin);
+    }
+
+    private void expresion(int padre, int limite) {
+        int f = finSentencia(p, limite);
+        int fin = recortar(p, f);
+        if (fin <= p) {
+            error(p, CodigoError.SIMBOLO_INESPERADO, texto(p));
+            p++;
+            return;
+        }
+        arbol.nuevoNodo(padre, ArbolSintactico.EXPRESION, p, fin);
+        p = terminar(f, fin);
+    }
+
+    // Informa la construcción actual como no soportada y sigue después de ella
+    private void noSoportado(int limite) {
+        error(p, CodigoError.NO_SOPORTADA, texto(p));
+        saltar(limite);
+    }
+
+    /*
+     * Salta hasta después del ';' de nivel 0 o del bloque que cierra la construcción actual, incluidos los
+     * catch, finally y else que lo sigan.
+     */
+    private void saltar(int limite) {
+        int inicio = p;
+        int profundidad = 0;
+        for (int k = p; k < limite; k++) {
+            if (tipo(k) != AnalizadorLexico.OPERADOR) {
+                continue;
+            }
+            char c = codigo.charAt(arbol.tokenInicio[k]);
+            if (c == ';' && profundidad == 0) {
+                p = k + 1;
+                return;
+            } else if (c == '(' || c == '[' || c == '{') {
+                profundidad++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                if (profundidad == 0) {
+                    p = k == inicio ? k + 1 : k;
+                    return;
+                }
+                profundidad--;
+                if (profundidad == 0 && c == '}') {
+                    int q = sig(k + 1);
+                    if (!es(q, "catch") && !es(q, "finally") && !es(q, "else") && !es(q, "while")) {
+                        p = es(q, ";") ? q + 1 : k + 1;
+                        return;
+                    }
+                }
+            }
+        }
+        p = limite;
+    }
+
+    /*
+     * Fin de la sentencia que empieza en i: el ';' de nivel 0, el '}' que cierra el bloque o el límite.
+     * En JS una sentencia también termina en un salto de línea cuando la línea siguiente no puede continuarla.
+     */
+    private int finSentencia(int i, int limite) {
+        int profundidad = 0;
+        int anterior = -1;
+        for (int k = i; k < limite; k++) {
+            int tipo = tipo(k);
+            if (tipo == AnalizadorLexico.COMENTARIO) {
+                continue;
+            }
+            if (idioma == JS && profundidad == 0 && anterior != -1 && arbol.tokenLinea[k] > arbol.tokenLinea[anterior]
+                    && puedeTerminar(anterior) && puedeEmpezar(k)) {
+                return k;
+            }
+            if (tipo == AnalizadorLexico.OPERADOR) {
+                char c = codigo.charAt(arbol.tokenInicio[k]);
+                if (c == ';' && profundidad == 0) {
+                    return k;
+                } else if (c == '(' || c == '[' || c == '{') {
+                    profundidad++;
+                } else if (c == ')' || c == ']' || c == '}') {
+                    if (profundidad == 0) {
+                        return k;
+                    }
+                    profundidad--;
+                }
+            }
+            anterior = k;
+        }
+        return limite;
+    }
+
+    private boolean puedeTerminar(int k) {
+        if (tipo(k) != AnalizadorLexico.OPERADOR) {
+            return true;
+        }
+        return es(k, ")") || es(k, "]") || es(k, "}") || esOperador(k - 1, "++") || esOperador(k - 1, "--");
+    }
+
+    private boolean puedeEmpezar(int k) {
+        if (tipo(k) != AnalizadorLexico.OPERADOR) {
+            return true;
+        }
+        return es(k, "{") || es(k, "!") || es(k, "~") || esOperador(k, "++") || esOperador(k, "--");
+    }
+
+    // Después de la sentencia: salta el ';' o, si falta, lo informa (en JS es opcional)
+    private int terminar(int f, int fin) {
+        if (es(f, ";")) {
+            return f + 1;
+        }
+        if (idioma != JS) {
+            error(fin - 1, CodigoError.FALTA_PUNTO_Y_COMA, null);
+        }
+        return fin;
+    }
+
+    // Quita los comentarios del final del rango
+    private int recortar(int desde, int hasta) {
+        while (hasta > desde && tipo(hasta - 1) == AnalizadorLexico.COMENTARIO) {
+            hasta--;
+        }
+        return hasta;
+    }
+
+    /*
+     * Índice siguiente al tipo que empieza en j (nombres calificados, argumentos genéricos, [] y en C++ * y &),
+     * o -1 si en j no empieza un tipo.
+     */
+    private int finTipo(int j) {
+        if (!esIdentificador(j)) {
+            return -1;
+        }
+        int k = sig(j + 1);
+        if (es(j, "unsigned") || es(j, "signed") || es(j, "long") || es(j, "short")) {
+            while (es(k, "int") || es(k, "long") || es(k, "char") || es(k, "short") || es(k, "double")) {
+                k = sig(k + 1);
+            }
+        }
+        while (true) {
+            if (idioma == CPP && esOperador(k, "::") && esIdentificador(k + 2)) {
+                k = sig(k + 3);
+            } else if (idioma == JAVA && es(k, ".") && esIdentificador(k + 1)) {
+                k = sig(k + 2);
+            } else {
+                break;
+            }
+        }
+        if (es(k, "<")) {
+            int cierra = cierreAngular(k);
+            if (cierra == -1) {
+                return -1;
+            }
+            k = sig(cierra + 1);
+        }
+        while (es(k, "[") && es(sig(k + 1), "]")) {
+            k = sig(sig(k + 1) + 1);
+        }
+        if (idioma == JAVA && esOperador(k, "...")) {
+            k = sig(k + 3);
+        }
+        while (idioma == CPP && (es(k, "*") || es(k, "&"))) {
+            k = sig(k + 1);
+        }
+        return k;
+    }
+
+    // '>' que cierra los argumentos genéricos que empiezan en k, o -1 si no parecen argumentos de tipo
+    private int cierreAngular(int k) {
+        int profundidad = 0;
+        for (int i = k; i < n; i++) {
+            int tipo = tipo(i);
+            if (tipo == AnalizadorLexico.COMENTARIO || tipo == AnalizadorLexico.IDENTIFICADOR || tipo == AnalizadorLexico.NUMERO) {
+                continue;
+            }
+            if (es(i, "<")) {
+                profundidad++;
+            } else if (es(i, ">")) {
+                if (--profundidad == 0) {
+                    return i;
+                }
+            } else if (!es(i, ",") && !es(i, ":") && !es(i, ".") && !es(i, "?") && !es(i, "[") && !es(i, "]")
+                    && !es(i, "*") && !es(i, "&")) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /*Cierre del '(', '[' o '{' del token i, o -1.*/
+    private int cierre(int i) {
+        int profundidad = 0;
+        for (int k = i; k < n; k++) {
+            if (tipo(k) != AnalizadorLexico.OPERADOR) {
+                continue;
+            }
+            char c = codigo.charAt(arbol.tokenInicio[k]);
+            if (c == '(' || c == '[' || c == '{') {
+                profundidad++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                if (--profundidad == 0) {
+                    return k;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // '=' de nivel 0 (no '==') en [desde, hasta), o -1
+    private int buscarIgual(int desde, int hasta) {
+        int profundidad = 0;
+        for (int k = desde; k < hasta; k++) {
+            if (es(k, "(") || es(k, "[") || es(k, "{") || es(k, "<")) {
+                profundidad++;
+            } else if (es(k, ")") || es(k, "]") || es(k, "}") || es(k, ">")) {
+                profundidad--;
+            } else if (profundidad == 0 && es(k, "=") && !es(k + 1, "=")) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private int saltarModificadores(int i) {
+        while (esModificador(i)) {
+            i = sig(i + 1);
+        }
+        return i;
+    }
+
+    private boolean esModificador(int i) {
+        if (tipo(i) != AnalizadorLexico.IDENTIFICADOR) {
+            return false;
+        }
+        for (String modificador : MODIFICADORES) {
+            if (es(i, modificador)) {
+                return idioma != JS || !modificador.equals("const");
+            }
+        }
+        return false;
+    }
+
+    private boolean esIdentificador(int i) {
+        if (tipo(i) != AnalizadorLexico.IDENTIFICADOR) {
+            return false;
+        }
+        for (String reservada : RESERVADAS) {
+            if (es(i, reservada)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Primer token que no es un comentario a partir de i
+    private int sig(int i) {
+        while (i < n && arbol.tokenTipo[i] == AnalizadorLexico.COMENTARIO) {
+            i++;
+        }
+        return i;
+    }
+
+    private int tipo(int i) {
+        return i >= 0 && i < n ? arbol.tokenTipo[i] : 0;
+    }
+
+    private boolean es(int i, String texto) {
+        if (i < 0 || i >= n) {
+            return false;
+        }
+        int inicio = arbol.tokenInicio[i];
+        return arbol.tokenFin[i] - inicio == texto.length() && codigo.startsWith(texto, inicio);
+    }
+
+    /*
+     * Operador de varios caracteres: el lexer devuelve un token por carácter, así que se comprueban los tokens
+     * consecutivos sin espacios entre ellos.
+     */
+    private boolean esOperador(int i, String operador) {
+        for (int k = 0; k < operador.length(); k++) {
+            int t = i + k;
+            if (t < 0 || t >= n || arbol.tokenTipo[t] != AnalizadorLexico.OPERADOR
+                    || codigo.charAt(arbol.tokenInicio[t]) != operador.charAt(k)
+                    || (k > 0 && arbol.tokenInicio[t] != arbol.tokenFin[t - 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean mismoTexto(int a, int b) {
+        if (a < 0 || b < 0 || a >= n || b >= n) {
+            return false;
+        }
+        int largo = arbol.tokenFin[a] - arbol.tokenInicio[a];
+        return largo == arbol.tokenFin[b] - arbol.tokenInicio[b]
+                && codigo.regionMatches(arbol.tokenInicio[a], codigo, arbol.tokenInicio[b], largo);
+    }
+
+    private String texto(int i) {
+        return i < n ? codigo.substring(arbol.tokenInicio[i], arbol.tokenFin[i]) : "";
+    }
+
+    private void error(int token, CodigoError codigo, String detalle) {
+        int linea = n == 0 ? 1 : arbol.tokenLinea[Math.max(0, Math.min(token, n - 1))];
+        errores.agregar(linea, codigo, detalle);
+    }
+}
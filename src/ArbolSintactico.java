@@ -0,0 +1,145 @@
+import java.util.Arrays;
+
+/**
+ * Árbol sintáctico del modo estructural guardado en arreglos planos de enteros, sin un objeto por nodo ni por
+ * token. Los tokens son ternas (tipo, inicio, fin) sobre el código fuente más su número de línea; los nodos
+ * guardan su tipo, un rango de tokens [desde, hasta), un token de nombre, marcas y los enlaces al primer hijo,
+ * al último hijo y al siguiente hermano. limpiar() deja los arreglos listos para otro código sin liberarlos, así
+ * que un mismo árbol se reutiliza entre traducciones.
+ */
+public class ArbolSintactico {
+
+    // Tipos de nodo
+    public static final int PROGRAMA = 1;
+    public static final int COMENTARIO = 2;
+    public static final int DIRECTIVA = 3;
+    public static final int CLASE = 4;
+    public static final int FUNCION = 5;
+    public static final int PARAMETRO = 6;
+    public static final int BLOQUE = 7;
+    public static final int DECLARACION = 8;
+    public static final int IMPRIMIR = 9;
+    public static final int SI = 10;
+    public static final int MIENTRAS = 11;
+    public static final int HACER = 12;
+    public static final int PARA = 13;
+    public static final int PARA_CADA = 14;
+    public static final int SELECCION = 15;
+    public static final int ETIQUETA = 16;
+    public static final int RETORNO = 17;
+    public static final int EXPRESION = 18;
+    public static final int VACIO = 19;
+
+    // Marcas de nodo
+    public static final int ESTATICO = 1;
+    public static final int CONSTANTE = 2;
+    public static final int PRINCIPAL = 4; // Función main
+    public static final int NUEVA_LINEA = 8; // Impresión que termina la línea
+    public static final int PROTOTIPO = 16; // Función sin cuerpo
+    public static final int MISMA_LINEA = 32; // Comentario al final de la línea anterior
+    public static final int CONSTRUCTOR = 64;
+
+    // Tokens
+    int[] tokenTipo = new int[1024];
+    int[] tokenInicio = new int[1024];
+    int[] tokenFin = new int[1024];
+    int[] tokenLinea = new int[1024];
+    int tokens;
+
+    // Nodos
+    int[] tipo = new int[256];
+    int[] desde = new int[256];
+    int[] hasta = new int[256];
+    int[] nombre = new int[256];
+    int[] marcas = new int[256];
+    int[] primerHijo = new int[256];
+    int[] ultimoHijo = new int[256];
+    int[] siguiente = new int[256];
+    int nodos;
+
+    public void limpiar() {
+        tokens = 0;
+        nodos = 0;
+    }
+
+    public int getCantidadTokens() {
+        return tokens;
+    }
+
+    public int getCantidadNodos() {
+        return nodos;
+    }
+
+    void agregarToken(int tipoToken, int inicio, int fin, int linea) {
+        if (tokens == tokenTipo.length) {
+            int capacidad = tokens * 2;
+            tokenTipo = Arrays.copyOf(tokenTipo, capacidad);
+            tokenInicio = Arrays.copyOf(tokenInicio, capacidad);
+            tokenFin = Arrays.copyOf(tokenFin, capacidad);
+            tokenLinea = Arrays.copyOf(tokenLinea, capacidad);
+        }
+        tokenTipo[tokens] = tipoToken;
+        tokenInicio[tokens] = inicio;
+        tokenFin[tokens] = fin;
+        tokenLinea[tokens] = linea;
+        tokens++;
+    }
+
+    /*Crea un nodo sin hijos y lo agrega al final de los hijos de padre (si padre no es -1).*/
+    int nuevoNodo(int padre, int tipoNodo, int desdeToken, int hastaToken) {
+        if (nodos == tipo.length) {
+            int capacidad = nodos * 2;
+            tipo = Arrays.copyOf(tipo, capacidad);
+            desde = Arrays.copyOf(desde, capacidad);
+            hasta = Arrays.copyOf(hasta, capacidad);
+            nombre = Arrays.copyOf(nombre, capacidad);
+            marcas = Arrays.copyOf(marcas, capacidad);
+            primerHijo = Arrays.copyOf(primerHijo, capacidad);
+            ultimoHijo = Arrays.copyOf(ultimoHijo, capacidad);
+            siguiente = Arrays.copyOf(siguiente, capacidad);
+        }
+        int nodo = nodos++;
+        tipo[nodo] = tipoNodo;
+        desde[nodo] = desdeToken;
+        hasta[nodo] = hastaToken;
+        nombre[nodo] = -1;
+        marcas[nodo] = 0;
+        primerHijo[nodo] = -1;
+        ultimoHijo[nodo] = -1;
+        siguiente[nodo] = -1;
+        if (padre != -1) {
+            if (primerHijo[padre] == -1) {
+                primerHijo[padre] = nodo;
+            } else {
+                siguiente[ultimoHijo[padre]] = nodo;
+            }
+            ultimoHijo[padre] = nodo;
+        }
+        return nodo;
+    }
+
+    public int getTipo(int nodo) {
+        return tipo[nodo];
+    }
+
+    public int getPrimerHijo(int nodo) {
+        return primerHijo[nodo];
+    }
+
+    public int getSiguiente(int nodo) {
+        return siguiente[nodo];
+    }
+
+    public boolean tieneMarca(int nodo, int marca) {
+        return (marcas[nodo] & marca) != 0;
+    }
+
+    /*Hijo número indice (desde 0) del nodo, o -1.*/
+    public int hijo(int nodo, int indice) {
+        int hijo = primerHijo[nodo];
+        while (hijo != -1 && indice-- > 0) {
+            hijo = siguiente[hijo];
+        }
+        return hijo;
+    }
+}
@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lector y escritor UTF-8 sobre canales de archivo para Traductor.traducirArchivo.
+ * El lector mapea el archivo en ventanas de tamaño fijo y las decodifica directamente en el arreglo de quien
+ * lee; el escritor codifica en un búfer directo que se reutiliza y se vuelca al canal cuando se llena. Ninguno
+ * copia el archivo completo al heap.
+ */
+public class ArchivoMapeado {
+
+    // Bytes del archivo de entrada mapeados a la vez
+    private static final int TAMANO_VENTANA = 64 * 1024 * 1024;
+
+    // Bytes del búfer directo de salida
+    private static final int TAMANO_BUFFER_SALIDA = 64 * 1024;
+
+    /*Reader que decodifica un archivo mapeado en memoria por ventanas.*/
+    public static class Lector extends Reader {
+        private final FileChannel canal;
+        private final long tamano;
+        private final CharsetDecoder decodificador = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private MappedByteBuffer ventana;
+        private long inicioVentana;
+        private boolean terminado;
+
+        public Lector(FileChannel canal) throws IOException {
+            this.canal = canal;
+            this.tamano = canal.size();
+        }
+
+        @Override
+        public int read(char[] destino, int desde, int cantidad) throws IOException {
+            if (terminado) {
+                return -1;
+            }
+            CharBuffer caracteres = CharBuffer.wrap(destino, desde, cantidad);
+            while (caracteres.hasRemaining()) {
+                if ((ventana == null || !ventana.hasRemaining() || ultimosBytesIncompletos()) && !mapearSiguiente()) {
+                    decodificador.decode(ByteBuffer.allocate(0), caracteres, true);
+                    decodificador.flush(caracteres);
+                    terminado = true;
+                    break;
+                }
+                boolean ultima = inicioVentana + ventana.limit() == tamano;
+                if (decodificador.decode(ventana, caracteres, ultima).isOverflow()) {
+                    break;
+                }
+            }
+            int leidos = caracteres.position() - desde;
+            return leidos == 0 && terminado ? -1 : leidos;
+        }
+
+        // Una ventana que no es la última puede terminar a mitad de un carácter; esos bytes se vuelven a mapear
+        // al principio de la ventana siguiente.
+        private boolean ultimosBytesIncompletos() {
+            return ventana.remaining() < 4 && inicioVentana + ventana.limit() < tamano;
+        }
+
+        private boolean mapearSiguiente() throws IOException {
+            long inicio = ventana == null ? 0 : inicioVentana + ventana.position();
+            if (inicio >= tamano) {
+                return false;
+            }
+            ventana = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(TAMANO_VENTANA, tamano - inicio));
+            inicioVentana = inicio;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            ventana = null;
+        }
+    }
+
+    /*Writer que codifica en UTF-8 sobre un búfer directo reutilizable y escribe en el canal.*/
+    public static class Escritor extends Writer {
+        private final FileChannel canal;
+        private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER_SALIDA);
+        // Primera mitad de un par sustituto que quedó al final de la escritura anterior
+        private final CharBuffer pendiente = CharBuffer.allocate(2);
+        private boolean cerrado;
+
+        public Escritor(FileChannel canal) {
+            this.canal = canal;
+            pendiente.flip();
+        }
+
+        @Override
+        public void write(char[] caracteres, int desde, int cantidad) throws IOException {
+            codificar(CharBuffer.wrap(caracteres, desde, cantidad));
+        }
+
+        @Override
+        public void write(String texto, int desde, int cantidad) throws IOException {
+            codificar(CharBuffer.wrap(texto, desde, desde + cantidad));
+        }
+
+        // Writer.append copia el texto a un String; aquí se codifica directamente desde el StringBuilder.
+        @Override
+        public Writer append(CharSequence texto) throws IOException {
+            codificar(CharBuffer.wrap(texto));
+            return this;
+        }
+
+        private void codificar(CharBuffer entrada) throws IOException {
+            if (pendiente.hasRemaining() && entrada.hasRemaining()) {
+                char alto = pendiente.get();
+                pendiente.clear();
+                pendiente.put(alto).put(entrada.get()).flip();
+                codificarTodo(pendiente, false);
+            }
+            codificarTodo(entrada, false);
+            if (entrada.hasRemaining()) {
+                pendiente.clear();
+                pendiente.put(entrada.get()).flip();
+            }
+        }
+
+        private void codificarTodo(CharBuffer entrada, boolean fin) throws IOException {
+            while (codificador.encode(entrada, buffer, fin).isOverflow()) {
+                vaciar();
+            }
+        }
+
+        private void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            vaciar();
+        }
+
+        /*Termina la codificación y escribe lo pendiente; el canal lo cierra quien lo abrió.*/
+        @Override
+        public void close() throws IOException {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            codificarTodo(pendiente, true);
+            CoderResult resultado;
+            while ((resultado = codificador.flush(buffer)).isOverflow()) {
+                vaciar();
+            }
+            if (resultado.isError()) {
+                resultado.throwException();
+            }
+            vaciar();
+        }
+    }
+}
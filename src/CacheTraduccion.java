@@ -0,0 +1,260 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de traducciones direccionada por contenido.
+ * La clave es el SHA-256 del código fuente junto con los idiomas, la clase y versión del par que los traduce y el
+ * límite de errores, así que un cambio de reglas invalida las entradas anteriores y una lista de errores recortada
+ * con un límite no se devuelve con otro. En memoria se guarda un LRU acotado por cantidad de caracteres;
+ * opcionalmente cada resultado se escribe también en un directorio para que otras ejecuciones lo reutilicen.
+ */
+public class CacheTraduccion {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // Primera línea de cada archivo; las entradas de otro formato se ignoran y se vuelven a calcular
+    private static final String FORMATO_DISCO = "trad 2";
+
+    private final long maxCaracteres;
+    private final Path directorio;
+    private final LinkedHashMap<String, Traductor.ResultadoTraduccion> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long caracteres;
+
+    private final AtomicLong aciertosMemoria = new AtomicLong();
+    private final AtomicLong aciertosDisco = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    /**
+     * @param maxCaracteres Límite de caracteres (traducciones y mensajes) que se mantienen en memoria.
+     * @param directorio    Directorio donde persistir los resultados, o null para usar solo memoria.
+     */
+    public CacheTraduccion(long maxCaracteres, Path directorio) throws IOException {
+        this.maxCaracteres = maxCaracteres;
+        this.directorio = directorio;
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+    }
+
+    /**
+     * Devuelve la traducción guardada para el código o la calcula con Traductor.traducir y la guarda.
+     * Los errores se guardan con el límite predeterminado de ErroresTraduccion vigente al llamar.
+     * Los errores de entrada (código vacío) no se guardan y se propagan igual que en Traductor.
+     */
+    public Traductor.ResultadoTraduccion traducir(String codigo, String idiomaOrigen, String idiomaDestino) throws Exception {
+        if (codigo == null || codigo.trim().isEmpty()) {
+            throw new Exception("El código es nulo o está vacío.");
+        }
+        int limiteErrores = ErroresTraduccion.getLimitePredeterminado();
+        String clave = clave(codigo, idiomaOrigen, idiomaDestino, limiteErrores);
+
+        Traductor.ResultadoTraduccion resultado;
+        synchronized (this) {
+            resultado = entradas.get(clave);
+        }
+        if (resultado != null) {
+            aciertosMemoria.incrementAndGet();
+            return copiar(resultado);
+        }
+
+        resultado = leerDeDisco(clave);
+        if (resultado != null) {
+            aciertosDisco.incrementAndGet();
+        } else {
+            fallos.incrementAndGet();
+            resultado = Traductor.traducir(codigo, idiomaOrigen, idiomaDestino, new ErroresTraduccion(limiteErrores, null));
+            escribirEnDisco(clave, resultado);
+        }
+        guardar(clave, resultado);
+        return copiar(resultado);
+    }
+
+    public long getAciertosMemoria() {
+        return aciertosMemoria.get();
+    }
+
+    public long getAciertosDisco() {
+        return aciertosDisco.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    public synchronized int getEntradas() {
+        return entradas.size();
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+        caracteres = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Caché: " + aciertosMemoria.get() + " aciertos en memoria, " + aciertosDisco.get()
+                + " aciertos en disco, " + fallos.get() + " fallos";
+    }
+
+    private synchronized void guardar(String clave, Traductor.ResultadoTraduccion resultado) {
+        long tamano = tamano(resultado);
+        if (tamano > maxCaracteres) {
+            return;
+        }
+        Traductor.ResultadoTraduccion anterior = entradas.put(clave, resultado);
+        if (anterior != null) {
+            caracteres -= tamano(anterior);
+        }
+        caracteres += tamano;
+        // El iterador de un LinkedHashMap en orden de acceso empieza por la entrada menos usada.
+        Iterator<Map.Entry<String, Traductor.ResultadoTraduccion>> it = entradas.entrySet().iterator();
+        while (caracteres > maxCaracteres && it.hasNext()) {
+            caracteres -= tamano(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    private static long tamano(Traductor.ResultadoTraduccion resultado) {
+        long tamano = resultado.traduccion.length();
+        for (Traductor.ErrorInfo error : resultado.errores) {
+            tamano += error.mensaje.length() + 8;
+        }
+        return tamano;
+    }
+
+    // La lista guardada no se entrega directamente para que quien llama no pueda modificarla; los ErrorInfo no cambian.
+    private static Traductor.ResultadoTraduccion copiar(Traductor.ResultadoTraduccion resultado) {
+        List<Traductor.ErrorInfo> errores = new ArrayList<>(resultado.errores);
+        return new Traductor.ResultadoTraduccion(resultado.traduccion, errores);
+    }
+
+    /*
+     * Formato en disco: la línea FORMATO_DISCO, la cantidad de errores, una línea "número<TAB>CODIGO[<TAB>detalle]"
+     * por error (sin el detalle si es null) y después la traducción. Así cada error vuelve con su código y su
+     * detalle, también los que tienen plantilla con %s.
+     */
+    private Traductor.ResultadoTraduccion leerDeDisco(String clave) {
+        if (directorio == null) {
+            return null;
+        }
+        Path archivo = directorio.resolve(clave + ".trad");
+        if (!Files.isRegularFile(archivo)) {
+            return null;
+        }
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            if (!FORMATO_DISCO.equals(lector.readLine())) {
+                return null;
+            }
+            int cantidad = Integer.parseInt(lector.readLine());
+            List<Traductor.ErrorInfo> errores = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                String linea = lector.readLine();
+                int tab = linea.indexOf('\t');
+                int tabDetalle = linea.indexOf('\t', tab + 1);
+                String nombre = tabDetalle == -1 ? linea.substring(tab + 1) : linea.substring(tab + 1, tabDetalle);
+                String detalle = tabDetalle == -1 ? null : desescapar(linea.substring(tabDetalle + 1));
+                errores.add(new Traductor.ErrorInfo(Integer.parseInt(linea.substring(0, tab)),
+                        CodigoError.valueOf(nombre), detalle));
+            }
+            StringBuilder traduccion = new StringBuilder();
+            char[] buffer = new char[8192];
+            int leidos;
+            while ((leidos = lector.read(buffer)) != -1) {
+                traduccion.append(buffer, 0, leidos);
+            }
+            return new Traductor.ResultadoTraduccion(traduccion.toString(), errores);
+        } catch (IOException | RuntimeException e) {
+            // Una entrada dañada se trata como si no existiera y se vuelve a calcular.
+            return null;
+        }
+    }
+
+    private void escribirEnDisco(String clave, Traductor.ResultadoTraduccion resultado) {
+        if (directorio == null) {
+            return;
+        }
+        try {
+            Path temporal = Files.createTempFile(directorio, clave, ".tmp");
+            try (BufferedWriter escritor = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+                escritor.write(FORMATO_DISCO);
+                escritor.write('\n');
+                escritor.write(Integer.toString(resultado.errores.size()));
+                escritor.write('\n');
+                for (Traductor.ErrorInfo error : resultado.errores) {
+                    escritor.write(error.linea + "\t" + error.codigo.name());
+                    if (error.detalle != null) {
+                        escritor.write('\t');
+                        escritor.write(escapar(error.detalle));
+                    }
+                    escritor.write('\n');
+                }
+                escritor.write(resultado.traduccion);
+            }
+            // Se renombra al final para que otro proceso nunca lea un archivo a medio escribir.
+            Files.move(temporal, directorio.resolve(clave + ".trad"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar la traducción en la caché: " + e.getMessage());
+        }
+    }
+
+    // El detalle puede ser un mensaje libre con tabulaciones o saltos de línea
+    private static String escapar(String texto) {
+        return texto.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String desescapar(String texto) {
+        if (texto.indexOf('\\') == -1) {
+            return texto;
+        }
+        StringBuilder resultado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '\\' && i + 1 < texto.length()) {
+                char siguiente = texto.charAt(++i);
+                c = siguiente == 't' ? '\t' : siguiente == 'n' ? '\n' : siguiente == 'r' ? '\r' : siguiente;
+            }
+            resultado.append(c);
+        }
+        return resultado.toString();
+    }
+
+    static String clave(String codigo, String idiomaOrigen, String idiomaDestino, int limiteErrores) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+        digest.update(codigo.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(idiomaOrigen.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(idiomaDestino.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        // Versión del par que traduce, para que un proveedor que cambia sus reglas también invalide sus entradas
+        ParIdiomas par = RegistroIdiomas.buscar(idiomaOrigen, idiomaDestino);
+        String version = par == null ? "-" : par.getClass().getName() + ":" + par.getVersion();
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(Integer.toString(limiteErrores).getBytes(StandardCharsets.UTF_8));
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
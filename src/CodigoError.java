@@ -0,0 +1,56 @@
+/**
+ * Errores que puede informar la traducción, cada uno con su plantilla de mensaje.
+ * ErroresTraduccion guarda solo el código y el número de línea de cada error; el mensaje se arma al leerlo, así
+ * que los errores sin detalle comparten siempre el mismo String. En las plantillas con %s el detalle (un idioma o
+ * el texto de un token) se guarda aparte.
+ */
+public enum CodigoError {
+
+    // Mensaje libre, por ejemplo el de una excepción
+    GENERAL("%s"),
+
+    // Traductor
+    PALABRA_ERROR("Se encontró la palabra 'error' en la línea."),
+    NO_ES_JAVA("El código fuente no parece ser Java (faltan 'class' o 'main')."),
+    NO_ES_CPP("El código fuente no parece ser C++ (faltan '#include' o 'main')."),
+    NO_ES_JS("El código fuente no parece ser JavaScript (faltan 'function' o 'console.log')."),
+    PAR_NO_SOPORTADO("Conversión de %s no soportada."),
+    ERRORES_OMITIDOS("Y %s errores más que no se muestran."),
+
+    // Modo estructural
+    IDIOMAS_ESTRUCTURAL("El modo estructural solo traduce entre Java, C++ y JS."),
+    FALTA_CUERPO_CLASE("No se encontró el cuerpo de la clase."),
+    PARAMETRO("Parámetro no reconocido."),
+    FALTA_LLAVE("Falta '}' para cerrar el bloque."),
+    FALTA_BLOQUE_SWITCH("Se esperaba el bloque del switch."),
+    FALTA_SENTENCIA("Se esperaba una sentencia."),
+    FALTA_PARENTESIS("Se esperaba '(' después de '%s'."),
+    FALTA_WHILE("Se esperaba 'while' al final del do."),
+    FALTA_PUNTO_Y_COMA("Falta ';' al final de la sentencia."),
+    VARIABLE_FOR("Variable del for no reconocida."),
+    ENCABEZADO_FOR("Encabezado de for no soportado."),
+    FALTA_DOS_PUNTOS("Se esperaba ':' después de '%s'."),
+    SIMBOLO_INESPERADO("Símbolo inesperado '%s'."),
+    NO_SOPORTADA("Construcción no soportada en el modo estructural: '%s'."),
+    CLASE_ANIDADA("Clase anidada no soportada en el modo estructural."),
+    FUNCION_ANIDADA("Función anidada no soportada en el modo estructural."),
+    ANIDAMIENTO("Más de %s niveles de anidamiento: el código se tradujo en el modo por líneas.");
+
+    private final String plantilla;
+    private final boolean conDetalle;
+
+    CodigoError(String plantilla) {
+        this.plantilla = plantilla;
+        this.conDetalle = plantilla.contains("%s");
+    }
+
+    /*Indica si el mensaje lleva un detalle que se guarda con cada error.*/
+    public boolean tieneDetalle() {
+        return conDetalle;
+    }
+
+    /*Mensaje del error; el detalle se ignora si la plantilla no lo usa.*/
+    public String mensaje(String detalle) {
+        return conDetalle ? plantilla.replace("%s", String.valueOf(detalle)) : plantilla;
+    }
+}
@@ -0,0 +1,191 @@
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Detecta si un código es Java, C++ o JavaScript en una sola pasada.
+ * Un AhoCorasick con las construcciones típicas de los tres idiomas recorre el texto por bloques y cada
+ * coincidencia suma su peso a los idiomas en que aparece; después de cada bloque se calcula la confianza (la
+ * parte de los puntos que tiene el idioma con más puntos) y se termina en cuanto pasa del umbral. Nunca se leen
+ * más de MAX_MUESTRA caracteres, así que en un archivo grande solo se mira el principio.
+ */
+public class DetectorIdioma {
+
+    // Caracteres del principio del código que se examinan como máximo
+    static final int MAX_MUESTRA = 64 * 1024;
+
+    // Tamaño de los bloques entre los que se revisa si ya se puede decidir
+    private static final int BLOQUE = 2048;
+
+    // Puntos y confianza con los que se decide sin leer el resto de la muestra
+    private static final int PUNTOS_SEGUROS = 40;
+    private static final double CONFIANZA_SEGURA = 0.9;
+
+    // Por debajo de estos puntos o de esta confianza no se elige ningún idioma
+    private static final int PUNTOS_MINIMOS = 4;
+    private static final double CONFIANZA_MINIMA = 0.6;
+
+    private static final String[] IDIOMAS = {"Java", "C++", "JS"};
+
+    // Patrón y sus puntos para Java, C++ y JS. Los que empiezan con letra solo cuentan al principio de una palabra.
+    // Ningún patrón es prefijo de otro, porque AhoCorasick se queda con la primera coincidencia que termina.
+    private static final Object[][] PATRONES = {
+            {"System.out.print", 10, 0, 0},
+            {"public static void main", 10, 0, 0},
+            {"String[]", 6, 0, 0},
+            {"public class ", 6, 0, 0},
+            {"import java", 10, 0, 0},
+            {"package ", 4, 0, 0},
+            {"@Override", 8, 0, 0},
+            {"extends ", 2, 0, 2},
+            {"implements ", 5, 0, 0},
+            {"boolean ", 3, 0, 0},
+            {"final ", 3, 0, 0},
+            {"private ", 2, 1, 0},
+            {"new ", 1, 1, 1},
+            {"ArrayList<", 5, 0, 0},
+            {"String ", 3, 0, 0},
+            {"#include", 0, 10, 0},
+            {"#define", 0, 8, 0},
+            {"std::", 0, 10, 0},
+            {"using namespace", 0, 10, 0},
+            {"cout", 0, 6, 0},
+            {"endl", 0, 6, 0},
+            {"nullptr", 0, 8, 0},
+            {"->", 1, 4, 0},
+            {"::", 1, 3, 0},
+            {"int main", 0, 8, 0},
+            {"public:", 0, 8, 0},
+            {"private:", 0, 8, 0},
+            {"template<", 0, 6, 0},
+            {"vector<", 0, 6, 0},
+            {"unsigned ", 0, 4, 0},
+            {"bool ", 0, 3, 0},
+            {"auto ", 0, 2, 0},
+            {"console.", 0, 0, 10},
+            {"function", 0, 0, 6},
+            {"=>", 0, 0, 4},
+            {"===", 0, 0, 6},
+            {"!==", 0, 0, 6},
+            {"let ", 0, 0, 4},
+            {"const ", 0, 2, 3},
+            {"var ", 1, 0, 3},
+            {"undefined", 0, 0, 6},
+            {"require(", 0, 0, 8},
+            {"module.exports", 0, 0, 10},
+            {"document.", 0, 0, 8},
+            {"export ", 0, 0, 4},
+            {"async ", 0, 0, 4},
+            {"${", 0, 0, 3},
+    };
+
+    private static final AhoCorasick AUTOMATA;
+    private static final int[][] PUNTOS = new int[PATRONES.length][];
+    private static final boolean[] PALABRA = new boolean[PATRONES.length];
+
+    static {
+        String[] patrones = new String[PATRONES.length];
+        for (int i = 0; i < PATRONES.length; i++) {
+            patrones[i] = (String) PATRONES[i][0];
+            PUNTOS[i] = new int[]{(Integer) PATRONES[i][1], (Integer) PATRONES[i][2], (Integer) PATRONES[i][3]};
+            PALABRA[i] = Character.isLetter(patrones[i].charAt(0));
+        }
+        AUTOMATA = new AhoCorasick(patrones);
+    }
+
+    // Resultado de una detección
+    public static class Deteccion {
+        public final String idioma; // null si no se pudo decidir
+        public final double confianza; // De 0 a 1
+        public final int caracteres; // Caracteres examinados
+
+        Deteccion(String idioma, double confianza, int caracteres) {
+            this.idioma = idioma;
+            this.confianza = confianza;
+            this.caracteres = caracteres;
+        }
+    }
+
+    /**
+     * Detecta el idioma del código a partir de su principio.
+     *
+     * @param codigo Código fuente.
+     * @return Idioma detectado ("Java", "C++" o "JS") con su confianza; el idioma es null si ninguno tiene
+     *         suficientes puntos o la confianza es baja.
+     */
+    public static Deteccion detectar(CharSequence codigo) {
+        int fin = Math.min(codigo.length(), MAX_MUESTRA);
+        int[] puntos = new int[IDIOMAS.length];
+        AhoCorasick.Coincidencias coincidencias = new AhoCorasick.Coincidencias();
+        int inicio = 0;
+        while (inicio < fin) {
+            // Los bloques se cortan después de un salto de línea para no partir un patrón.
+            int corte = Math.min(inicio + BLOQUE, fin);
+            while (corte < fin && codigo.charAt(corte - 1) != '\n') {
+                corte++;
+            }
+            coincidencias.limpiar();
+            AUTOMATA.buscar(codigo, inicio, corte, coincidencias);
+            for (int i = 0; i < coincidencias.cantidad(); i++) {
+                int patron = coincidencias.patron(i);
+                int posicion = coincidencias.inicio(i);
+                if (PALABRA[patron] && posicion > 0 && AnalizadorLexico.esParteIdentificador(codigo.charAt(posicion - 1))) {
+                    continue;
+                }
+                for (int idioma = 0; idioma < puntos.length; idioma++) {
+                    puntos[idioma] += PUNTOS[patron][idioma];
+                }
+            }
+            inicio = corte;
+            int mejor = mejor(puntos);
+            if (puntos[mejor] >= PUNTOS_SEGUROS && confianza(puntos, mejor) >= CONFIANZA_SEGURA) {
+                break;
+            }
+        }
+        int mejor = mejor(puntos);
+        double confianza = confianza(puntos, mejor);
+        String idioma = puntos[mejor] >= PUNTOS_MINIMOS && confianza >= CONFIANZA_MINIMA ? IDIOMAS[mejor] : null;
+        return new Deteccion(idioma, confianza, inicio);
+    }
+
+    /*
+     * Detecta el idioma de un archivo leyendo solo su principio. Los bytes que no son UTF-8 se reemplazan, igual
+     * que al traducirlo, para no rechazar un archivo que la traducción acepta.
+     */
+    public static Deteccion detectar(Path archivo) throws IOException {
+        char[] muestra = new char[MAX_MUESTRA];
+        int leidos = 0;
+        try (Reader lector = new InputStreamReader(Files.newInputStream(archivo), StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE))) {
+            int n;
+            while (leidos < muestra.length && (n = lector.read(muestra, leidos, muestra.length - leidos)) != -1) {
+                leidos += n;
+            }
+        }
+        return detectar(CharBuffer.wrap(muestra, 0, leidos));
+    }
+
+    private static int mejor(int[] puntos) {
+        int mejor = 0;
+        for (int i = 1; i < puntos.length; i++) {
+            if (puntos[i] > puntos[mejor]) {
+                mejor = i;
+            }
+        }
+        return mejor;
+    }
+
+    private static double confianza(int[] puntos, int mejor) {
+        int total = 0;
+        for (int p : puntos) {
+            total += p;
+        }
+        return total == 0 ? 0 : (double) puntos[mejor] / total;
+    }
+}
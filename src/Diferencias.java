@@ -0,0 +1,355 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diferencias por líneas entre dos textos, alineadas en filas para mostrarlas lado a lado.
+ *
+ * Usa el algoritmo de Myers en espacio lineal (búsqueda de la serpiente media desde los dos extremos y división
+ * recursiva), sobre las líneas convertidas a enteros. Antes se quitan el prefijo y el sufijo comunes y las líneas
+ * que no aparecen en el otro texto, que nunca pueden coincidir: en una traducción casi todas las líneas cambiadas
+ * son de ese tipo, así que la cantidad de ediciones que ve el algoritmo queda pequeña aunque cambien miles de
+ * líneas. Si aun así la búsqueda supera COSTE_MINIMO pasos (o la raíz del tamaño, si es mayor) se divide por la
+ * diagonal que más avanzó, como hace GNU diff; el resultado puede no ser mínimo pero el tiempo queda acotado.
+ *
+ * Cada fila tiene una línea de cada lado o solo de uno; las ediciones consecutivas se emparejan como líneas
+ * modificadas.
+ */
+public class Diferencias {
+
+    // Tipos de fila
+    public static final int IGUAL = 0;
+    public static final int MODIFICADA = 1;
+    public static final int QUITADA = 2;
+    public static final int AGREGADA = 3;
+
+    private static final int COSTE_MINIMO = 256;
+
+    private final int[] izquierda; // Índice de la línea del primer texto en cada fila, o -1
+    private final int[] derecha; // Índice de la línea del segundo texto en cada fila, o -1
+    private final byte[] tipos;
+    private final int filas;
+    private final int cambios;
+
+    private Diferencias(int[] izquierda, int[] derecha, byte[] tipos, int filas, int cambios) {
+        this.izquierda = izquierda;
+        this.derecha = derecha;
+        this.tipos = tipos;
+        this.filas = filas;
+        this.cambios = cambios;
+    }
+
+    /*Compara las líneas de a con las de b.*/
+    public static Diferencias comparar(String[] a, String[] b) {
+        // Cada línea distinta recibe un número; las que solo aparecen en un texto se marcan como cambiadas.
+        Map<String, Integer> numeros = new HashMap<>(Math.max(16, (a.length + b.length) * 2));
+        int[] numerosA = numerar(a, numeros);
+        int[] numerosB = numerar(b, numeros);
+        int[] enB = new int[numeros.size()];
+        int[] enA = new int[numeros.size()];
+        for (int numero : numerosB) {
+            enB[numero]++;
+        }
+        for (int numero : numerosA) {
+            enA[numero]++;
+        }
+        boolean[] cambiadaA = new boolean[a.length];
+        boolean[] cambiadaB = new boolean[b.length];
+        int[] indicesA = new int[a.length];
+        int[] indicesB = new int[b.length];
+        int[] compactaA = compactar(numerosA, enB, cambiadaA, indicesA);
+        int[] compactaB = compactar(numerosB, enA, cambiadaB, indicesB);
+
+        Comparacion comparacion = new Comparacion(compactaA, compactaB);
+        comparacion.comparar(0, compactaA.length, 0, compactaB.length);
+        for (int i = 0; i < compactaA.length; i++) {
+            if (comparacion.cambiadaA[i]) {
+                cambiadaA[indicesA[i]] = true;
+            }
+        }
+        for (int i = 0; i < compactaB.length; i++) {
+            if (comparacion.cambiadaB[i]) {
+                cambiadaB[indicesB[i]] = true;
+            }
+        }
+        return alinear(cambiadaA, cambiadaB);
+    }
+
+    public int getCantidadFilas() {
+        return filas;
+    }
+
+    /*Cantidad de filas que no son iguales.*/
+    public int getCantidadCambios() {
+        return cambios;
+    }
+
+    /*Índice (desde 0) de la línea del primer texto en la fila, o -1 si la fila solo tiene línea del segundo.*/
+    public int getLineaIzquierda(int fila) {
+        return izquierda[fila];
+    }
+
+    /*Índice (desde 0) de la línea del segundo texto en la fila, o -1 si la fila solo tiene línea del primero.*/
+    public int getLineaDerecha(int fila) {
+        return derecha[fila];
+    }
+
+    public int getTipo(int fila) {
+        return tipos[fila];
+    }
+
+    /*Largo del prefijo común de dos líneas modificadas; lo que sigue es el tramo que cambió.*/
+    public static int prefijoComun(String a, String b) {
+        int limite = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < limite && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /*Largo del sufijo común de dos líneas, sin solaparse con un prefijo común de largo prefijo.*/
+    public static int sufijoComun(String a, String b, int prefijo) {
+        int limite = Math.min(a.length(), b.length()) - prefijo;
+        int i = 0;
+        while (i < limite && a.charAt(a.length() - 1 - i) == b.charAt(b.length() - 1 - i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int[] numerar(String[] lineas, Map<String, Integer> numeros) {
+        int[] resultado = new int[lineas.length];
+        for (int i = 0; i < lineas.length; i++) {
+            Integer numero = numeros.get(lineas[i]);
+            if (numero == null) {
+                numero = numeros.size();
+                numeros.put(lineas[i], numero);
+            }
+            resultado[i] = numero;
+        }
+        return resultado;
+    }
+
+    // Deja solo las líneas que aparecen en el otro texto y guarda su índice original
+    private static int[] compactar(int[] numeros, int[] enOtro, boolean[] cambiadas, int[] indices) {
+        int cantidad = 0;
+        int[] resultado = new int[numeros.length];
+        for (int i = 0; i < numeros.length; i++) {
+            if (enOtro[numeros[i]] == 0) {
+                cambiadas[i] = true;
+            } else {
+                indices[cantidad] = i;
+                resultado[cantidad++] = numeros[i];
+            }
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+
+    // Recorre las dos secuencias: las líneas sin cambio coinciden en orden y cada bloque de cambios se empareja
+    private static Diferencias alinear(boolean[] cambiadaA, boolean[] cambiadaB) {
+        int capacidad = Math.max(cambiadaA.length, cambiadaB.length) + 16;
+        int[] izquierda = new int[capacidad];
+        int[] derecha = new int[capacidad];
+        byte[] tipos = new byte[capacidad];
+        int filas = 0;
+        int cambios = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cambiadaA.length || j < cambiadaB.length) {
+            int finA = i;
+            while (finA < cambiadaA.length && cambiadaA[finA]) {
+                finA++;
+            }
+            int finB = j;
+            while (finB < cambiadaB.length && cambiadaB[finB]) {
+                finB++;
+            }
+            int bloque = Math.max(finA - i, finB - j);
+            if (filas + bloque + 1 > capacidad) {
+                capacidad = Math.max(capacidad * 2, filas + bloque + 1);
+                izquierda = Arrays.copyOf(izquierda, capacidad);
+                derecha = Arrays.copyOf(derecha, capacidad);
+                tipos = Arrays.copyOf(tipos, capacidad);
+            }
+            for (int k = 0; k < bloque; k++) {
+                izquierda[filas] = i + k < finA ? i + k : -1;
+                derecha[filas] = j + k < finB ? j + k : -1;
+                tipos[filas] = (byte) (izquierda[filas] == -1 ? AGREGADA : derecha[filas] == -1 ? QUITADA : MODIFICADA);
+                filas++;
+            }
+            cambios += bloque;
+            i = finA;
+            j = finB;
+            if (i < cambiadaA.length && j < cambiadaB.length) {
+                izquierda[filas] = i++;
+                derecha[filas] = j++;
+                tipos[filas] = IGUAL;
+                filas++;
+            }
+        }
+        return new Diferencias(izquierda, derecha, tipos, filas, cambios);
+    }
+
+    // Estado de la comparación de dos secuencias de enteros
+    private static class Comparacion {
+        final int[] a;
+        final int[] b;
+        final boolean[] cambiadaA;
+        final boolean[] cambiadaB;
+        // Caminos hacia adelante y hacia atrás por diagonal, reutilizados en toda la recursión
+        final int[] adelante;
+        final int[] atras;
+        final int costeMaximo;
+        int divisionX;
+        int divisionY;
+
+        Comparacion(int[] a, int[] b) {
+            this.a = a;
+            this.b = b;
+            cambiadaA = new boolean[a.length];
+            cambiadaB = new boolean[b.length];
+            int diagonales = a.length + b.length + 5;
+            adelante = new int[diagonales];
+            atras = new int[diagonales];
+            costeMaximo = Math.max(COSTE_MINIMO, 1 << ((32 - Integer.numberOfLeadingZeros(diagonales) + 1) / 2));
+        }
+
+        void comparar(int inicioA, int finA, int inicioB, int finB) {
+            while (true) {
+                while (inicioA < finA && inicioB < finB && a[inicioA] == b[inicioB]) {
+                    inicioA++;
+                    inicioB++;
+                }
+                while (inicioA < finA && inicioB < finB && a[finA - 1] == b[finB - 1]) {
+                    finA--;
+                    finB--;
+                }
+                if (inicioA == finA || inicioB == finB) {
+                    Arrays.fill(cambiadaA, inicioA, finA, true);
+                    Arrays.fill(cambiadaB, inicioB, finB, true);
+                    return;
+                }
+                if (!dividir(inicioA, finA, inicioB, finB)) {
+                    Arrays.fill(cambiadaA, inicioA, finA, true);
+                    Arrays.fill(cambiadaB, inicioB, finB, true);
+                    return;
+                }
+                // La primera mitad se compara por recursión y la segunda en este mismo ciclo.
+                int x = divisionX;
+                int y = divisionY;
+                comparar(inicioA, x, inicioB, y);
+                inicioA = x;
+                inicioB = y;
+            }
+        }
+
+        /*
+         * Busca la serpiente media del rango y deja en divisionX/divisionY el punto donde termina el camino hacia
+         * adelante. Devuelve false si no hay un punto de división que reduzca el problema.
+         */
+        private boolean dividir(int inicioA, int finA, int inicioB, int finB) {
+            int n = finA - inicioA;
+            int m = finB - inicioB;
+            int maxD = (n + m + 1) / 2;
+            int desplazamiento = maxD + 1;
+            Arrays.fill(adelante, 0, 2 * desplazamiento + 1, -1);
+            Arrays.fill(atras, 0, 2 * desplazamiento + 1, -1);
+            adelante[desplazamiento + 1] = 0;
+            atras[desplazamiento + 1] = 0;
+            int delta = n - m;
+            boolean impar = (delta & 1) != 0;
+            // Diagonales que ya salieron del rectángulo y no se vuelven a recorrer
+            int inicioK1 = 0;
+            int finK1 = 0;
+            int inicioK2 = 0;
+            int finK2 = 0;
+            for (int d = 0; d <= maxD; d++) {
+                if (d > costeMaximo) {
+                    return dividirPorMejorDiagonal(inicioA, inicioB, n, m, d - 1, desplazamiento, inicioK1, finK1);
+                }
+                for (int k = -d + inicioK1; k <= d - finK1; k += 2) {
+                    int indice = desplazamiento + k;
+                    int x;
+                    if (k == -d || (k != d && adelante[indice - 1] < adelante[indice + 1])) {
+                        x = adelante[indice + 1];
+                    } else {
+                        x = adelante[indice - 1] + 1;
+                    }
+                    int y = x - k;
+                    while (x < n && y < m && a[inicioA + x] == b[inicioB + y]) {
+                        x++;
+                        y++;
+                    }
+                    adelante[indice] = x;
+                    if (x > n) {
+                        finK1 += 2;
+                    } else if (y > m) {
+                        inicioK1 += 2;
+                    } else if (impar) {
+                        int indiceAtras = desplazamiento + delta - k;
+                        if (indiceAtras >= 0 && indiceAtras < 2 * desplazamiento + 1 && atras[indiceAtras] != -1
+                                && x >= n - atras[indiceAtras]) {
+                            return establecerDivision(inicioA, inicioB, n, m, x, y);
+                        }
+                    }
+                }
+                for (int k = -d + inicioK2; k <= d - finK2; k += 2) {
+                    int indice = desplazamiento + k;
+                    int x;
+                    if (k == -d || (k != d && atras[indice - 1] < atras[indice + 1])) {
+                        x = atras[indice + 1];
+                    } else {
+                        x = atras[indice - 1] + 1;
+                    }
+                    int y = x - k;
+                    while (x < n && y < m && a[finA - 1 - x] == b[finB - 1 - y]) {
+                        x++;
+                        y++;
+                    }
+                    atras[indice] = x;
+                    if (x > n) {
+                        finK2 += 2;
+                    } else if (y > m) {
+                        inicioK2 += 2;
+                    } else if (!impar) {
+                        int indiceAdelante = desplazamiento + delta - k;
+                        if (indiceAdelante >= 0 && indiceAdelante < 2 * desplazamiento + 1 && adelante[indiceAdelante] != -1) {
+                            int xAdelante = adelante[indiceAdelante];
+                            int yAdelante = xAdelante - (delta - k);
+                            if (xAdelante >= n - x) {
+                                return establecerDivision(inicioA, inicioB, n, m, xAdelante, yAdelante);
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Búsqueda demasiado cara: se divide en la diagonal hacia adelante que llegó más lejos
+        private boolean dividirPorMejorDiagonal(int inicioA, int inicioB, int n, int m, int d, int desplazamiento,
+                                               int inicioK1, int finK1) {
+            int mejorX = -1;
+            int mejorY = -1;
+            for (int k = -d + inicioK1; k <= d - finK1; k += 2) {
+                int x = adelante[desplazamiento + k];
+                int y = x - k;
+                if (x >= 0 && x <= n && y >= 0 && y <= m && x + y > mejorX + mejorY) {
+                    mejorX = x;
+                    mejorY = y;
+                }
+            }
+            return mejorX >= 0 && establecerDivision(inicioA, inicioB, n, m, mejorX, mejorY);
+        }
+
+        private boolean establecerDivision(int inicioA, int inicioB, int n, int m, int x, int y) {
+            if ((x == 0 && y == 0) || (x == n && y == m)) {
+                return false;
+            }
+            divisionX = inicioA + x;
+            divisionY = inicioB + y;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,1328 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Genera el código del idioma destino a partir del árbol de AnalizadorSintactico.
+ * La estructura (clases, funciones, bloques y sentencias de control) se vuelve a escribir con la sintaxis del
+ * destino y una sangría de cuatro espacios por nivel; los tipos se traducen con una tabla por par de idiomas
+ * (en JS, que no los tiene, se deducen del valor inicial) y las expresiones se copian token a token con algunos
+ * reemplazos de nombres de la biblioteca estándar.
+ *
+ * Adaptaciones al destino:
+ * - Java: todo queda dentro de "public class Main"; las funciones son static y las variables globales, campos static.
+ * - C++: se agregan los #include necesarios y los prototipos de las funciones, y main devuelve int.
+ * - JS: las clases de Java con solo miembros static se aplanan en funciones y variables, y al final se llama a main().
+ * Las sentencias sueltas del nivel superior de JS pasan al principio de main (o a un main nuevo si no hay).
+ */
+public class EmisorCodigo {
+
+    private static final int JAVA = AnalizadorSintactico.JAVA;
+    private static final int CPP = AnalizadorSintactico.CPP;
+    private static final int JS = AnalizadorSintactico.JS;
+
+    // Encabezados de C++ que puede necesitar el código generado
+    private static final String[] ENCABEZADOS = {"<iostream>", "<string>", "<vector>", "<map>", "<cmath>", "<algorithm>"};
+    private static final int STRING = 1;
+    private static final int VECTOR = 2;
+    private static final int MAP = 3;
+    private static final int CMATH = 4;
+    private static final int ALGORITHM = 5;
+
+    /*
+     * Reemplazos en las expresiones por [origen][destino]: texto del idioma de origen, texto en el destino y
+     * encabezado de C++ que necesita (0 si ninguno). Se comparan contra tokens consecutivos sin espacios; si
+     * el texto empieza con un nombre, el token anterior no puede ser '.' (no es un miembro).
+     */
+    private static final Object[][][][] REEMPLAZOS = new Object[3][3][][];
+
+    static {
+        REEMPLAZOS[JAVA][CPP] = new Object[][]{
+                {"String.valueOf(", "std::to_string(", STRING}, {"Integer.parseInt(", "std::stoi(", STRING},
+                {"Double.parseDouble(", "std::stod(", STRING}, {"Math.sqrt(", "std::sqrt(", CMATH},
+                {"Math.pow(", "std::pow(", CMATH}, {"Math.abs(", "std::abs(", CMATH}, {"Math.floor(", "std::floor(", CMATH},
+                {"Math.ceil(", "std::ceil(", CMATH}, {"Math.max(", "std::max(", ALGORITHM}, {"Math.min(", "std::min(", ALGORITHM},
+                {"null", "nullptr", 0}, {"this.", "this->", 0}, {".length()", ".length()", 0}, {".length", ".size()", 0},
+                {".add(", ".push_back(", 0}};
+        REEMPLAZOS[JAVA][JS] = new Object[][]{
+                {"String.valueOf(", "String(", 0}, {"Integer.parseInt(", "parseInt(", 0},
+                {"Double.parseDouble(", "parseFloat(", 0}, {".length()", ".length", 0}, {".size()", ".length", 0},
+                {".add(", ".push(", 0}};
+        REEMPLAZOS[CPP][JAVA] = new Object[][]{
+                {"std::to_string(", "String.valueOf(", 0}, {"std::stoi(", "Integer.parseInt(", 0},
+                {"std::stod(", "Double.parseDouble(", 0}, {"std::sqrt(", "Math.sqrt(", 0}, {"std::pow(", "Math.pow(", 0},
+                {"std::abs(", "Math.abs(", 0}, {"std::floor(", "Math.floor(", 0}, {"std::ceil(", "Math.ceil(", 0},
+                {"std::max(", "Math.max(", 0}, {"std::min(", "Math.min(", 0}, {"sqrt(", "Math.sqrt(", 0},
+                {"pow(", "Math.pow(", 0}, {"nullptr", "null", 0}, {"NULL", "null", 0}, {"this->", "this.", 0},
+                {".push_back(", ".add(", 0}, {"std::endl", "\"\\n\"", 0}, {"std::string", "String", 0}};
+        REEMPLAZOS[CPP][JS] = new Object[][]{
+                {"std::to_string(", "String(", 0}, {"std::stoi(", "parseInt(", 0}, {"std::stod(", "parseFloat(", 0},
+                {"std::sqrt(", "Math.sqrt(", 0}, {"std::pow(", "Math.pow(", 0}, {"std::abs(", "Math.abs(", 0},
+                {"std::floor(", "Math.floor(", 0}, {"std::ceil(", "Math.ceil(", 0}, {"std::max(", "Math.max(", 0},
+                {"std::min(", "Math.min(", 0}, {"sqrt(", "Math.sqrt(", 0}, {"pow(", "Math.pow(", 0},
+                {"nullptr", "null", 0}, {"NULL", "null", 0}, {"this->", "this.", 0}, {".push_back(", ".push(", 0},
+                {".size()", ".length", 0}, {".length()", ".length", 0}, {"std::endl", "\"\\n\"", 0}};
+        REEMPLAZOS[JS][JAVA] = new Object[][]{
+                {"===", "==", 0}, {"!==", "!=", 0}, {"String(", "String.valueOf(", 0},
+                {"parseInt(", "Integer.parseInt(", 0}, {"parseFloat(", "Double.parseDouble(", 0}, {".push(", ".add(", 0},
+                {"undefined", "null", 0}};
+        REEMPLAZOS[JS][CPP] = new Object[][]{
+                {"===", "==", 0}, {"!==", "!=", 0}, {"String(", "std::to_string(", STRING},
+                {"parseInt(", "std::stoi(", STRING}, {"parseFloat(", "std::stod(", STRING}, {"Math.sqrt(", "std::sqrt(", CMATH},
+                {"Math.pow(", "std::pow(", CMATH}, {"Math.abs(", "std::abs(", CMATH}, {"Math.floor(", "std::floor(", CMATH},
+                {"Math.ceil(", "std::ceil(", CMATH}, {"Math.max(", "std::max(", ALGORITHM}, {"Math.min(", "std::min(", ALGORITHM},
+                {"null", "nullptr", 0}, {"undefined", "nullptr", 0}, {"this.", "this->", 0}, {".push(", ".push_back(", 0},
+                {".length", ".size()", 0}};
+    }
+
+    private final ArbolSintactico arbol;
+    private final String codigo;
+    private final int origen;
+    private final int destino;
+    private final ErroresTraduccion errores;
+    private final Object[][] reemplazos;
+    private final boolean[] encabezados = new boolean[ENCABEZADOS.length];
+    private final List<String> prototipos = new ArrayList<>();
+    private StringBuilder salida;
+    private int nivel;
+
+    private final List<Integer> sueltas = new ArrayList<>(); // Sentencias del nivel superior que van a main
+    private final List<Integer> diferidas = new ArrayList<>(); // main de clases que no se aplanan
+    private int cuerpoPrincipal = -1; // Bloque del main que se está emitiendo
+
+    public EmisorCodigo(ArbolSintactico arbol, String codigo, int origen, int destino, ErroresTraduccion errores) {
+        this.arbol = arbol;
+        this.codigo = codigo;
+        this.origen = origen;
+        this.destino = destino;
+        this.errores = errores;
+        this.reemplazos = REEMPLAZOS[origen][destino];
+    }
+
+    /*Código en el idioma destino para el árbol con raíz en el nodo dado; cada línea termina en '\n'.*/
+    public String emitir(int raiz) {
+        salida = new StringBuilder(codigo.length() + codigo.length() / 4);
+        boolean hayPrincipal = false;
+        for (int nodo = 0; nodo < arbol.nodos; nodo++) {
+            hayPrincipal |= arbol.tipo[nodo] == ArbolSintactico.FUNCION && arbol.tieneMarca(nodo, ArbolSintactico.PRINCIPAL);
+        }
+        for (int hijo = arbol.primerHijo[raiz]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+            if (esSuelta(hijo) && !esLlamadaPrincipal(hijo)) {
+                sueltas.add(hijo);
+            }
+        }
+
+        if (destino == JAVA) {
+            salida.append("\npublic class Main {");
+            nivel = 1;
+        }
+        elementos(raiz, -1);
+        if (!sueltas.isEmpty() && !hayPrincipal) {
+            salida.append('\n');
+            encabezadoPrincipal();
+            salida.append(" {");
+            nivel++;
+            for (int suelta : sueltas) {
+                sentencia(suelta);
+            }
+            nivel--;
+            linea("}");
+            hayPrincipal = true;
+        }
+        if (destino == JAVA) {
+            nivel = 0;
+            linea("}");
+        } else if (destino == JS && hayPrincipal) {
+            salida.append('\n');
+            linea("main();");
+        }
+        salida.append('\n');
+
+        int inicio = salida.charAt(0) == '\n' ? 1 : 0;
+        if (destino != CPP) {
+            return salida.substring(inicio);
+        }
+        StringBuilder resultado = new StringBuilder(salida.length() + 256);
+        encabezados[0] = true;
+        for (int i = 0; i < ENCABEZADOS.length; i++) {
+            if (encabezados[i]) {
+                resultado.append("#include ").append(ENCABEZADOS[i]).append('\n');
+            }
+        }
+        if (!prototipos.isEmpty()) {
+            resultado.append('\n');
+            for (String prototipo : prototipos) {
+                resultado.append(prototipo).append(";\n");
+            }
+        }
+        resultado.append('\n').append(salida, inicio, salida.length());
+        return resultado.toString();
+    }
+
+    // Elementos del programa o de una clase aplanada: funciones y variables globales, clases y comentarios
+    private void elementos(int padre, int clase) {
+        int anterior = -1;
+        for (int hijo = arbol.primerHijo[padre]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+            int tipo = arbol.tipo[hijo];
+            if (tipo == ArbolSintactico.DIRECTIVA || esSuelta(hijo) || esLlamadaPrincipal(hijo)
+                    || (tipo == ArbolSintactico.FUNCION && arbol.tieneMarca(hijo, ArbolSintactico.PROTOTIPO))) {
+                continue;
+            }
+            separar(anterior, hijo);
+            anterior = hijo;
+            if (tipo == ArbolSintactico.COMENTARIO) {
+                comentario(hijo);
+            } else if (tipo == ArbolSintactico.CLASE) {
+                clase(hijo);
+            } else if (tipo == ArbolSintactico.FUNCION) {
+                funcion(hijo, -1);
+            } else if (tipo == ArbolSintactico.DECLARACION) {
+                linea();
+                declaracion(hijo, true, clase == -1 && destino == JAVA);
+                salida.append(';');
+            } else {
+                sentencia(hijo);
+            }
+        }
+    }
+
+    // Deja una línea en blanco entre dos elementos si en el código fuente había al menos una
+    private void separar(int anterior, int nodo) {
+        if (anterior != -1 && arbol.hasta[anterior] > 0 && arbol.desde[nodo] < arbol.tokens
+                && arbol.tokenLinea[arbol.desde[nodo]] > arbol.tokenLinea[arbol.hasta[anterior] - 1] + 1) {
+            salida.append('\n');
+        }
+    }
+
+    // Sentencia del nivel superior de JS que no es una declaración: se ejecuta desde main
+    private boolean esSuelta(int nodo) {
+        if (origen != JS || destino == JS) {
+            return false;
+        }
+        int tipo = arbol.tipo[nodo];
+        return tipo != ArbolSintactico.COMENTARIO && tipo != ArbolSintactico.DIRECTIVA && tipo != ArbolSintactico.CLASE
+                && tipo != ArbolSintactico.FUNCION && tipo != ArbolSintactico.DECLARACION;
+    }
+
+    // Llamada "main()" del nivel superior de JS, que en el destino hace el punto de entrada
+    private boolean esLlamadaPrincipal(int nodo) {
+        int desde = arbol.desde[nodo];
+        return origen == JS && arbol.tipo[nodo] == ArbolSintactico.EXPRESION && arbol.hasta[nodo] - desde == 3
+                && es(desde, "main") && es(desde + 1, "(") && es(desde + 2, ")");
+    }
+
+    private void comentario(int nodo) {
+        int token = arbol.desde[nodo];
+        String texto = codigo.substring(arbol.tokenInicio[token], arbol.tokenFin[token]).trim();
+        if (arbol.tieneMarca(nodo, ArbolSintactico.MISMA_LINEA) && salida.length() > 0 && salida.charAt(salida.length() - 1) != '\n') {
+            salida.append(' ').append(texto);
+        } else {
+            // Las líneas interiores de un comentario de bloque conservan un espacio de alineación
+            linea(texto.startsWith("/") ? texto : " " + texto);
+        }
+    }
+
+    /*
+     * Una clase de Java cuyos miembros son todos static se aplana en funciones y variables globales al pasar
+     * a C++ o JS; las demás se emiten como clases y su main, si lo tienen, queda fuera como función global.
+     */
+    private void clase(int nodo) {
+        if (destino != JAVA && origen == JAVA && esAplanable(nodo)) {
+            elementos(nodo, nodo);
+            return;
+        }
+        String nombre = texto(arbol.nombre[nodo]);
+        String base = claseBase(nodo);
+        if (destino == JAVA) {
+            linea("static class " + nombre + (base != null ? " extends " + base : "") + " {");
+        } else if (destino == CPP) {
+            linea("class " + nombre + (base != null ? " : public " + base : "") + " {");
+            linea("public:");
+        } else {
+            linea("class " + nombre + (base != null ? " extends " + base : "") + " {");
+        }
+        nivel++;
+        int anterior = -1;
+        for (int hijo = arbol.primerHijo[nodo]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+            int tipo = arbol.tipo[hijo];
+            if (tipo == ArbolSintactico.DIRECTIVA
+                    || (tipo == ArbolSintactico.FUNCION && arbol.tieneMarca(hijo, ArbolSintactico.PROTOTIPO))) {
+                continue;
+            }
+            if (tipo == ArbolSintactico.FUNCION && arbol.tieneMarca(hijo, ArbolSintactico.PRINCIPAL) && destino != JAVA) {
+                diferidas.add(hijo);
+                continue;
+            }
+            separar(anterior, hijo);
+            anterior = hijo;
+            if (tipo == ArbolSintactico.COMENTARIO) {
+                comentario(hijo);
+            } else if (tipo == ArbolSintactico.FUNCION) {
+                funcion(hijo, nodo);
+            } else if (tipo == ArbolSintactico.DECLARACION) {
+                linea();
+                campo(hijo);
+                salida.append(';');
+            } else if (tipo == ArbolSintactico.EXPRESION && origen == JS && destino != JS) {
+                // Campo de una clase de JS: "nombre = valor"
+                linea();
+                int desde = arbol.desde[hijo];
+                int igual = buscar(desde, arbol.hasta[hijo], "=");
+                salida.append(igual == -1 ? tipoIndefinido(true) : tipoDeValor(igual + 1, arbol.hasta[hijo], true)).append(' ');
+                expresion(desde, arbol.hasta[hijo]);
+                salida.append(';');
+            } else if (tipo == ArbolSintactico.CLASE) {
+                error(hijo, CodigoError.CLASE_ANIDADA);
+            } else {
+                sentencia(hijo);
+            }
+        }
+        nivel--;
+        linea(destino == CPP ? "};" : "}");
+        while (!diferidas.isEmpty()) {
+            salida.append('\n');
+            funcion(diferidas.remove(0), -1);
+        }
+    }
+
+    private boolean esAplanable(int clase) {
+        for (int hijo = arbol.primerHijo[clase]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+            int tipo = arbol.tipo[hijo];
+            if (tipo == ArbolSintactico.CLASE || ((tipo == ArbolSintactico.FUNCION || tipo == ArbolSintactico.DECLARACION)
+                    && !arbol.tieneMarca(hijo, ArbolSintactico.ESTATICO))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Nombre de la clase base (extends de Java y JS, ": public" de C++), o null
+    private String claseBase(int clase) {
+        boolean despues = false;
+        for (int k = arbol.nombre[clase] + 1; k < arbol.tokens && !es(k, "{"); k++) {
+            if (es(k, "extends") || es(k, ":")) {
+                despues = true;
+            } else if (despues && arbol.tokenTipo[k] == AnalizadorLexico.IDENTIFICADOR
+                    && !es(k, "public") && !es(k, "private") && !es(k, "protected") && !es(k, "virtual")) {
+                return texto(k);
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Función o método. clase es el nodo CLASE si es un miembro que se emite dentro de una clase, o -1 si queda
+     * como función global (incluidas las de las clases aplanadas).
+     */
+    private void funcion(int nodo, int clase) {
+        int nombre = arbol.nombre[nodo];
+        boolean principal = arbol.tieneMarca(nodo, ArbolSintactico.PRINCIPAL) && clase == -1;
+        boolean constructor = arbol.tieneMarca(nodo, ArbolSintactico.CONSTRUCTOR);
+        boolean estatico = arbol.tieneMarca(nodo, ArbolSintactico.ESTATICO);
+        if (principal) {
+            encabezadoPrincipal();
+        } else {
+            linea();
+            int inicioEncabezado = salida.length();
+            if (destino == JAVA) {
+                salida.append(clase == -1 || estatico ? "public static " : "public ");
+            } else if (destino == CPP && clase != -1 && estatico) {
+                salida.append("static ");
+            } else if (destino == JS && clase == -1) {
+                salida.append("function ");
+            } else if (destino == JS && estatico) {
+                salida.append("static ");
+            }
+            if (constructor) {
+                salida.append(destino == JS ? "constructor" : texto(arbol.nombre[clase]));
+            } else {
+                if (destino != JS) {
+                    salida.append(tipoRetorno(nodo)).append(' ');
+                }
+                salida.append(texto(nombre));
+            }
+            // En C++ los valores por defecto van solo en el prototipo
+            boolean prototipo = destino == CPP && clase == -1 && !tipoRetorno(nodo).equals("auto");
+            int inicioParametros = salida.length();
+            parametros(nodo, true);
+            if (prototipo) {
+                prototipos.add(salida.substring(inicioEncabezado));
+                salida.setLength(inicioParametros);
+                parametros(nodo, false);
+            }
+        }
+        int cuerpo = arbol.ultimoHijo[nodo];
+        int anteriorPrincipal = cuerpoPrincipal;
+        cuerpoPrincipal = principal ? cuerpo : -1;
+        salida.append(" {");
+        nivel++;
+        if (principal) {
+            for (int suelta : sueltas) {
+                sentencia(suelta);
+            }
+        }
+        contenido(cuerpo);
+        nivel--;
+        linea("}");
+        cuerpoPrincipal = anteriorPrincipal;
+    }
+
+    private void encabezadoPrincipal() {
+        if (destino == JAVA) {
+            linea("public static void main(String[] args)");
+        } else if (destino == CPP) {
+            linea("int main()");
+        } else {
+            linea("function main()");
+        }
+    }
+
+    private String tipoRetorno(int funcion) {
+        if (origen == JS) {
+            return retornaValor(funcion) ? tipoIndefinido(true) : "void";
+        }
+        return mapearTipo(textoTipo(arbol.desde[funcion], arbol.nombre[funcion]), false);
+    }
+
+    private boolean retornaValor(int nodo) {
+        if (arbol.tipo[nodo] == ArbolSintactico.RETORNO && arbol.primerHijo[nodo] != -1) {
+            return true;
+        }
+        for (int hijo = arbol.primerHijo[nodo]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+            if (arbol.tipo[hijo] != ArbolSintactico.FUNCION && retornaValor(hijo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void parametros(int funcion, boolean conValores) {
+        salida.append('(');
+        boolean primero = true;
+        for (int hijo = arbol.primerHijo[funcion]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+            if (arbol.tipo[hijo] == ArbolSintactico.PARAMETRO) {
+                if (!primero) {
+                    salida.append(", ");
+                }
+                parametro(hijo, conValores);
+                primero = false;
+            }
+        }
+        salida.append(')');
+    }
+
+    private void parametro(int nodo, boolean conValores) {
+        int desde = arbol.desde[nodo];
+        int nombre = arbol.nombre[nodo];
+        int valor = arbol.primerHijo[nodo];
+        if (destino != JS) {
+            String tipo;
+            if (origen == JS) {
+                tipo = tipoIndefinido(true);
+            } else {
+                tipo = textoTipo(desde, nombre);
+                int fin = valor == -1 ? arbol.hasta[nodo] : arbol.desde[valor] - 1;
+                for (int k = nombre + 1; k < fin; k++) {
+                    if (es(k, "[")) {
+                        tipo += "[]";
+                    }
+                }
+                tipo = mapearTipo(tipo, false);
+            }
+            salida.append(tipo).append(' ');
+        }
+        salida.append(texto(nombre));
+        if (valor != -1 && destino != JAVA && conValores) {
+            salida.append(" = ");
+            expresion(arbol.desde[valor], arbol.hasta[valor]);
+        }
+    }
+
+    // Sentencias de un bloque, sin las llaves
+    private void contenido(int bloque) {
+        int anterior = -1;
+        for (int hijo = arbol.primerHijo[bloque]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+            if (arbol.tipo[hijo] == ArbolSintactico.VACIO) {
+                continue;
+            }
+            separar(anterior, hijo);
+            anterior = hijo;
+            sentencia(hijo);
+        }
+    }
+
+    private void sentencia(int nodo) {
+        switch (arbol.tipo[nodo]) {
+            case ArbolSintactico.COMENTARIO:
+                comentario(nodo);
+                break;
+            case ArbolSintactico.BLOQUE:
+                linea("{");
+                nivel++;
+                contenido(nodo);
+                nivel--;
+                linea("}");
+                break;
+            case ArbolSintactico.DECLARACION:
+                linea();
+                declaracion(nodo, false, false);
+                salida.append(';');
+                break;
+            case ArbolSintactico.IMPRIMIR:
+                linea();
+                imprimir(nodo);
+                salida.append(';');
+                break;
+            case ArbolSintactico.SI:
+                linea();
+                si(nodo);
+                break;
+            case ArbolSintactico.MIENTRAS:
+                linea("while (");
+                expresion(arbol.primerHijo[nodo]);
+                salida.append(')');
+                cuerpo(arbol.siguiente[arbol.primerHijo[nodo]]);
+                break;
+            case ArbolSintactico.HACER:
+                linea("do");
+                cuerpo(arbol.primerHijo[nodo]);
+                salida.append(" while (");
+                expresion(arbol.siguiente[arbol.primerHijo[nodo]]);
+                salida.append(");");
+                break;
+            case ArbolSintactico.PARA:
+                para(nodo);
+                break;
+            case ArbolSintactico.PARA_CADA:
+                paraCada(nodo);
+                break;
+            case ArbolSintactico.SELECCION:
+                linea("switch (");
+                expresion(arbol.primerHijo[nodo]);
+                salida.append(") {");
+                nivel++;
+                for (int hijo = arbol.primerHijo[arbol.ultimoHijo[nodo]]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+                    if (arbol.tipo[hijo] == ArbolSintactico.ETIQUETA) {
+                        linea();
+                        expresion(arbol.desde[hijo], arbol.hasta[hijo]);
+                        salida.append(':');
+                    } else if (arbol.tipo[hijo] != ArbolSintactico.VACIO) {
+                        nivel++;
+                        sentencia(hijo);
+                        nivel--;
+                    }
+                }
+                nivel--;
+                linea("}");
+                break;
+            case ArbolSintactico.ETIQUETA:
+                linea();
+                expresion(arbol.desde[nodo], arbol.hasta[nodo]);
+                salida.append(':');
+                break;
+            case ArbolSintactico.RETORNO:
+                retorno(nodo);
+                break;
+            case ArbolSintactico.EXPRESION:
+                linea();
+                expresion(nodo);
+                salida.append(';');
+                break;
+            case ArbolSintactico.FUNCION:
+                if (destino == JS) {
+                    funcion(nodo, -1);
+                } else {
+                    error(nodo, CodigoError.FUNCION_ANIDADA);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void si(int nodo) {
+        int condicion = arbol.primerHijo[nodo];
+        int entonces = arbol.siguiente[condicion];
+        int sino = arbol.siguiente[entonces];
+        salida.append("if (");
+        expresion(condicion);
+        salida.append(')');
+        cuerpo(entonces);
+        if (sino != -1) {
+            salida.append(" else");
+            if (arbol.tipo[sino] == ArbolSintactico.SI) {
+                salida.append(' ');
+                si(sino);
+            } else {
+                cuerpo(sino);
+            }
+        }
+    }
+
+    // Cuerpo de una sentencia de control, siempre entre llaves
+    private void cuerpo(int nodo) {
+        salida.append(" {");
+        nivel++;
+        if (arbol.tipo[nodo] == ArbolSintactico.BLOQUE) {
+            contenido(nodo);
+        } else if (arbol.tipo[nodo] != ArbolSintactico.VACIO) {
+            sentencia(nodo);
+        }
+        nivel--;
+        linea("}");
+    }
+
+    private void para(int nodo) {
+        int inicializacion = arbol.primerHijo[nodo];
+        int condicion = arbol.siguiente[inicializacion];
+        int actualizacion = arbol.siguiente[condicion];
+        linea("for (");
+        if (arbol.tipo[inicializacion] == ArbolSintactico.DECLARACION) {
+            declaracion(inicializacion, false, false);
+        } else if (arbol.tipo[inicializacion] == ArbolSintactico.EXPRESION) {
+            expresion(inicializacion);
+        }
+        salida.append(';');
+        if (arbol.tipo[condicion] == ArbolSintactico.EXPRESION) {
+            salida.append(' ');
+            expresion(condicion);
+        }
+        salida.append(';');
+        if (arbol.tipo[actualizacion] == ArbolSintactico.EXPRESION) {
+            salida.append(' ');
+            expresion(actualizacion);
+        }
+        salida.append(')');
+        cuerpo(arbol.siguiente[actualizacion]);
+    }
+
+    private void paraCada(int nodo) {
+        int coleccion = arbol.primerHijo[nodo];
+        linea("for (");
+        if (destino == JS) {
+            salida.append(arbol.tieneMarca(nodo, ArbolSintactico.CONSTANTE) || origen != JS ? "const " : "let ");
+        } else if (origen == JS) {
+            salida.append(destino == JAVA ? "var " : "auto ");
+        } else {
+            if (arbol.tieneMarca(nodo, ArbolSintactico.CONSTANTE)) {
+                salida.append(destino == JAVA ? "final " : "const ");
+            }
+            salida.append(mapearTipo(textoTipo(arbol.desde[nodo], arbol.nombre[nodo]), true)).append(' ');
+        }
+        salida.append(texto(arbol.nombre[nodo])).append(destino == JS ? " of " : " : ");
+        expresion(coleccion);
+        salida.append(')');
+        cuerpo(arbol.siguiente[coleccion]);
+    }
+
+    /*
+     * return. Dentro de main se ajusta al tipo del main destino: en Java y JS main no devuelve nada (un return
+     * con valor al final de main se quita) y en C++ devuelve int.
+     */
+    private void retorno(int nodo) {
+        int valor = arbol.primerHijo[nodo];
+        boolean enPrincipal = cuerpoPrincipal != -1;
+        if (enPrincipal && destino != CPP && valor != -1) {
+            if (nodo != arbol.ultimoHijo[cuerpoPrincipal]) {
+                linea("return;");
+            }
+            return;
+        }
+        if (enPrincipal && destino == CPP && valor == -1) {
+            linea("return 0;");
+            return;
+        }
+        linea("return");
+        if (valor != -1) {
+            salida.append(' ');
+            expresion(valor);
+        }
+        salida.append(';');
+    }
+
+    /*
+     * Declaración de variables sin el ';'. Si es un campo (global o de clase) en Java no se puede usar var, y
+     * estatico agrega static (variables globales dentro de Main).
+     */
+    private void declaracion(int nodo, boolean campo, boolean estatico) {
+        int nombre = arbol.nombre[nodo];
+        int hasta = arbol.hasta[nodo];
+        boolean constante = arbol.tieneMarca(nodo, ArbolSintactico.CONSTANTE);
+        boolean lista = false;
+        if (destino == JS) {
+            salida.append(constante ? "const " : "let ");
+        } else {
+            if (estatico || (destino == JAVA && arbol.tieneMarca(nodo, ArbolSintactico.ESTATICO))) {
+                salida.append("static ");
+            }
+            if (constante) {
+                salida.append(destino == JAVA ? "final " : "const ");
+            }
+            if (origen == JS) {
+                int igual = buscar(nombre, hasta, "=");
+                salida.append(igual == -1 ? tipoIndefinido(campo) : tipoDeValor(igual + 1, hasta, campo));
+            } else {
+                String tipo = mapearTipo(textoTipo(arbol.desde[nodo], nombre), !campo);
+                lista = tipo.startsWith("java.util.");
+                salida.append(tipo);
+            }
+            salida.append(' ');
+        }
+        declaradores(nombre, hasta, lista);
+    }
+
+    // Campo de una clase que no se aplana
+    private void campo(int nodo) {
+        boolean estatico = arbol.tieneMarca(nodo, ArbolSintactico.ESTATICO);
+        if (destino == JS) {
+            if (estatico) {
+                salida.append("static ");
+            }
+            declaradores(arbol.nombre[nodo], arbol.hasta[nodo], false);
+        } else if (destino == CPP && estatico) {
+            salida.append("inline ");
+            declaracion(nodo, true, false);
+        } else {
+            declaracion(nodo, true, false);
+        }
+    }
+
+    /*
+     * Nombres y valores iniciales de una declaración. En JS los arreglos de Java y C++ se inicializan con
+     * corchetes y pierden las dimensiones del nombre; al pasar de JS los corchetes se vuelven llaves. lista
+     * indica que el tipo es una colección de java.util, que no admite un inicializador entre llaves.
+     */
+    private void declaradores(int desde, int hasta, boolean lista) {
+        int k = desde;
+        while (k < hasta) {
+            int igual = -1;
+            int fin = k;
+            int profundidad = 0;
+            for (; fin < hasta; fin++) {
+                if (es(fin, "(") || es(fin, "[") || es(fin, "{")) {
+                    profundidad++;
+                } else if (es(fin, ")") || es(fin, "]") || es(fin, "}")) {
+                    profundidad--;
+                } else if (profundidad == 0 && es(fin, ",")) {
+                    break;
+                } else if (profundidad == 0 && igual == -1 && es(fin, "=")) {
+                    igual = fin;
+                }
+            }
+            int finNombre = igual == -1 ? fin : igual;
+            if (destino == JS) {
+                salida.append(texto(k));
+            } else {
+                expresion(k, finNombre);
+            }
+            if (igual != -1) {
+                salida.append(" = ");
+                int valor = siguiente(igual + 1, fin);
+                int cierra = valor < fin ? cierreEn(valor, fin) : -1;
+                boolean llaves = es(valor, "{") && cierra == fin - 1;
+                boolean corchetes = es(valor, "[") && cierra == fin - 1;
+                if (destino == JS && llaves) {
+                    salida.append('[');
+                    expresion(valor + 1, cierra);
+                    salida.append(']');
+                } else if (origen == JS && corchetes) {
+                    salida.append('{');
+                    expresion(valor + 1, cierra);
+                    salida.append('}');
+                } else if (lista && llaves) {
+                    salida.append("new java.util.ArrayList<>(java.util.List.of(");
+                    expresion(valor + 1, cierra);
+                    salida.append("))");
+                } else {
+                    expresion(valor, fin);
+                }
+            }
+            if (fin < hasta) {
+                salida.append(", ");
+            }
+            k = siguiente(fin + 1, hasta);
+        }
+    }
+
+    /*
+     * Impresión por la salida estándar. Al pasar de Java o JS a C++ una concatenación con '+' se divide en
+     * términos de '<<' a partir de la primera cadena (lo anterior se suma antes, como en el original); al
+     * pasar de C++ los términos se concatenan con '+', empezando por "" si el primero no es una cadena.
+     */
+    private void imprimir(int nodo) {
+        List<int[]> terminos = new ArrayList<>();
+        for (int hijo = arbol.primerHijo[nodo]; hijo != -1; hijo = arbol.siguiente[hijo]) {
+            int desde = arbol.desde[hijo];
+            int hasta = arbol.hasta[hijo];
+            if (arbol.tieneMarca(hijo, ArbolSintactico.NUEVA_LINEA)) {
+                terminos.add(new int[]{-1, -1});
+            } else if (destino == CPP) {
+                if (!terminos.isEmpty()) {
+                    terminos.add(null); // Separador " " entre argumentos de console.log
+                }
+                dividirConcatenacion(desde, hasta, terminos);
+            } else {
+                if (!terminos.isEmpty() && origen == JS) {
+                    terminos.add(null);
+                }
+                terminos.add(new int[]{desde, hasta});
+            }
+        }
+        boolean nuevaLinea = arbol.tieneMarca(nodo, ArbolSintactico.NUEVA_LINEA);
+
+        if (destino == CPP) {
+            salida.append("std::cout");
+            for (int[] termino : terminos) {
+                salida.append(" << ");
+                terminoImpresion(termino, true);
+            }
+            if (nuevaLinea) {
+                salida.append(" << std::endl");
+            }
+            return;
+        }
+        String llamada;
+        if (destino == JAVA) {
+            llamada = nuevaLinea ? "System.out.println(" : "System.out.print(";
+        } else {
+            llamada = nuevaLinea ? "console.log(" : "process.stdout.write(String(";
+        }
+        salida.append(llamada);
+        if (terminos.size() > 1 && !esCadena(terminos.get(0))) {
+            salida.append("\"\" + ");
+        }
+        for (int i = 0; i < terminos.size(); i++) {
+            if (i > 0) {
+                salida.append(" + ");
+            }
+            terminoImpresion(terminos.get(i), terminos.size() > 1);
+        }
+        salida.append(destino == JS && !nuevaLinea ? "))" : ")");
+    }
+
+    /*
+     * Agrega los términos de una concatenación de Java o JS para cout. Los términos antes de la primera cadena
+     * quedan juntos (se suman como números); si no hay ninguna cadena la expresión queda entera.
+     */
+    private void dividirConcatenacion(int desde, int hasta, List<int[]> terminos) {
+        List<int[]> partes = new ArrayList<>();
+        int inicio = desde;
+        int profundidad = 0;
+        for (int k = desde; k <= hasta; k++) {
+            if (k == hasta || (profundidad == 0 && es(k, "+") && !es(k + 1, "+") && !es(k + 1, "=") && !es(k - 1, "+")
+                    && k > inicio)) {
+                partes.add(new int[]{inicio, k});
+                inicio = k + 1;
+            } else if (es(k, "(") || es(k, "[") || es(k, "{")) {
+                profundidad++;
+            } else if (es(k, ")") || es(k, "]") || es(k, "}")) {
+                profundidad--;
+            }
+        }
+        int primeraCadena = -1;
+        for (int i = 0; i < partes.size() && primeraCadena == -1; i++) {
+            if (esCadena(partes.get(i))) {
+                primeraCadena = i;
+            }
+        }
+        if (primeraCadena == -1) {
+            terminos.add(new int[]{desde, hasta});
+            return;
+        }
+        if (primeraCadena > 0) {
+            terminos.add(new int[]{partes.get(0)[0], partes.get(primeraCadena - 1)[1]});
+        }
+        for (int i = primeraCadena; i < partes.size(); i++) {
+            terminos.add(partes.get(i));
+        }
+    }
+
+    // Término de una impresión: null es el separador " ", {-1, -1} un salto de línea
+    private void terminoImpresion(int[] termino, boolean parentesis) {
+        if (termino == null) {
+            salida.append("\" \"");
+        } else if (termino[0] == -1) {
+            salida.append(destino == CPP ? "std::endl" : "\"\\n\"");
+        } else if (destino == CPP && origen == JS && termino[1] - termino[0] == 1
+                && arbol.tokenTipo[termino[0]] == AnalizadorLexico.CADENA) {
+            cadenaJs(termino[0], " << ");
+        } else if (parentesis && tieneOperador(termino[0], termino[1])) {
+            salida.append('(');
+            expresion(termino[0], termino[1]);
+            salida.append(')');
+        } else {
+            expresion(termino[0], termino[1]);
+        }
+    }
+
+    // Un solo literal de cadena entre comillas dobles (o el separador)
+    private boolean esCadena(int[] termino) {
+        if (termino == null || termino[0] == -1) {
+            return true;
+        }
+        int desde = siguiente(termino[0], termino[1]);
+        return termino[1] - desde == 1 && arbol.tokenTipo[desde] == AnalizadorLexico.CADENA
+                && (origen == JS || codigo.charAt(arbol.tokenInicio[desde]) != '\'');
+    }
+
+    // Operador binario de nivel 0 en el rango (sin contar '.', '::' ni los paréntesis)
+    private boolean tieneOperador(int desde, int hasta) {
+        int profundidad = 0;
+        for (int k = desde; k < hasta; k++) {
+            if (arbol.tokenTipo[k] != AnalizadorLexico.OPERADOR) {
+                continue;
+            }
+            char c = codigo.charAt(arbol.tokenInicio[k]);
+            if (c == '(' || c == '[' || c == '{') {
+                profundidad++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                profundidad--;
+            } else if (profundidad == 0 && k > desde && c != '.' && c != ':') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void expresion(int nodo) {
+        expresion(arbol.desde[nodo], arbol.hasta[nodo]);
+    }
+
+    /*
+     * Copia los tokens [desde, hasta) con los espacios originales entre ellos (varios espacios quedan en uno y
+     * un salto de línea continúa la expresión en la línea siguiente con sangría), aplicando los reemplazos
+     * del par y adaptando las cadenas de JS.
+     */
+    private void expresion(int desde, int hasta) {
+        for (int k = desde; k < hasta; k++) {
+            if (k > desde) {
+                int anterior = arbol.tokenFin[k - 1];
+                int inicio = arbol.tokenInicio[k];
+                if (arbol.tokenLinea[k] > arbol.tokenLinea[k - 1]) {
+                    salida.append('\n');
+                    sangria(nivel + 2);
+                } else if (inicio > anterior) {
+                    salida.append(' ');
+                }
+            }
+            int consumidos = reemplazar(k, hasta);
+            if (consumidos > 0) {
+                k += consumidos - 1;
+            } else if (arbol.tokenTipo[k] == AnalizadorLexico.CADENA && origen == JS && destino != JS) {
+                cadenaJs(k, " + ");
+            } else {
+                salida.append(codigo, arbol.tokenInicio[k], arbol.tokenFin[k]);
+            }
+        }
+    }
+
+    // Aplica el primer reemplazo del par que coincide en el token k y devuelve los tokens consumidos
+    private int reemplazar(int k, int hasta) {
+        if (reemplazos == null) {
+            return 0;
+        }
+        int tipo = arbol.tokenTipo[k];
+        if (tipo != AnalizadorLexico.IDENTIFICADOR && tipo != AnalizadorLexico.OPERADOR) {
+            return 0;
+        }
+        char primero = codigo.charAt(arbol.tokenInicio[k]);
+        for (Object[] reemplazo : reemplazos) {
+            String patron = (String) reemplazo[0];
+            if (patron.charAt(0) != primero) {
+                continue;
+            }
+            int consumidos = coincide(k, hasta, patron);
+            if (consumidos > 0) {
+                salida.append((String) reemplazo[1]);
+                encabezados[(Integer) reemplazo[2]] = true;
+                return consumidos;
+            }
+        }
+        return 0;
+    }
+
+    // Tokens consecutivos desde k que forman exactamente el patrón, o 0
+    private int coincide(int k, int hasta, String patron) {
+        if (AnalizadorLexico.esParteIdentificador(patron.charAt(0)) && k > 0
+                && (es(k - 1, ".") || esOperadorFlecha(k - 1) || es(k - 1, "new"))) {
+            return 0;
+        }
+        int posicion = 0;
+        int t = k;
+        while (posicion < patron.length()) {
+            if (t >= hasta || (t > k && arbol.tokenInicio[t] != arbol.tokenFin[t - 1])) {
+                return 0;
+            }
+            int inicio = arbol.tokenInicio[t];
+            int largo = arbol.tokenFin[t] - inicio;
+            if (posicion + largo > patron.length() || !codigo.regionMatches(inicio, patron, posicion, largo)) {
+                return 0;
+            }
+            posicion += largo;
+            t++;
+        }
+        return t - k;
+    }
+
+    private boolean esOperadorFlecha(int k) {
+        return k > 0 && es(k, ">") && es(k - 1, "-") && arbol.tokenInicio[k] == arbol.tokenFin[k - 1];
+    }
+
+    /*
+     * Cadena de JS en Java o C++: las comillas simples pasan a dobles y una plantilla `...${x}...` se vuelve
+     * una concatenación con union (" + ", o " << " dentro de un cout). Una plantilla que sigue en otra línea se
+     * copia sin cambios.
+     */
+    private void cadenaJs(int k, String union) {
+        int inicio = arbol.tokenInicio[k];
+        int fin = arbol.tokenFin[k];
+        char comilla = codigo.charAt(inicio);
+        if (comilla == '"' || fin - inicio < 2 || codigo.charAt(fin - 1) != comilla) {
+            salida.append(codigo, inicio, fin);
+            return;
+        }
+        if (comilla == '\'') {
+            salida.append('"');
+            agregarEscapado(inicio + 1, fin - 1);
+            salida.append('"');
+            return;
+        }
+        int i = inicio + 1;
+        boolean primero = true;
+        while (i < fin - 1) {
+            int interpolacion = codigo.indexOf("${", i);
+            int finTexto = interpolacion == -1 || interpolacion >= fin - 1 ? fin - 1 : interpolacion;
+            if (finTexto > i || (primero && union.equals(" + "))) {
+                if (!primero) {
+                    salida.append(union);
+                }
+                salida.append('"');
+                agregarEscapado(i, finTexto);
+                salida.append('"');
+                primero = false;
+            }
+            if (finTexto == fin - 1) {
+                break;
+            }
+            int cierra = codigo.indexOf('}', interpolacion);
+            if (cierra == -1 || cierra >= fin - 1) {
+                cierra = fin - 1;
+            }
+            if (!primero) {
+                salida.append(union);
+            }
+            salida.append('(').append(codigo, interpolacion + 2, cierra).append(')');
+            primero = false;
+            i = cierra + 1;
+        }
+        if (primero) {
+            salida.append("\"\"");
+        }
+    }
+
+    // Texto de una cadena de JS con las comillas dobles escapadas y \' y \` sin escapar
+    private void agregarEscapado(int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            char c = codigo.charAt(i);
+            if (c == '\\' && i + 1 < hasta && (codigo.charAt(i + 1) == '\'' || codigo.charAt(i + 1) == '`')) {
+                salida.append(codigo.charAt(++i));
+            } else if (c == '\\' && i + 1 < hasta) {
+                salida.append(c).append(codigo.charAt(++i));
+            } else if (c == '"') {
+                salida.append("\\\"");
+            } else if (c == '\n') {
+                salida.append("\\n");
+            } else {
+                salida.append(c);
+            }
+        }
+    }
+
+    /*
+     * Tipo de una variable de JS en Java o C++ deducido del valor inicial [desde, hasta): literales numéricos,
+     * cadenas, booleanos y arreglos de literales. Si no se puede deducir se usa var/auto.
+     */
+    private String tipoDeValor(int desde, int hasta, boolean campo) {
+        desde = siguiente(desde, hasta);
+        if (desde >= hasta) {
+            return tipoIndefinido(campo);
+        }
+        String literal = tipoLiteral(desde, hasta);
+        if (literal != null) {
+            return literal;
+        }
+        if (es(desde, "[")) {
+            int cierra = cierreEn(desde, hasta);
+            int elemento = siguiente(desde + 1, hasta);
+            if (cierra == hasta - 1 && elemento < cierra) {
+                int finElemento = elemento;
+                while (finElemento < cierra && !es(finElemento, ",")) {
+                    finElemento++;
+                }
+                String tipo = tipoLiteral(elemento, finElemento);
+                if (tipo != null) {
+                    if (destino == JAVA) {
+                        return tipo + "[]";
+                    }
+                    encabezados[VECTOR] = true;
+                    return "std::vector<" + tipo + ">";
+                }
+            }
+        }
+        return tipoIndefinido(campo);
+    }
+
+    private String tipoLiteral(int desde, int hasta) {
+        if (es(desde, "-") && desde + 1 < hasta) {
+            desde++;
+        }
+        if (hasta - desde != 1) {
+            return null;
+        }
+        int tipo = arbol.tokenTipo[desde];
+        if (tipo == AnalizadorLexico.NUMERO) {
+            String numero = texto(desde);
+            boolean decimal = !numero.startsWith("0x") && (numero.indexOf('.') >= 0 || numero.indexOf('e') >= 0);
+            return decimal ? "double" : "int";
+        } else if (tipo == AnalizadorLexico.CADENA) {
+            if (destino == JAVA) {
+                return "String";
+            }
+            encabezados[STRING] = true;
+            return "std::string";
+        } else if (es(desde, "true") || es(desde, "false")) {
+            return destino == JAVA ? "boolean" : "bool";
+        }
+        return null;
+    }
+
+    // Tipo de un valor de JS que no se puede deducir
+    private String tipoIndefinido(boolean campo) {
+        if (destino == CPP) {
+            return "auto";
+        }
+        return campo ? "Object" : "var";
+    }
+
+    /*
+     * Texto del tipo en los tokens [desde, hasta) sin modificadores ni comentarios, con un espacio solo entre
+     * dos nombres seguidos ("unsigned int").
+     */
+    private String textoTipo(int desde, int hasta) {
+        StringBuilder tipo = new StringBuilder();
+        boolean anteriorNombre = false;
+        for (int k = desde; k < hasta; k++) {
+            int tipoToken = arbol.tokenTipo[k];
+            if (tipoToken == AnalizadorLexico.COMENTARIO || es(k, "const") || es(k, "final") || es(k, "static")
+                    || es(k, "constexpr")) {
+                continue;
+            }
+            boolean nombre = tipoToken == AnalizadorLexico.IDENTIFICADOR;
+            if (nombre && anteriorNombre) {
+                tipo.append(' ');
+            }
+            tipo.append(codigo, arbol.tokenInicio[k], arbol.tokenFin[k]);
+            anteriorNombre = nombre;
+        }
+        return tipo.toString();
+    }
+
+    /*
+     * Traduce un tipo entre Java y C++ (los tipos de JS no pasan por aquí). local indica si se puede usar
+     * var/auto; en los campos, parámetros y retornos de Java se usa Object.
+     */
+    private String mapearTipo(String tipo, boolean local) {
+        if (destino == CPP) {
+            if (tipo.endsWith("[]")) {
+                encabezados[VECTOR] = true;
+                return "std::vector<" + mapearTipo(tipo.substring(0, tipo.length() - 2), local) + ">";
+            }
+            if (tipo.endsWith("...")) {
+                encabezados[VECTOR] = true;
+                return "std::vector<" + mapearTipo(tipo.substring(0, tipo.length() - 3), local) + ">";
+            }
+            int generico = tipo.indexOf('<');
+            if (generico > 0 && tipo.endsWith(">")) {
+                String base = tipo.substring(0, generico);
+                List<String> argumentos = argumentosGenericos(tipo.substring(generico + 1, tipo.length() - 1));
+                if (base.endsWith("List") && argumentos.size() == 1) {
+                    encabezados[VECTOR] = true;
+                    return "std::vector<" + mapearTipo(argumentos.get(0), local) + ">";
+                }
+                if (base.endsWith("Map") && argumentos.size() == 2) {
+                    encabezados[MAP] = true;
+                    return "std::map<" + mapearTipo(argumentos.get(0), local) + ", " + mapearTipo(argumentos.get(1), local) + ">";
+                }
+                return tipo;
+            }
+            switch (tipo) {
+                case "String":
+                    encabezados[STRING] = true;
+                    return "std::string";
+                case "boolean":
+                case "Boolean":
+                    return "bool";
+                case "Integer":
+                    return "int";
+                case "Character":
+                    return "char";
+                case "Double":
+                    return "double";
+                case "Long":
+                    return "long";
+                case "Float":
+                    return "float";
+                case "var":
+                case "Object":
+                    return "auto";
+                default:
+                    return tipo;
+            }
+        }
+        // C++ a Java: referencias y punteros no existen en Java
+        while (tipo.endsWith("&") || tipo.endsWith("*")) {
+            tipo = tipo.substring(0, tipo.length() - 1);
+        }
+        if (tipo.startsWith("std::")) {
+            tipo = tipo.substring(5);
+        }
+        int generico = tipo.indexOf('<');
+        if (generico > 0 && tipo.endsWith(">")) {
+            String base = tipo.substring(0, generico);
+            List<String> argumentos = argumentosGenericos(tipo.substring(generico + 1, tipo.length() - 1));
+            if (base.equals("vector") && argumentos.size() == 1) {
+                return "java.util.ArrayList<" + caja(mapearTipo(argumentos.get(0), false)) + ">";
+            }
+            if (base.equals("map") && argumentos.size() == 2) {
+                return "java.util.HashMap<" + caja(mapearTipo(argumentos.get(0), false)) + ", "
+                        + caja(mapearTipo(argumentos.get(1), false)) + ">";
+            }
+            return tipo;
+        }
+        switch (tipo) {
+            case "string":
+                return "String";
+            case "bool":
+                return "boolean";
+            case "auto":
+                return local ? "var" : "Object";
+            case "long long":
+            case "unsigned long":
+                return "long";
+            case "unsigned":
+            case "unsigned int":
+            case "size_t":
+                return "int";
+            default:
+                return tipo;
+        }
+    }
+
+    private static String caja(String tipo) {
+        switch (tipo) {
+            case "int":
+                return "Integer";
+            case "char":
+                return "Character";
+            case "boolean":
+                return "Boolean";
+            case "double":
+                return "Double";
+            case "long":
+                return "Long";
+            case "float":
+                return "Float";
+            case "var":
+                return "Object";
+            default:
+                return tipo;
+        }
+    }
+
+    // Argumentos de un tipo genérico separados por comas de nivel 0
+    private static List<String> argumentosGenericos(String texto) {
+        List<String> argumentos = new ArrayList<>();
+        int profundidad = 0;
+        int inicio = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '<') {
+                profundidad++;
+            } else if (c == '>') {
+                profundidad--;
+            } else if (c == ',' && profundidad == 0) {
+                argumentos.add(texto.substring(inicio, i).trim());
+                inicio = i + 1;
+            }
+        }
+        argumentos.add(texto.substring(inicio).trim());
+        return argumentos;
+    }
+
+    // '=' de nivel 0 en [desde, hasta), o -1
+    private int buscar(int desde, int hasta, String texto) {
+        int profundidad = 0;
+        for (int k = desde; k < hasta; k++) {
+            if (es(k, "(") || es(k, "[") || es(k, "{")) {
+                profundidad++;
+            } else if (es(k, ")") || es(k, "]") || es(k, "}")) {
+                profundidad--;
+            } else if (profundidad == 0 && es(k, texto) && !es(k + 1, "=")) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    // Cierre del '(', '[' o '{' de k antes de hasta, o -1
+    private int cierreEn(int k, int hasta) {
+        int profundidad = 0;
+        for (int i = k; i < hasta; i++) {
+            if (es(i, "(") || es(i, "[") || es(i, "{")) {
+                profundidad++;
+            } else if ((es(i, ")") || es(i, "]") || es(i, "}")) && --profundidad == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Primer token que no es comentario en [desde, hasta), o hasta
+    private int siguiente(int desde, int hasta) {
+        while (desde < hasta && arbol.tokenTipo[desde] == AnalizadorLexico.COMENTARIO) {
+            desde++;
+        }
+        return desde;
+    }
+
+    private void linea() {
+        salida.append('\n');
+        sangria(nivel);
+    }
+
+    private void linea(String texto) {
+        linea();
+        salida.append(texto);
+    }
+
+    private void sangria(int niveles) {
+        for (int i = 0; i < niveles; i++) {
+            salida.append("    ");
+        }
+    }
+
+    private boolean es(int i, String texto) {
+        if (i < 0 || i >= arbol.tokens) {
+            return false;
+        }
+        int inicio = arbol.tokenInicio[i];
+        return arbol.tokenFin[i] - inicio == texto.length() && codigo.startsWith(texto, inicio);
+    }
+
+    private String texto(int i) {
+        return codigo.substring(arbol.tokenInicio[i], arbol.tokenFin[i]);
+    }
+
+    private void error(int nodo, CodigoError codigo) {
+        errores.agregar(arbol.tokenLinea[Math.min(arbol.desde[nodo], arbol.tokens - 1)], codigo);
+    }
+}
@@ -0,0 +1,223 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * Errores de una traducción guardados como códigos y números de línea en arreglos de enteros.
+ * Se guardan como mucho limite errores, en el orden en que se informan; del resto solo se cuenta cuántos hay de
+ * cada código, y la lista termina con un error ERRORES_OMITIDOS que lo resume. Así un archivo con una línea
+ * 'error' tras otra ocupa la misma memoria sea cual sea su tamaño. Un error igual al anterior (mismo código,
+ * línea y detalle) no se repite.
+ *
+ * Como lista se comporta igual que la List de ErrorInfo que devolvía antes el traductor: cada ErrorInfo se crea
+ * al leerlo. El ReceptorErrores opcional recibe todos los errores a medida que se agregan.
+ */
+public class ErroresTraduccion extends AbstractList<Traductor.ErrorInfo> {
+
+    private static final CodigoError[] CODIGOS = CodigoError.values();
+
+    private static volatile int limitePredeterminado = 1000;
+
+    private final int limite;
+    private final ReceptorErrores receptor;
+    private int[] lineas = new int[8];
+    private byte[] codigos = new byte[8];
+    private String[] detalles; // Solo si algún error guardado tiene detalle
+    private int cantidad;
+    private final long[] totales = new long[CODIGOS.length]; // Guardados y omitidos, por código
+    private long omitidos;
+    private boolean soloContar; // Se unió una colección con errores omitidos: los siguientes ya no se guardan
+    // Último error agregado, para no repetirlo
+    private int ultimaLinea = -1;
+    private CodigoError ultimoCodigo;
+    private String ultimoDetalle;
+
+    public ErroresTraduccion() {
+        this(limitePredeterminado, null);
+    }
+
+    /**
+     * @param limite   Cantidad máxima de errores que se guardan.
+     * @param receptor Receptor de cada error a medida que se agrega, o null.
+     */
+    public ErroresTraduccion(int limite, ReceptorErrores receptor) {
+        this.limite = Math.max(0, limite);
+        this.receptor = receptor;
+    }
+
+    /*Límite de los ErroresTraduccion creados sin indicarlo, por ejemplo los de Traductor.traducir(String, ...).*/
+    public static void setLimitePredeterminado(int limite) {
+        limitePredeterminado = Math.max(0, limite);
+    }
+
+    public static int getLimitePredeterminado() {
+        return limitePredeterminado;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public ReceptorErrores getReceptor() {
+        return receptor;
+    }
+
+    public void agregar(int linea, CodigoError codigo) {
+        agregar(linea, codigo, null);
+    }
+
+    public void agregar(int linea, CodigoError codigo, String detalle) {
+        if (!codigo.tieneDetalle()) {
+            detalle = null;
+        }
+        if (linea == ultimaLinea && codigo == ultimoCodigo
+                && (detalle == null ? ultimoDetalle == null : detalle.equals(ultimoDetalle))) {
+            return;
+        }
+        ultimaLinea = linea;
+        ultimoCodigo = codigo;
+        ultimoDetalle = detalle;
+        totales[codigo.ordinal()]++;
+        if (receptor != null) {
+            receptor.error(linea, codigo, detalle);
+        }
+        if (cantidad < limite && !soloContar) {
+            guardar(linea, codigo, detalle);
+        } else {
+            omitidos++;
+        }
+        modCount++;
+    }
+
+    @Override
+    public boolean add(Traductor.ErrorInfo error) {
+        agregar(error.linea, error.codigo, error.detalle);
+        return true;
+    }
+
+    /*
+     * Agrega los errores de otra colección sumando desplazamiento a sus líneas. Los que la otra ya había omitido
+     * solo se cuentan, y el receptor no los recibe. Como esos omitidos van antes que todo lo que se agregue
+     * después, desde ese momento los errores siguientes solo se cuentan aunque quede lugar, igual que si todos
+     * se hubieran agregado en orden a una sola colección con el mismo límite.
+     */
+    public void agregarTodos(ErroresTraduccion otros, int desplazamiento) {
+        for (int i = 0; i < otros.cantidad; i++) {
+            agregar(otros.lineas[i] + desplazamiento, CODIGOS[otros.codigos[i]], otros.detalle(i));
+        }
+        if (otros.omitidos > 0) {
+            long[] guardados = new long[CODIGOS.length];
+            for (int i = 0; i < otros.cantidad; i++) {
+                guardados[otros.codigos[i]]++;
+            }
+            for (int c = 0; c < totales.length; c++) {
+                totales[c] += otros.totales[c] - guardados[c];
+            }
+            omitidos += otros.omitidos;
+            soloContar = true;
+            modCount++;
+        }
+    }
+
+    /*Ordena los errores guardados por línea, sin cambiar el orden de los de una misma línea.*/
+    public void ordenar() {
+        long[] claves = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            claves[i] = (long) lineas[i] << 32 | i;
+        }
+        Arrays.sort(claves);
+        int[] nuevasLineas = new int[lineas.length];
+        byte[] nuevosCodigos = new byte[codigos.length];
+        String[] nuevosDetalles = detalles == null ? null : new String[detalles.length];
+        for (int i = 0; i < cantidad; i++) {
+            int origen = (int) claves[i];
+            nuevasLineas[i] = lineas[origen];
+            nuevosCodigos[i] = codigos[origen];
+            if (nuevosDetalles != null) {
+                nuevosDetalles[i] = detalles[origen];
+            }
+        }
+        lineas = nuevasLineas;
+        codigos = nuevosCodigos;
+        detalles = nuevosDetalles;
+        modCount++;
+    }
+
+    /*Cantidad de errores informados, incluidos los omitidos.*/
+    public long getTotal() {
+        return cantidad + omitidos;
+    }
+
+    public long getOmitidos() {
+        return omitidos;
+    }
+
+    /*Cantidad de errores informados con el código, incluidos los omitidos.*/
+    public long getTotal(CodigoError codigo) {
+        return totales[codigo.ordinal()];
+    }
+
+    /*Líneas de los errores guardados con el código, en el orden en que se agregaron.*/
+    public int[] getLineas(CodigoError codigo) {
+        int[] resultado = new int[(int) Math.min(totales[codigo.ordinal()], cantidad)];
+        int n = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (codigos[i] == codigo.ordinal()) {
+                resultado[n++] = lineas[i];
+            }
+        }
+        return n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+    }
+
+    @Override
+    public Traductor.ErrorInfo get(int indice) {
+        if (indice < cantidad) {
+            return new Traductor.ErrorInfo(lineas[indice], CODIGOS[codigos[indice]], detalle(indice));
+        }
+        if (indice == cantidad && omitidos > 0) {
+            return new Traductor.ErrorInfo(0, CodigoError.ERRORES_OMITIDOS, Long.toString(omitidos));
+        }
+        throw new IndexOutOfBoundsException("Índice: " + indice + ", tamaño: " + size());
+    }
+
+    @Override
+    public int size() {
+        return omitidos > 0 ? cantidad + 1 : cantidad;
+    }
+
+    @Override
+    public void clear() {
+        cantidad = 0;
+        omitidos = 0;
+        soloContar = false;
+        detalles = null;
+        Arrays.fill(totales, 0);
+        ultimaLinea = -1;
+        ultimoCodigo = null;
+        ultimoDetalle = null;
+        modCount++;
+    }
+
+    private String detalle(int indice) {
+        return detalles == null ? null : detalles[indice];
+    }
+
+    private void guardar(int linea, CodigoError codigo, String detalle) {
+        if (cantidad == lineas.length) {
+            int capacidad = (int) Math.min((long) cantidad * 2, Math.max(limite, 8));
+            lineas = Arrays.copyOf(lineas, capacidad);
+            codigos = Arrays.copyOf(codigos, capacidad);
+            if (detalles != null) {
+                detalles = Arrays.copyOf(detalles, capacidad);
+            }
+        }
+        if (detalle != null && detalles == null) {
+            detalles = new String[lineas.length];
+        }
+        lineas[cantidad] = linea;
+        codigos[cantidad] = (byte) codigo.ordinal();
+        if (detalles != null) {
+            detalles[cantidad] = detalle;
+        }
+        cantidad++;
+    }
+}
@@ -0,0 +1,225 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector y utilidades JSON mínimos para el servidor y las métricas, sin dependencias externas.
+ * Los objetos se leen como LinkedHashMap, los arreglos como ArrayList, los números como Double y
+ * true/false/null como Boolean o null.
+ */
+public class Json {
+
+    // Anidamiento máximo de objetos y arreglos; el lector es recursivo y un documento más profundo agotaría la pila
+    static final int MAX_PROFUNDIDAD = 512;
+
+    private final String texto;
+    private int pos;
+    private int profundidad;
+
+    private Json(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Lee un documento JSON completo.
+     *
+     * @throws IllegalArgumentException Si el texto no es JSON válido o anida más de MAX_PROFUNDIDAD niveles.
+     */
+    public static Object leer(String texto) {
+        Json lector = new Json(texto);
+        Object valor = lector.valor();
+        lector.saltarEspacios();
+        if (lector.pos != texto.length()) {
+            throw lector.error("Contenido después del valor");
+        }
+        return valor;
+    }
+
+    /*Texto entre comillas con los caracteres especiales escapados para JSON.*/
+    public static String comillas(String texto) {
+        StringBuilder resultado = new StringBuilder(texto.length() + 2);
+        escribir(texto, resultado);
+        return resultado.toString();
+    }
+
+    /*Agrega a destino el texto entre comillas y escapado, sin crear cadenas intermedias.*/
+    public static void escribir(String texto, StringBuilder destino) {
+        destino.append('"');
+        int copiado = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\') {
+                continue;
+            }
+            destino.append(texto, copiado, i);
+            copiado = i + 1;
+            if (c == '"' || c == '\\') {
+                destino.append('\\').append(c);
+            } else if (c == '\n') {
+                destino.append("\\n");
+            } else if (c == '\r') {
+                destino.append("\\r");
+            } else if (c == '\t') {
+                destino.append("\\t");
+            } else {
+                destino.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        destino.append(texto, copiado, texto.length()).append('"');
+    }
+
+    private Object valor() {
+        saltarEspacios();
+        if (pos >= texto.length()) {
+            throw error("Fin inesperado");
+        }
+        char c = texto.charAt(pos);
+        if (c == '{' || c == '[') {
+            if (++profundidad > MAX_PROFUNDIDAD) {
+                throw error("Más de " + MAX_PROFUNDIDAD + " niveles de anidamiento");
+            }
+            Object valor = c == '{' ? objeto() : arreglo();
+            profundidad--;
+            return valor;
+        } else if (c == '"') {
+            return cadena();
+        } else if (texto.startsWith("true", pos)) {
+            pos += 4;
+            return Boolean.TRUE;
+        } else if (texto.startsWith("false", pos)) {
+            pos += 5;
+            return Boolean.FALSE;
+        } else if (texto.startsWith("null", pos)) {
+            pos += 4;
+            return null;
+        }
+        return numero();
+    }
+
+    private Map<String, Object> objeto() {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        pos++;
+        saltarEspacios();
+        if (consumir('}')) {
+            return objeto;
+        }
+        do {
+            saltarEspacios();
+            if (pos >= texto.length() || texto.charAt(pos) != '"') {
+                throw error("Se esperaba una clave");
+            }
+            String clave = cadena();
+            saltarEspacios();
+            if (!consumir(':')) {
+                throw error("Se esperaba ':'");
+            }
+            objeto.put(clave, valor());
+            saltarEspacios();
+        } while (consumir(','));
+        if (!consumir('}')) {
+            throw error("Se esperaba '}'");
+        }
+        return objeto;
+    }
+
+    private List<Object> arreglo() {
+        List<Object> arreglo = new ArrayList<>();
+        pos++;
+        saltarEspacios();
+        if (consumir(']')) {
+            return arreglo;
+        }
+        do {
+            arreglo.add(valor());
+            saltarEspacios();
+        } while (consumir(','));
+        if (!consumir(']')) {
+            throw error("Se esperaba ']'");
+        }
+        return arreglo;
+    }
+
+    private String cadena() {
+        pos++;
+        StringBuilder resultado = null;
+        int inicio = pos;
+        while (pos < texto.length()) {
+            char c = texto.charAt(pos);
+            if (c == '"') {
+                String valor = resultado == null ? texto.substring(inicio, pos) : resultado.append(texto, inicio, pos).toString();
+                pos++;
+                return valor;
+            }
+            if (c != '\\') {
+                pos++;
+                continue;
+            }
+            // Solo se copia carácter a carácter cuando la cadena tiene secuencias de escape.
+            if (resultado == null) {
+                resultado = new StringBuilder();
+            }
+            resultado.append(texto, inicio, pos);
+            if (pos + 1 >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(pos + 1);
+            pos += 2;
+            if (escape == 'n') {
+                resultado.append('\n');
+            } else if (escape == 't') {
+                resultado.append('\t');
+            } else if (escape == 'r') {
+                resultado.append('\r');
+            } else if (escape == 'b') {
+                resultado.append('\b');
+            } else if (escape == 'f') {
+                resultado.append('\f');
+            } else if (escape == 'u') {
+                if (pos + 4 > texto.length()) {
+                    throw error("Escape \\u incompleto");
+                }
+                try {
+                    resultado.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                } catch (NumberFormatException e) {
+                    throw error("Escape \\u inválido");
+                }
+                pos += 4;
+            } else {
+                resultado.append(escape);
+            }
+            inicio = pos;
+        }
+        throw error("Cadena sin cerrar");
+    }
+
+    private Double numero() {
+        int inicio = pos;
+        while (pos < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(pos)) != -1) {
+            pos++;
+        }
+        try {
+            return Double.valueOf(texto.substring(inicio, pos));
+        } catch (NumberFormatException e) {
+            throw error("Valor inesperado");
+        }
+    }
+
+    private boolean consumir(char c) {
+        if (pos < texto.length() && texto.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void saltarEspacios() {
+        while (pos < texto.length() && texto.charAt(pos) <= ' ') {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String mensaje) {
+        return new IllegalArgumentException("JSON inválido en la posición " + pos + ": " + mensaje);
+    }
+}
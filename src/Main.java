@@ -1,8 +1,30 @@
 public class Main {
     public static void main(String[] args) {
+        // Con --servidor se atienden traducciones por HTTP; el servidor mantiene viva la JVM.
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            MetricasTraductor.registrarJmx();
+            int codigo = ServidorTraduccion.ejecutar(args);
+            if (codigo != 0) {
+                System.exit(codigo);
+            }
+            return;
+        }
+        // Con otros argumentos se usa el modo por lotes, sin abrir la ventana. Es un proceso corto, así que no se
+        // registra JMX ni se carga ninguna clase de Swing o AWT.
+        if (args.length > 0) {
+            System.exit(TraductorLotes.ejecutar(args));
+        }
         javax.swing.SwingUtilities.invokeLater(new Runnable() {
             public void run() {
                 new VentanaTraductor();
+                // JMX carga cientos de clases; se registra en segundo plano cuando la ventana ya está visible.
+                Thread registro = new Thread(new Runnable() {
+                    public void run() {
+                        MetricasTraductor.registrarJmx();
+                    }
+                }, "registro-jmx");
+                registro.setDaemon(true);
+                registro.start();
             }
         });
     }
@@ -0,0 +1,277 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas del motor de traducción: traducciones, líneas y caracteres procesados, tiempo por fase (léxico,
+ * validación, recolección de errores y reescritura), reglas aplicadas por id y errores por CodigoError. Están
+ * siempre activas, así que el camino caliente no toma bloqueos: cada traducción acumula sus cifras en campos
+ * locales y las publica al terminar en contadores LongAdder. Las fases por línea se cronometran solo en una de
+ * cada 64 líneas y se extrapolan al total; las que se hacen una vez por traducción (la validación final, la
+ * unión de los errores de los trozos) se suman tal como se midieron.
+ *
+ * Se consultan por JMX (registrarJmx), con --metricas en el modo por lotes o con el botón Métricas de la ventana.
+ */
+public class MetricasTraductor implements MetricasTraductorMBean {
+
+    private static final String NOMBRE_JMX = "TraductorDeCodigo:type=Metricas";
+
+    // Se cronometran las líneas cuyo número de orden cumple (n & MASCARA_MUESTREO) == 0
+    static final int MASCARA_MUESTREO = 63;
+
+    // Fases cronometradas
+    static final int FASE_LEXICO = 0;
+    static final int FASE_VALIDACION = 1;
+    static final int FASE_ERRORES = 2;
+    static final int FASE_REESCRITURA = 3;
+    static final int CANTIDAD_FASES = 4;
+    private static final String[] NOMBRES_FASE = {"lexico", "validacion", "errores", "reescritura"};
+
+    private static final CodigoError[] CODIGOS = CodigoError.values();
+
+    public static final MetricasTraductor GLOBAL = new MetricasTraductor();
+
+    private final LongAdder traducciones = new LongAdder();
+    private final LongAdder lineas = new LongAdder();
+    private final LongAdder caracteres = new LongAdder();
+    private final LongAdder nanosTotal = new LongAdder();
+    private final LongAdder lineasConMuestreo = new LongAdder(); // Líneas de las traducciones que muestrean
+    private final LongAdder lineasMuestreadas = new LongAdder();
+    private final LongAdder[] nanosMuestreados = new LongAdder[CANTIDAD_FASES]; // Solo de las líneas muestreadas
+    private final LongAdder[] nanosMedidos = new LongAdder[CANTIDAD_FASES]; // Medidos completos, sin extrapolar
+    private final LongAdder[] errores = new LongAdder[CODIGOS.length];
+
+    private MetricasTraductor() {
+        for (int i = 0; i < CANTIDAD_FASES; i++) {
+            nanosMuestreados[i] = new LongAdder();
+            nanosMedidos[i] = new LongAdder();
+        }
+        for (int i = 0; i < errores.length; i++) {
+            errores[i] = new LongAdder();
+        }
+    }
+
+    /*Registra el MBean en el servidor de la plataforma; si ya estaba registrado no hace nada.*/
+    public static void registrarJmx() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(NOMBRE_JMX);
+            if (!servidor.isRegistered(nombre)) {
+                servidor.registerMBean(GLOBAL, nombre);
+            }
+        } catch (JMException e) {
+            System.err.println("No se pudieron registrar las métricas en JMX: " + e.getMessage());
+        }
+    }
+
+    /*Una llamada completa al motor: caracteres de entrada y tiempo total.*/
+    void registrarTraduccion(long caracteresEntrada, long nanos) {
+        traducciones.increment();
+        caracteres.add(caracteresEntrada);
+        nanosTotal.add(nanos);
+    }
+
+    /*Cifras acumuladas por una TraduccionEnCurso: nanosFases tiene el tiempo de cada fase en las líneas muestreadas.*/
+    void registrarLineas(long cantidad, long muestreadas, long[] nanosFases) {
+        lineas.add(cantidad);
+        lineasConMuestreo.add(cantidad);
+        if (muestreadas > 0) {
+            lineasMuestreadas.add(muestreadas);
+            for (int i = 0; i < CANTIDAD_FASES; i++) {
+                nanosMuestreados[i].add(nanosFases[i]);
+            }
+        }
+    }
+
+    /*Líneas de una traducción que mide sus fases completas con registrarFase, como el modo estructural.*/
+    void registrarLineas(long cantidad) {
+        lineas.add(cantidad);
+    }
+
+    /*Tiempo de una fase medido completo, que no se extrapola.*/
+    void registrarFase(int fase, long nanos) {
+        if (nanos > 0) {
+            nanosMedidos[fase].add(nanos);
+        }
+    }
+
+    void registrarErrores(CodigoError codigo, long cantidad) {
+        if (cantidad > 0) {
+            errores[codigo.ordinal()].add(cantidad);
+        }
+    }
+
+    /*Cuenta todos los errores de la colección, incluidos los que no guardó por el límite.*/
+    void registrarErrores(ErroresTraduccion lista) {
+        for (CodigoError codigo : CODIGOS) {
+            registrarErrores(codigo, lista.getTotal(codigo));
+        }
+    }
+
+    @Override
+    public long getTraducciones() {
+        return traducciones.sum();
+    }
+
+    @Override
+    public long getLineas() {
+        return lineas.sum();
+    }
+
+    @Override
+    public long getCaracteres() {
+        return caracteres.sum();
+    }
+
+    @Override
+    public long getNanosTotal() {
+        return nanosTotal.sum();
+    }
+
+    @Override
+    public long getNanosLexicoEstimado() {
+        return estimarFase(FASE_LEXICO);
+    }
+
+    @Override
+    public long getNanosValidacionEstimado() {
+        return estimarFase(FASE_VALIDACION);
+    }
+
+    @Override
+    public long getNanosErroresEstimado() {
+        return estimarFase(FASE_ERRORES);
+    }
+
+    @Override
+    public long getNanosReescrituraEstimado() {
+        return estimarFase(FASE_REESCRITURA);
+    }
+
+    @Override
+    public long getErroresValidacion() {
+        return getErrores(CodigoError.NO_ES_JAVA) + getErrores(CodigoError.NO_ES_CPP) + getErrores(CodigoError.NO_ES_JS);
+    }
+
+    @Override
+    public long getErroresPalabra() {
+        return getErrores(CodigoError.PALABRA_ERROR);
+    }
+
+    @Override
+    public long getErroresParNoSoportado() {
+        return getErrores(CodigoError.PAR_NO_SOPORTADO);
+    }
+
+    public long getErrores(CodigoError codigo) {
+        return errores[codigo.ordinal()].sum();
+    }
+
+    @Override
+    public String[] getErroresPorCodigo() {
+        List<String> resultado = new ArrayList<>();
+        for (CodigoError codigo : CODIGOS) {
+            long cantidad = getErrores(codigo);
+            if (cantidad > 0) {
+                resultado.add(codigo.name() + "=" + cantidad);
+            }
+        }
+        return resultado.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getReglasAplicadas() {
+        Map<String, Long> reglas = reglasAplicadas();
+        String[] resultado = new String[reglas.size()];
+        int i = 0;
+        for (Map.Entry<String, Long> regla : reglas.entrySet()) {
+            resultado[i++] = regla.getKey() + "=" + regla.getValue();
+        }
+        return resultado;
+    }
+
+    /*Veces que se aplicó cada regla, por id, en el orden del registro de idiomas.*/
+    public Map<String, Long> reglasAplicadas() {
+        Map<String, Long> reglas = new LinkedHashMap<>();
+        for (ParIdiomas par : RegistroIdiomas.pares()) {
+            if (par instanceof ReglasTraduccion) {
+                ((ReglasTraduccion) par).contarAplicaciones(reglas);
+            }
+        }
+        return reglas;
+    }
+
+    @Override
+    public String volcarJson() {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\n");
+        json.append("  \"traducciones\": ").append(getTraducciones()).append(",\n");
+        json.append("  \"lineas\": ").append(getLineas()).append(",\n");
+        json.append("  \"caracteres\": ").append(getCaracteres()).append(",\n");
+        json.append("  \"tiempos_ns\": {\n");
+        json.append("    \"total\": ").append(getNanosTotal()).append(",\n");
+        for (int i = 0; i < CANTIDAD_FASES; i++) {
+            json.append("    ").append(Json.comillas(NOMBRES_FASE[i] + "_estimado")).append(": ").append(estimarFase(i)).append(",\n");
+        }
+        json.append("    \"lineas_muestreadas\": ").append(lineasMuestreadas.sum()).append("\n");
+        json.append("  },\n");
+        json.append("  \"errores\": {");
+        for (int i = 0; i < errores.length; i++) {
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    ").append(Json.comillas(CODIGOS[i].name().toLowerCase(Locale.ROOT))).append(": ").append(errores[i].sum());
+        }
+        json.append("\n  },\n");
+        json.append("  \"reglas\": {");
+        boolean primera = true;
+        for (Map.Entry<String, Long> regla : reglasAplicadas().entrySet()) {
+            json.append(primera ? "\n" : ",\n");
+            json.append("    ").append(Json.comillas(regla.getKey())).append(": ").append(regla.getValue());
+            primera = false;
+        }
+        json.append(primera ? "}\n" : "\n  }\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    @Override
+    public void reiniciar() {
+        traducciones.reset();
+        lineas.reset();
+        caracteres.reset();
+        nanosTotal.reset();
+        lineasConMuestreo.reset();
+        lineasMuestreadas.reset();
+        for (int i = 0; i < CANTIDAD_FASES; i++) {
+            nanosMuestreados[i].reset();
+            nanosMedidos[i].reset();
+        }
+        for (LongAdder error : errores) {
+            error.reset();
+        }
+        for (ParIdiomas par : RegistroIdiomas.pares()) {
+            if (par instanceof ReglasTraduccion) {
+                ((ReglasTraduccion) par).reiniciarAplicaciones();
+            }
+        }
+    }
+
+    private long estimarFase(int fase) {
+        return extrapolar(nanosMuestreados[fase].sum()) + nanosMedidos[fase].sum();
+    }
+
+    // Pasa el tiempo de las líneas muestreadas a una estimación para todas las líneas
+    private long extrapolar(long nanosMuestreados) {
+        long muestreadas = lineasMuestreadas.sum();
+        if (muestreadas == 0) {
+            return 0;
+        }
+        return (long) ((double) nanosMuestreados * lineasConMuestreo.sum() / muestreadas);
+    }
+}
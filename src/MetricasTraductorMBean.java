@@ -0,0 +1,37 @@
+/**
+ * Interfaz JMX de MetricasTraductor (se ve en jconsole o VisualVM bajo "TraductorDeCodigo").
+ */
+public interface MetricasTraductorMBean {
+
+    long getTraducciones();
+
+    long getLineas();
+
+    long getCaracteres();
+
+    long getNanosTotal();
+
+    long getNanosLexicoEstimado();
+
+    long getNanosValidacionEstimado();
+
+    long getNanosErroresEstimado();
+
+    long getNanosReescrituraEstimado();
+
+    long getErroresValidacion();
+
+    long getErroresPalabra();
+
+    long getErroresParNoSoportado();
+
+    // Cada elemento tiene la forma "CODIGO=cantidad"; solo los códigos que aparecieron
+    String[] getErroresPorCodigo();
+
+    // Cada elemento tiene la forma "id=veces"
+    String[] getReglasAplicadas();
+
+    String volcarJson();
+
+    void reiniciar();
+}
@@ -0,0 +1,154 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Modelo de la tabla de errores respaldado directamente por una TraduccionIncremental.
+ * Solo guarda los índices de las líneas con error en un arreglo de enteros; el mensaje de cada fila se lee de la
+ * traducción cuando la tabla la pinta, así que con decenas de miles de errores no se crea ningún objeto por fila.
+ * Si el código no pasa la validación (o el par no está soportado) la tabla muestra ese único error.
+ * Mientras la traducción completa está en curso, agregarEnCurso muestra los errores a medida que aparecen;
+ * cargar los reemplaza al terminar.
+ */
+public class ModeloErrores extends AbstractTableModel {
+
+    private static final String[] COLUMNAS = {"Linea", "Error"};
+
+    private TraduccionIncremental traduccion;
+    private Traductor.ErrorInfo errorGeneral;
+    private int[] lineas = new int[16]; // Índices (desde 0) de las líneas con error, ordenados
+    private int cantidad;
+    private CodigoError[] codigosEnCurso = new CodigoError[16]; // Solo sin traducción cargada
+
+    /*Vuelve a leer todos los errores de la traducción.*/
+    public void cargar(TraduccionIncremental traduccion) {
+        this.traduccion = traduccion;
+        errorGeneral = null;
+        cantidad = 0;
+        if (!traduccion.esValido()) {
+            errorGeneral = traduccion.getErrores().get(0);
+        } else {
+            int total = traduccion.getCantidadLineas();
+            for (int i = 0; i < total; i++) {
+                if (traduccion.getError(i) != null) {
+                    agregar(cantidad, i);
+                }
+            }
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Actualiza las filas después de TraduccionIncremental.actualizar: quita las del rango anterior, desplaza las
+     * siguientes y agrega las del rango nuevo. Si cambió la validación o la tabla mostraba otra traducción se
+     * vuelve a cargar todo.
+     *
+     * @param traduccion Traducción ya actualizada.
+     * @param inicio     Índice de la primera línea del rango.
+     * @param anteriores Cantidad de líneas que ocupaba el rango antes de la edición.
+     * @param nuevas     Cantidad de líneas que ocupa ahora.
+     */
+    public void actualizar(TraduccionIncremental traduccion, int inicio, int anteriores, int nuevas) {
+        if (this.traduccion != traduccion || errorGeneral != null || !traduccion.esValido()) {
+            cargar(traduccion);
+            return;
+        }
+        // Las filas están ordenadas por línea: se quitan las del rango anterior y se desplazan las siguientes.
+        int primera = buscar(inicio);
+        int ultima = buscar(inicio + anteriores);
+        if (ultima > primera) {
+            System.arraycopy(lineas, ultima, lineas, primera, cantidad - ultima);
+            cantidad -= ultima - primera;
+            fireTableRowsDeleted(primera, ultima - 1);
+        }
+        int diferencia = nuevas - anteriores;
+        if (diferencia != 0 && primera < cantidad) {
+            for (int i = primera; i < cantidad; i++) {
+                lineas[i] += diferencia;
+            }
+            fireTableRowsUpdated(primera, cantidad - 1);
+        }
+        int insertadas = 0;
+        for (int i = inicio; i < inicio + nuevas; i++) {
+            if (traduccion.getError(i) != null) {
+                agregar(primera + insertadas++, i);
+            }
+        }
+        if (insertadas > 0) {
+            fireTableRowsInserted(primera, primera + insertadas - 1);
+        }
+    }
+
+    /*
+     * Agrega al final las filas de los errores que una traducción todavía en curso publicó juntos, con un solo
+     * evento para todo el grupo.
+     */
+    public void agregarEnCurso(List<Traductor.ErrorInfo> errores) {
+        if (traduccion != null || errorGeneral != null || errores.isEmpty()) {
+            return;
+        }
+        int primera = cantidad;
+        if (cantidad + errores.size() > codigosEnCurso.length) {
+            codigosEnCurso = Arrays.copyOf(codigosEnCurso, Math.max(cantidad * 2, cantidad + errores.size()));
+        }
+        for (Traductor.ErrorInfo error : errores) {
+            codigosEnCurso[cantidad] = error.codigo;
+            agregar(cantidad, error.linea - 1);
+        }
+        fireTableRowsInserted(primera, cantidad - 1);
+    }
+
+    public void limpiar() {
+        traduccion = null;
+        errorGeneral = null;
+        cantidad = 0;
+        Arrays.fill(codigosEnCurso, null);
+        fireTableDataChanged();
+    }
+
+    /*Número de línea (desde 1) del error de la fila indicada.*/
+    public int getLinea(int fila) {
+        return errorGeneral != null ? errorGeneral.linea : lineas[fila] + 1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return errorGeneral != null ? 1 : cantidad;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        if (columna == 0) {
+            return getLinea(fila);
+        }
+        if (errorGeneral != null) {
+            return errorGeneral.mensaje;
+        }
+        return traduccion != null ? traduccion.getError(lineas[fila]) : codigosEnCurso[fila].mensaje(null);
+    }
+
+    // Primera fila cuya línea es mayor o igual que la indicada
+    private int buscar(int linea) {
+        int posicion = Arrays.binarySearch(lineas, 0, cantidad, linea);
+        return posicion < 0 ? -posicion - 1 : posicion;
+    }
+
+    private void agregar(int posicion, int linea) {
+        if (cantidad == lineas.length) {
+            lineas = Arrays.copyOf(lineas, cantidad * 2);
+        }
+        System.arraycopy(lineas, posicion, lineas, posicion + 1, cantidad - posicion);
+        lineas[posicion] = linea;
+        cantidad++;
+    }
+}
@@ -0,0 +1,65 @@
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo del visor del código traducido: una fila por línea del código fuente con su número y su traducción,
+ * leída de la TraduccionIncremental cuando la tabla pinta la fila. La JTable solo pide las filas visibles, así que
+ * mostrar o desplazar un documento de cientos de miles de líneas no copia el texto ni mide todas las líneas.
+ */
+public class ModeloTraduccion extends AbstractTableModel {
+
+    private TraduccionIncremental traduccion;
+    private int filas; // Cantidad de filas que conoce la tabla, se actualiza solo al avisarle los cambios
+
+    /*Muestra otra traducción, o la misma después de traducirla de nuevo completa.*/
+    public void mostrar(TraduccionIncremental traduccion) {
+        this.traduccion = traduccion;
+        filas = traduccion.getCantidadLineas();
+        fireTableDataChanged();
+    }
+
+    /*Avisa a la tabla que las líneas [inicio, inicio + anteriores) se reemplazaron por nuevas líneas.*/
+    public void actualizar(int inicio, int anteriores, int nuevas) {
+        int comunes = Math.min(anteriores, nuevas);
+        if (comunes > 0) {
+            fireTableRowsUpdated(inicio, inicio + comunes - 1);
+        }
+        filas = traduccion.getCantidadLineas();
+        if (nuevas > anteriores) {
+            fireTableRowsInserted(inicio + comunes, inicio + nuevas - 1);
+        } else if (anteriores > nuevas) {
+            fireTableRowsDeleted(inicio + comunes, inicio + anteriores - 1);
+        }
+    }
+
+    /*Largo en caracteres de la línea traducida más larga del rango [desde, hasta).*/
+    public int largoMaximo(int desde, int hasta) {
+        int maximo = 0;
+        for (int i = desde; i < hasta; i++) {
+            maximo = Math.max(maximo, ((String) getValueAt(i, 1)).length());
+        }
+        return maximo;
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 2;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        if (columna == 0) {
+            return fila + 1;
+        }
+        // La traducción puede haber cambiado después de avisar a la tabla (por ejemplo, si ahora tiene errores).
+        if (fila >= traduccion.getCantidadLineas()) {
+            return "";
+        }
+        String salida = traduccion.getSalida(fila);
+        return salida == null ? "" : salida;
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Traductor de un par de idiomas (origen, destino). RegistroIdiomas busca el par una sola vez por traducción
+ * y después llama a traducir por cada línea, así que la implementación no debe volver a comparar idiomas.
+ * El par también entrega el dialecto léxico y el validador de su idioma de origen, que la traducción pide una
+ * sola vez al empezar; un proveedor que agrega un idioma nuevo debe sobrescribirlos, porque por omisión un
+ * idioma que no es Java, C++ ni JS se analiza con el dialecto genérico y no se valida.
+ * Las implementaciones se comparten entre hilos y no deben guardar estado mutable.
+ */
+public interface ParIdiomas {
+
+    String getOrigen();
+
+    String getDestino();
+
+    /**
+     * Traduce una línea y agrega el resultado a destino (sin el salto de línea).
+     *
+     * @param tokens        Tokens de la línea según AnalizadorLexico.
+     * @param estadoEntrada Estado léxico con que empieza la línea.
+     * @param coincidencias Arreglo de trabajo reutilizable del hilo que traduce.
+     */
+    void traducir(String linea, AnalizadorLexico.Tokens tokens, int estadoEntrada, StringBuilder destino,
+                  AhoCorasick.Coincidencias coincidencias);
+
+    /*
+     * Igual que traducir, pero en lugar de publicar las reglas aplicadas las suma en usadas (una posición por
+     * regla, getCantidadReglas en total). La traducción las publica con publicarAplicaciones solo cuando acepta
+     * el resultado, así que una línea que se vuelve a traducir o un código que no pasa la validación no cuentan.
+     */
+    default void traducir(String linea, AnalizadorLexico.Tokens tokens, int estadoEntrada, StringBuilder destino,
+                          AhoCorasick.Coincidencias coincidencias, long[] usadas) {
+        traducir(linea, tokens, estadoEntrada, destino, coincidencias);
+    }
+
+    /*Cantidad de contadores que necesita traducir(..., usadas).*/
+    default int getCantidadReglas() {
+        return 0;
+    }
+
+    /*Suma a las métricas del par las reglas acumuladas por traducir(..., usadas).*/
+    default void publicarAplicaciones(long[] usadas) {
+    }
+
+    /*Dialecto de AnalizadorLexico (DIALECTO_*) con que se separan los tokens del idioma de origen.*/
+    default int getDialectoOrigen() {
+        return AnalizadorLexico.dialecto(getOrigen());
+    }
+
+    /*Validador del idioma de origen.*/
+    default ValidadorIdioma getValidadorOrigen() {
+        return Traductor.ValidadorIncremental.para(getOrigen());
+    }
+
+    /*
+     * Versión de la salida del par. Forma parte de la clave de CacheTraduccion junto con el nombre de la clase,
+     * así que debe incrementarse cada vez que cambie la traducción.
+     */
+    default int getVersion() {
+        return 0;
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Recibe el avance de una traducción larga.
+ * El motor lo llama cada cierta cantidad de líneas desde el hilo que traduce, así que la implementación debe ser
+ * barata y, si actualiza la interfaz, pasar por el hilo de eventos de Swing.
+ */
+public interface ProgresoTraduccion {
+
+    /**
+     * @param procesado Caracteres del código fuente ya traducidos.
+     * @param total     Caracteres totales del código fuente.
+     */
+    void avance(long procesado, long total);
+}
@@ -0,0 +1,15 @@
+import java.util.List;
+
+/**
+ * Punto de extensión para agregar idiomas sin modificar Traductor. Las implementaciones se descubren con
+ * ServiceLoader: basta con poner en el classpath un jar con la clase y un archivo
+ * META-INF/services/ProveedorParesIdiomas que contenga su nombre.
+ */
+public interface ProveedorParesIdiomas {
+
+    /*
+     * Pares que agrega el proveedor; si un par ya existe, el del proveedor lo reemplaza. Cada par indica el
+     * dialecto léxico y el validador de su origen y su versión (ver ParIdiomas).
+     */
+    List<ParIdiomas> pares();
+}
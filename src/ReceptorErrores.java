@@ -0,0 +1,16 @@
+/**
+ * Recibe los errores de una traducción a medida que se encuentran, sin esperar a que termine.
+ * ErroresTraduccion lo llama desde el hilo que traduce con cada error nuevo, incluso con los que ya no guarda por
+ * pasar del límite, así que la implementación debe ser barata y, si actualiza la interfaz, pasar por el hilo de
+ * eventos de Swing. Si al final el código no pasa la validación, los errores ya recibidos quedan sin efecto y
+ * llega el de validación.
+ */
+public interface ReceptorErrores {
+
+    /**
+     * @param linea   Número de línea (desde 1) del error.
+     * @param codigo  Código del error.
+     * @param detalle Detalle del mensaje si la plantilla del código lo usa, o null.
+     */
+    void error(int linea, CodigoError codigo, String detalle);
+}
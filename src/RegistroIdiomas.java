@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Registro de los pares de idiomas disponibles: los incluidos (ReglasTraduccion) más los que agreguen los
+ * proveedores encontrados con ServiceLoader (ProveedorParesIdiomas).
+ * Cada idioma recibe un índice al registrarse y los pares se guardan en una tabla [origen][destino] que se arma
+ * una sola vez, así que Traductor resuelve el par con dos consultas al empezar y no compara idiomas por línea.
+ * La diagonal de la tabla copia las líneas sin cambios (origen y destino iguales).
+ */
+public class RegistroIdiomas {
+
+    // Idiomas incluidos, en el orden en que se muestran
+    private static final String[] INCLUIDOS = {"Java", "C++", "JS"};
+
+    private static final String[] IDIOMAS;
+    private static final Map<String, Integer> INDICES = new HashMap<>();
+    private static final ParIdiomas[][] TABLA;
+    private static final List<ParIdiomas> PARES;
+
+    static {
+        List<ParIdiomas> pares = new ArrayList<>(ReglasTraduccion.incluidas());
+        try {
+            for (ProveedorParesIdiomas proveedor : ServiceLoader.load(ProveedorParesIdiomas.class)) {
+                pares.addAll(proveedor.pares());
+            }
+        } catch (ServiceConfigurationError e) {
+            System.err.println("No se pudo cargar un proveedor de idiomas: " + e.getMessage());
+        }
+
+        List<String> idiomas = new ArrayList<>();
+        Collections.addAll(idiomas, INCLUIDOS);
+        for (ParIdiomas par : pares) {
+            if (!idiomas.contains(par.getOrigen())) {
+                idiomas.add(par.getOrigen());
+            }
+            if (!idiomas.contains(par.getDestino())) {
+                idiomas.add(par.getDestino());
+            }
+        }
+        IDIOMAS = idiomas.toArray(new String[0]);
+        for (int i = 0; i < IDIOMAS.length; i++) {
+            INDICES.put(IDIOMAS[i], i);
+        }
+
+        TABLA = new ParIdiomas[IDIOMAS.length][IDIOMAS.length];
+        for (int i = 0; i < IDIOMAS.length; i++) {
+            TABLA[i][i] = new ParIdentidad(IDIOMAS[i]);
+        }
+        // Un par repetido reemplaza al anterior, así un proveedor puede sustituir un par incluido.
+        for (ParIdiomas par : pares) {
+            TABLA[INDICES.get(par.getOrigen())][INDICES.get(par.getDestino())] = par;
+        }
+        List<ParIdiomas> registrados = new ArrayList<>();
+        for (ParIdiomas[] fila : TABLA) {
+            for (ParIdiomas par : fila) {
+                if (par != null && !(par instanceof ParIdentidad)) {
+                    registrados.add(par);
+                }
+            }
+        }
+        PARES = Collections.unmodifiableList(registrados);
+    }
+
+    // Par de un idioma consigo mismo: deja cada línea igual
+    private static class ParIdentidad implements ParIdiomas {
+        private final String idioma;
+
+        ParIdentidad(String idioma) {
+            this.idioma = idioma;
+        }
+
+        @Override
+        public String getOrigen() {
+            return idioma;
+        }
+
+        @Override
+        public String getDestino() {
+            return idioma;
+        }
+
+        @Override
+        public void traducir(String linea, AnalizadorLexico.Tokens tokens, int estadoEntrada, StringBuilder destino,
+                             AhoCorasick.Coincidencias coincidencias) {
+            destino.append(linea);
+        }
+    }
+
+    /*Devuelve el par registrado, o null si la conversión no está soportada.*/
+    public static ParIdiomas buscar(String origen, String destino) {
+        Integer indiceOrigen = INDICES.get(origen);
+        Integer indiceDestino = INDICES.get(destino);
+        if (indiceOrigen == null || indiceDestino == null) {
+            return null;
+        }
+        return TABLA[indiceOrigen][indiceDestino];
+    }
+
+    /*Nombres de todos los idiomas conocidos, primero los incluidos.*/
+    public static String[] idiomas() {
+        return IDIOMAS.clone();
+    }
+
+    /*Pares registrados, sin los de un idioma consigo mismo.*/
+    public static List<ParIdiomas> pares() {
+        return PARES;
+    }
+
+    /*Nombre registrado del idioma sin distinguir mayúsculas ("cpp" equivale a C++), o null si no se conoce.*/
+    public static String normalizar(String valor) {
+        for (String idioma : IDIOMAS) {
+            if (idioma.equalsIgnoreCase(valor)) {
+                return idioma;
+            }
+        }
+        if (valor.equalsIgnoreCase("cpp")) {
+            return "C++";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,356 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reglas de reescritura de un par de idiomas expresadas como datos; es la implementación de ParIdiomas de los
+ * pares incluidos.
+ * Los patrones de todas las reglas de reemplazo se compilan una sola vez en un autómata de Aho-Corasick,
+ * de modo que cada línea se recorre una sola vez sin importar cuántas reglas haya.
+ * El autómata solo recorre el código de la línea: las cadenas y los comentarios que marca el analizador léxico
+ * se copian sin cambios, y un patrón que empieza o termina con letra no se aplica dentro de otro identificador.
+ * Cada regla cuenta cuántas veces se aplicó (ver MetricasTraductor).
+ */
+public class ReglasTraduccion implements ParIdiomas {
+
+    // Versión del conjunto de reglas; debe incrementarse cada vez que una regla cambie la salida,
+    // porque forma parte de la clave de CacheTraduccion.
+    public static final int VERSION = 3;
+
+    // Regla que sustituye la línea completa cuando, sin los espacios iniciales, empieza por el prefijo.
+    public static class ReglaLinea {
+        public final String id;
+        public final String prefijo;
+        public final String reemplazo;
+
+        public ReglaLinea(String id, String prefijo, String reemplazo) {
+            this.id = id;
+            this.prefijo = prefijo;
+            this.reemplazo = reemplazo;
+        }
+    }
+
+    // Regla que reemplaza cada aparición de un patrón dentro de la línea.
+    public static class Regla {
+        public final String id;
+        public final String patron;
+        public final String reemplazo;
+        public final String requiere;
+
+        public Regla(String id, String patron, String reemplazo) {
+            this(id, patron, reemplazo, null);
+        }
+
+        /**
+         * @param reemplazo Texto que sustituye al patrón; si es null el patrón se deja igual y solo se marca.
+         * @param requiere  Id de otra regla que debe haberse aplicado en la misma línea para que esta se aplique.
+         */
+        public Regla(String id, String patron, String reemplazo, String requiere) {
+            this.id = id;
+            this.patron = patron;
+            this.reemplazo = reemplazo;
+            this.requiere = requiere;
+        }
+    }
+
+    // Ajuste final que se aplica sobre la línea ya reescrita cuando se aplicó una regla concreta.
+    public interface AjusteLinea {
+        String aplicar(String linea);
+    }
+
+    private static final String MAIN_JAVA = "public static void main(String[] args)";
+
+    private static final ReglasTraduccion JAVA_A_JS = new ReglasTraduccion("Java", "JS",
+            new ReglaLinea[]{
+                    new ReglaLinea("java-js.clase", "public class", "// Clase omitida en JS")
+            },
+            new Regla[]{
+                    new Regla("java-js.main", MAIN_JAVA, "function main()"),
+                    new Regla("java-js.println", "System.out.println", "console.log")
+            },
+            null, null);
+
+    private static final ReglasTraduccion JAVA_A_CPP = new ReglasTraduccion("Java", "C++",
+            new ReglaLinea[]{
+                    new ReglaLinea("java-cpp.clase", "public class", "// Clase traducida omitida en C++")
+            },
+            new Regla[]{
+                    new Regla("java-cpp.main", MAIN_JAVA, "int main()"),
+                    new Regla("java-cpp.println", "System.out.println", "std::cout << "),
+                    new Regla("java-cpp.endl", ");", " << std::endl;", "java-cpp.println")
+            },
+            null, null);
+
+    private static final ReglasTraduccion CPP_A_JS = new ReglasTraduccion("C++", "JS",
+            new ReglaLinea[]{
+                    new ReglaLinea("cpp-js.include", "#include", "// Directiva de preprocesador omitida"),
+                    new ReglaLinea("cpp-js.using", "using namespace", "")
+            },
+            new Regla[]{
+                    new Regla("cpp-js.main", "int main()", "function main()"),
+                    new Regla("cpp-js.cout", "std::cout", null)
+            },
+            "cpp-js.cout", new AjusteLinea() {
+                @Override
+                public String aplicar(String linea) {
+                    return coutAConsoleLog(linea);
+                }
+            });
+
+    private static final ReglasTraduccion CPP_A_JAVA = new ReglasTraduccion("C++", "Java",
+            new ReglaLinea[]{
+                    new ReglaLinea("cpp-java.include", "#include", "// Directiva omitida en Java"),
+                    new ReglaLinea("cpp-java.using", "using namespace", "// Directiva omitida en Java")
+            },
+            new Regla[]{
+                    new Regla("cpp-java.main", "int main()", MAIN_JAVA),
+                    new Regla("cpp-java.console", "console.log", "System.out.println")
+            },
+            null, null);
+
+    private static final ReglasTraduccion JS_A_JAVA = new ReglasTraduccion("JS", "Java",
+            new ReglaLinea[0],
+            new Regla[]{
+                    new Regla("js-java.console", "console.log", "System.out.println")
+            },
+            null, null);
+
+    private static final ReglasTraduccion JS_A_CPP = new ReglasTraduccion("JS", "C++",
+            new ReglaLinea[0],
+            new Regla[]{
+                    new Regla("js-cpp.console", "console.log", "std::cout << "),
+                    new Regla("js-cpp.endl", ");", " << std::endl;", "js-cpp.console")
+            },
+            null, null);
+
+    private final String idiomaOrigen;
+    private final String idiomaDestino;
+    private final ReglaLinea[] reglasLinea;
+    private final Regla[] reglas;
+    private final int[] requisitos;
+    private final AhoCorasick automata;
+    private final int reglaAjuste;
+    private final AjusteLinea ajuste;
+    private final LongAdder[] aplicadasLinea;
+    private final LongAdder[] aplicadas;
+
+    public ReglasTraduccion(String idiomaOrigen, String idiomaDestino, ReglaLinea[] reglasLinea, Regla[] reglas,
+                            String idAjuste, AjusteLinea ajuste) {
+        this.idiomaOrigen = idiomaOrigen;
+        this.idiomaDestino = idiomaDestino;
+        this.reglasLinea = reglasLinea;
+        this.reglas = reglas;
+        this.ajuste = ajuste;
+        aplicadasLinea = contadores(reglasLinea.length);
+        aplicadas = contadores(reglas.length);
+        String[] patrones = new String[reglas.length];
+        requisitos = new int[reglas.length];
+        for (int i = 0; i < reglas.length; i++) {
+            patrones[i] = reglas[i].patron;
+            requisitos[i] = reglas[i].requiere == null ? -1 : indice(reglas[i].requiere);
+        }
+        reglaAjuste = idAjuste == null ? -1 : indice(idAjuste);
+        automata = new AhoCorasick(patrones);
+    }
+
+    /*Pares incluidos; RegistroIdiomas los registra antes que los de los proveedores.*/
+    static List<ParIdiomas> incluidas() {
+        return Arrays.<ParIdiomas>asList(JAVA_A_JS, JAVA_A_CPP, CPP_A_JS, CPP_A_JAVA, JS_A_JAVA, JS_A_CPP);
+    }
+
+    @Override
+    public String getOrigen() {
+        return idiomaOrigen;
+    }
+
+    @Override
+    public String getDestino() {
+        return idiomaDestino;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    /*Agrega a destino las veces que se aplicó cada regla, por id.*/
+    void contarAplicaciones(Map<String, Long> destino) {
+        for (int i = 0; i < reglasLinea.length; i++) {
+            destino.put(reglasLinea[i].id, aplicadasLinea[i].sum());
+        }
+        for (int i = 0; i < reglas.length; i++) {
+            destino.put(reglas[i].id, aplicadas[i].sum());
+        }
+    }
+
+    @Override
+    public int getCantidadReglas() {
+        return reglasLinea.length + reglas.length;
+    }
+
+    @Override
+    public void publicarAplicaciones(long[] usadas) {
+        for (int i = 0; i < reglasLinea.length; i++) {
+            if (usadas[i] != 0) {
+                aplicadasLinea[i].add(usadas[i]);
+            }
+        }
+        for (int i = 0; i < reglas.length; i++) {
+            if (usadas[reglasLinea.length + i] != 0) {
+                aplicadas[i].add(usadas[reglasLinea.length + i]);
+            }
+        }
+    }
+
+    void reiniciarAplicaciones() {
+        for (LongAdder contador : aplicadasLinea) {
+            contador.reset();
+        }
+        for (LongAdder contador : aplicadas) {
+            contador.reset();
+        }
+    }
+
+    private static LongAdder[] contadores(int cantidad) {
+        LongAdder[] contadores = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+
+    /*Traduce la línea y cuenta las reglas aplicadas directamente en las métricas.*/
+    @Override
+    public void traducir(String linea, AnalizadorLexico.Tokens tokens, int estadoEntrada, StringBuilder destino,
+                         AhoCorasick.Coincidencias coincidencias) {
+        traducir(linea, tokens, estadoEntrada, destino, coincidencias, null);
+    }
+
+    /*
+     * Las reglas de línea completa solo se aplican si la línea no continúa un comentario o una cadena.
+     * Con usadas null las reglas aplicadas se cuentan directamente en las métricas.
+     */
+    @Override
+    public void traducir(String linea, AnalizadorLexico.Tokens tokens, int estadoEntrada, StringBuilder destino,
+                         AhoCorasick.Coincidencias coincidencias, long[] usadas) {
+        if (estadoEntrada == AnalizadorLexico.NORMAL) {
+            int primero = 0;
+            while (primero < linea.length() && linea.charAt(primero) <= ' ') {
+                primero++;
+            }
+            for (int i = 0; i < reglasLinea.length; i++) {
+                if (linea.startsWith(reglasLinea[i].prefijo, primero)) {
+                    if (usadas != null) {
+                        usadas[i]++;
+                    } else {
+                        aplicadasLinea[i].increment();
+                    }
+                    destino.append(reglasLinea[i].reemplazo);
+                    return;
+                }
+            }
+        }
+
+        coincidencias.limpiar();
+        int desde = 0;
+        for (int i = 0; i < tokens.cantidad(); i++) {
+            int tipo = tokens.tipo(i);
+            if (tipo == AnalizadorLexico.CADENA || tipo == AnalizadorLexico.COMENTARIO) {
+                automata.buscar(linea, desde, tokens.inicio(i), coincidencias);
+                desde = tokens.fin(i);
+            }
+        }
+        automata.buscar(linea, desde, linea.length(), coincidencias);
+        if (descartarDentroDeIdentificadores(linea, coincidencias) == 0) {
+            destino.append(linea);
+            return;
+        }
+
+        int marca = destino.length();
+        boolean ajustar = false;
+        int copiado = 0;
+        for (int i = 0; i < coincidencias.cantidad(); i++) {
+            int inicio = coincidencias.inicio(i);
+            int indice = coincidencias.patron(i);
+            Regla regla = reglas[indice];
+            ajustar |= indice == reglaAjuste;
+            if (regla.reemplazo == null) {
+                // Una regla que solo marca cuenta como aplicada al encontrarse.
+                contar(indice, usadas);
+                continue;
+            }
+            if (requisitos[indice] != -1 && !contiene(coincidencias, requisitos[indice])) {
+                continue;
+            }
+            contar(indice, usadas);
+            destino.append(linea, copiado, inicio).append(regla.reemplazo);
+            copiado = inicio + automata.longitud(indice);
+        }
+        destino.append(linea, copiado, linea.length());
+
+        if (ajustar) {
+            String reescrita = destino.substring(marca);
+            destino.setLength(marca);
+            destino.append(ajuste.aplicar(reescrita));
+        }
+    }
+
+    private void contar(int indice, long[] usadas) {
+        if (usadas != null) {
+            usadas[reglasLinea.length + indice]++;
+        } else {
+            aplicadas[indice].increment();
+        }
+    }
+
+    // Descarta las coincidencias pegadas a otro identificador (por ejemplo 'myconsole.log') y devuelve cuántas quedan.
+    private int descartarDentroDeIdentificadores(String linea, AhoCorasick.Coincidencias coincidencias) {
+        int quedan = 0;
+        for (int i = 0; i < coincidencias.cantidad(); i++) {
+            int inicio = coincidencias.inicio(i);
+            int indice = coincidencias.patron(i);
+            int fin = inicio + automata.longitud(indice);
+            String patron = reglas[indice].patron;
+            boolean pegadoAntes = inicio > 0 && AnalizadorLexico.esParteIdentificador(patron.charAt(0))
+                    && AnalizadorLexico.esParteIdentificador(linea.charAt(inicio - 1));
+            boolean pegadoDespues = fin < linea.length() && AnalizadorLexico.esParteIdentificador(patron.charAt(patron.length() - 1))
+                    && AnalizadorLexico.esParteIdentificador(linea.charAt(fin));
+            if (!pegadoAntes && !pegadoDespues) {
+                coincidencias.establecer(quedan++, inicio, indice);
+            }
+        }
+        coincidencias.truncar(quedan);
+        return quedan;
+    }
+
+    private static boolean contiene(AhoCorasick.Coincidencias coincidencias, int patron) {
+        for (int i = 0; i < coincidencias.cantidad(); i++) {
+            if (coincidencias.patron(i) == patron) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int indice(String id) {
+        for (int i = 0; i < reglas.length; i++) {
+            if (reglas[i].id.equals(id)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Regla desconocida: " + id);
+    }
+
+    /*Convierte 'std::cout << x << std::endl;' en 'console.log(x);', o solo renombra std::cout si no se puede.*/
+    private static String coutAConsoleLog(String linea) {
+        int start = linea.indexOf("std::cout");
+        int posInicio = linea.indexOf("<<", start);
+        int posFin = linea.indexOf("<< std::endl");
+        if (posInicio != -1 && posFin != -1 && posFin > posInicio) {
+            String contenido = linea.substring(posInicio + 2, posFin).trim();
+            return "console.log(" + contenido + ");";
+        }
+        return linea.replace("std::cout", "console.log");
+    }
+}
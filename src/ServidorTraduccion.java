@@ -0,0 +1,419 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor HTTP local que expone Traductor.traducir como un servicio JSON, para que los editores y otras
+ * herramientas no paguen el arranque de la JVM en cada traducción.
+ *
+ *   java -jar traductor_de_codigo_A_S.jar --servidor [--puerto 8080] [--hilos N] [--cola N] [--max-peticion MB]
+ *
+ * POST /traducir recibe {"origen": "Java", "destino": "JS", "archivos": [{"nombre": "A.java", "codigo": "..."}]}
+ * (o "codigo" en lugar de "archivos" para un solo archivo) y responde con la traducción y los errores de cada
+ * archivo. GET /metricas devuelve las métricas del motor y del servidor, y GET /salud responde "ok".
+ *
+ * Cada conexión se atiende en un hilo virtual (o de un pool si la JVM no los tiene) y la traducción pasa a un
+ * pool con un hilo por núcleo y una cola acotada. Una petición toma un permiso antes de leer su cuerpo, y hay
+ * tantos como hilos más lugares en la cola: si no queda ninguno se rechaza de inmediato con 503 y Retry-After,
+ * así que nunca hay en memoria más cuerpos que los que se pueden traducir o esperar. El tamaño máximo de cada
+ * cuerpo se reparte por omisión la mitad del heap entre esos permisos (--max-peticion lo fija en MB).
+ */
+public class ServidorTraduccion {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int PUERTO_POR_DEFECTO = 8080;
+
+    // Tope del tamaño máximo del cuerpo de una petición cuando no se indica
+    private static final int MAX_BYTES_PETICION = 64 * 1024 * 1024;
+    private static final int MIN_BYTES_PETICION = 1024 * 1024;
+
+    // Programas mínimos de cada idioma para calentar el motor al arrancar
+    private static final String[][] MUESTRAS = {
+            {"Java", "public class A {\n    public static void main(String[] args) {\n        System.out.println(\"hola\");\n    }\n}\n"},
+            {"C++", "#include <iostream>\nusing namespace std;\nint main() {\n    std::cout << \"hola\" << std::endl;\n}\n"},
+            {"JS", "function main() {\n    console.log(\"hola\");\n}\n"}
+    };
+
+    // Archivo de una petición
+    private static class Archivo {
+        final String nombre;
+        final String codigo;
+
+        Archivo(String nombre, String codigo) {
+            this.nombre = nombre;
+            this.codigo = codigo;
+        }
+    }
+
+    // Petición de traducción ya leída y validada
+    private static class Peticion {
+        final String origen;
+        final String destino;
+        final List<Archivo> archivos;
+
+        Peticion(String origen, String destino, List<Archivo> archivos) {
+            this.origen = origen;
+            this.destino = destino;
+            this.archivos = archivos;
+        }
+    }
+
+    private final HttpServer servidor;
+    private final ExecutorService ejecutorConexiones;
+    private final ThreadPoolExecutor trabajadores;
+    private final Semaphore permisos; // Peticiones admitidas: traduciéndose, en cola o leyendo su cuerpo
+    private final int maxBytesPeticion;
+
+    private final LongAdder peticiones = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+    private final LongAdder archivosTraducidos = new LongAdder();
+
+    /**
+     * @param puerto        Puerto local, o 0 para que el sistema elija uno libre.
+     * @param hilos         Hilos que traducen a la vez.
+     * @param capacidadCola Peticiones que pueden esperar a un hilo libre antes de empezar a rechazar.
+     */
+    public ServidorTraduccion(int puerto, int hilos, int capacidadCola) throws IOException {
+        this(puerto, hilos, capacidadCola, maxBytesPredeterminado(hilos + capacidadCola));
+    }
+
+    /**
+     * @param maxBytesPeticion Tamaño máximo del cuerpo de una petición; las más grandes reciben 413.
+     */
+    public ServidorTraduccion(int puerto, int hilos, int capacidadCola, int maxBytesPeticion) throws IOException {
+        permisos = new Semaphore(hilos + capacidadCola);
+        this.maxBytesPeticion = maxBytesPeticion;
+        servidor = HttpServer.create(new InetSocketAddress(HOST, puerto), 0);
+        ejecutorConexiones = TraductorLotes.crearEjecutorIO();
+        final AtomicInteger numero = new AtomicInteger();
+        trabajadores = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(capacidadCola), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable tarea) {
+                Thread hilo = new Thread(tarea, "servidor-traductor-" + numero.getAndIncrement());
+                hilo.setDaemon(true);
+                return hilo;
+            }
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        servidor.createContext("/traducir", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange intercambio) throws IOException {
+                atenderTraduccion(intercambio);
+            }
+        });
+        servidor.createContext("/metricas", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange intercambio) throws IOException {
+                responder(intercambio, 200, metricasJson());
+            }
+        });
+        servidor.createContext("/salud", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange intercambio) throws IOException {
+                responder(intercambio, 200, "{\"estado\": \"ok\"}\n");
+            }
+        });
+        servidor.setExecutor(ejecutorConexiones);
+    }
+
+    /**
+     * Punto de entrada del modo servidor. Deja el servidor escuchando y vuelve; la JVM sigue viva mientras
+     * el servidor esté activo.
+     *
+     * @param args Argumentos de la línea de comandos, empezando por --servidor.
+     * @return 0 si el servidor arrancó, 2 si los argumentos son inválidos y 1 si no se pudo abrir el puerto.
+     */
+    public static int ejecutar(String[] args) {
+        int puerto = PUERTO_POR_DEFECTO;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int cola = -1;
+        int maxMegas = -1;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                String opcion = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Falta el valor de " + opcion);
+                }
+                String valor = args[++i];
+                if (opcion.equals("--puerto")) {
+                    puerto = Integer.parseInt(valor);
+                } else if (opcion.equals("--hilos")) {
+                    hilos = Math.max(1, Integer.parseInt(valor));
+                } else if (opcion.equals("--cola")) {
+                    cola = Math.max(1, Integer.parseInt(valor));
+                } else if (opcion.equals("--max-peticion")) {
+                    maxMegas = Math.max(1, Math.min(1024, Integer.parseInt(valor)));
+                } else {
+                    throw new IllegalArgumentException("Opción desconocida: " + opcion);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: java -jar traductor_de_codigo_A_S.jar --servidor [--puerto 8080] [--hilos N] [--cola N] [--max-peticion MB]");
+            return 2;
+        }
+
+        final ServidorTraduccion servidor;
+        try {
+            int capacidadCola = cola == -1 ? hilos * 16 : cola;
+            servidor = new ServidorTraduccion(puerto, hilos, capacidadCola, maxMegas == -1
+                    ? maxBytesPredeterminado(hilos + capacidadCola) : maxMegas * 1024 * 1024);
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir el puerto " + puerto + ": " + e.getMessage());
+            return 1;
+        }
+        servidor.calentar();
+        servidor.iniciar();
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                servidor.detener();
+            }
+        }));
+        System.out.println("Servidor de traducción escuchando en http://" + HOST + ":" + servidor.getPuerto() + "/traducir");
+        return 0;
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    public void detener() {
+        servidor.stop(1);
+        trabajadores.shutdown();
+        ejecutorConexiones.shutdown();
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /*
+     * Mitad del heap repartida entre las peticiones admitidas, entre 1 MB y 64 MB: el cuerpo se guarda como bytes
+     * y como texto, y la traducción necesita otro tanto.
+     */
+    static int maxBytesPredeterminado(int peticiones) {
+        long porPeticion = Runtime.getRuntime().maxMemory() / 2 / Math.max(1, peticiones);
+        return (int) Math.max(MIN_BYTES_PETICION, Math.min(MAX_BYTES_PETICION, porPeticion));
+    }
+
+    /*
+     * Traduce unas muestras de cada par para que las clases, las tablas de reglas y el JIT estén listos antes
+     * de la primera petición. Las métricas de este calentamiento se descartan.
+     */
+    public void calentar() {
+        for (int repeticion = 0; repeticion < 2000; repeticion++) {
+            for (String[] muestra : MUESTRAS) {
+                for (String[] destino : MUESTRAS) {
+                    try {
+                        Traductor.traducir(muestra[1], muestra[0], destino[0]);
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Falló la traducción de la muestra de " + muestra[0], e);
+                    }
+                }
+            }
+        }
+        MetricasTraductor.GLOBAL.reiniciar();
+    }
+
+    private void atenderTraduccion(HttpExchange intercambio) throws IOException {
+        boolean admitida = false;
+        try {
+            if (!intercambio.getRequestMethod().equals("POST")) {
+                responder(intercambio, 405, error("Use POST"));
+                return;
+            }
+            peticiones.increment();
+            // La capacidad se comprueba antes de leer el cuerpo, para no guardar en memoria uno que se va a rechazar
+            if (!permisos.tryAcquire()) {
+                rechazar(intercambio);
+                return;
+            }
+            admitida = true;
+            String cuerpo = leerCuerpo(intercambio);
+            if (cuerpo == null) {
+                responder(intercambio, 413, error("La petición supera " + maxBytesPeticion + " bytes"));
+                return;
+            }
+            final Peticion peticion;
+            try {
+                peticion = leerPeticion(cuerpo);
+            } catch (IllegalArgumentException e) {
+                responder(intercambio, 400, error(e.getMessage()));
+                return;
+            } catch (ClassCastException e) {
+                responder(intercambio, 400, error("Formato de petición inválido"));
+                return;
+            }
+
+            Future<String> respuesta;
+            try {
+                respuesta = trabajadores.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return traducir(peticion);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rechazar(intercambio);
+                return;
+            }
+            responder(intercambio, 200, respuesta.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            responder(intercambio, 503, error("Servidor detenido"));
+        } catch (ExecutionException e) {
+            // El detalle queda en el registro del servidor; al cliente no se le muestran clases internas
+            System.err.println("Error al atender una petición de traducción: " + e.getCause());
+            responder(intercambio, 500, error("Error interno del servidor"));
+        } finally {
+            intercambio.close();
+            if (admitida) {
+                permisos.release();
+            }
+        }
+    }
+
+    private void rechazar(HttpExchange intercambio) throws IOException {
+        rechazadas.increment();
+        intercambio.getResponseHeaders().set("Retry-After", "1");
+        responder(intercambio, 503, error("Servidor ocupado, reintente más tarde"));
+    }
+
+    // Traduce todos los archivos de la petición en el mismo hilo y arma la respuesta
+    private String traducir(Peticion peticion) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"resultados\": [");
+        for (int i = 0; i < peticion.archivos.size(); i++) {
+            Archivo archivo = peticion.archivos.get(i);
+            Traductor.ResultadoTraduccion resultado;
+            try {
+                resultado = Traductor.traducir(archivo.codigo, peticion.origen, peticion.destino);
+            } catch (Exception e) {
+                List<Traductor.ErrorInfo> errores = new ArrayList<>();
+                errores.add(new Traductor.ErrorInfo(0, e.getMessage()));
+                resultado = new Traductor.ResultadoTraduccion("", errores);
+            }
+            archivosTraducidos.increment();
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("  {\"nombre\": ");
+            Json.escribir(archivo.nombre, json);
+            json.append(", \"traduccion\": ");
+            Json.escribir(resultado.traduccion, json);
+            json.append(", \"errores\": [");
+            for (int j = 0; j < resultado.errores.size(); j++) {
+                Traductor.ErrorInfo error = resultado.errores.get(j);
+                json.append(j == 0 ? "" : ", ").append("{\"linea\": ").append(error.linea)
+                        .append(", \"codigo\": \"").append(error.codigo.name()).append("\", \"mensaje\": ");
+                Json.escribir(error.mensaje, json);
+                json.append('}');
+            }
+            json.append("]}");
+        }
+        json.append("\n]}\n");
+        return json.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Peticion leerPeticion(String cuerpo) {
+        Object documento = Json.leer(cuerpo);
+        if (!(documento instanceof Map)) {
+            throw new IllegalArgumentException("Se esperaba un objeto JSON");
+        }
+        Map<String, Object> objeto = (Map<String, Object>) documento;
+        String origen = TraductorLotes.normalizarIdioma(texto(objeto, "origen"));
+        String destino = TraductorLotes.normalizarIdioma(texto(objeto, "destino"));
+        if (RegistroIdiomas.buscar(origen, destino) == null) {
+            throw new IllegalArgumentException(Traductor.errorNoSoportado(origen, destino).mensaje);
+        }
+        List<Archivo> archivos = new ArrayList<>();
+        if (objeto.containsKey("codigo")) {
+            archivos.add(new Archivo("", texto(objeto, "codigo")));
+        } else if (objeto.get("archivos") instanceof List) {
+            for (Object elemento : (List<Object>) objeto.get("archivos")) {
+                Map<String, Object> archivo = (Map<String, Object>) elemento;
+                String nombre = archivo.get("nombre") == null ? "" : texto(archivo, "nombre");
+                archivos.add(new Archivo(nombre, texto(archivo, "codigo")));
+            }
+        } else {
+            throw new IllegalArgumentException("Falta \"codigo\" o \"archivos\"");
+        }
+        return new Peticion(origen, destino, archivos);
+    }
+
+    private static String texto(Map<String, Object> objeto, String clave) {
+        Object valor = objeto.get(clave);
+        if (!(valor instanceof String)) {
+            throw new IllegalArgumentException("Falta el texto \"" + clave + "\"");
+        }
+        return (String) valor;
+    }
+
+    // Devuelve null si el cuerpo supera maxBytesPeticion, sin leerlo si ya lo declara Content-Length
+    private String leerCuerpo(HttpExchange intercambio) throws IOException {
+        String longitud = intercambio.getRequestHeaders().getFirst("Content-Length");
+        try {
+            if (longitud != null && Long.parseLong(longitud.trim()) > maxBytesPeticion) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            // Sin una longitud válida se cuenta mientras se lee
+        }
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                if (cuerpo.size() + leidos > maxBytesPeticion) {
+                    return null;
+                }
+                cuerpo.write(buffer, 0, leidos);
+            }
+        }
+        return new String(cuerpo.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void responder(HttpExchange intercambio, int estado, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    private static String error(String mensaje) {
+        return "{\"error\": " + Json.comillas(mensaje) + "}\n";
+    }
+
+    private String metricasJson() {
+        return "{\"servidor\": {\"peticiones\": " + peticiones.sum()
+                + ", \"rechazadas\": " + rechazadas.sum()
+                + ", \"archivos\": " + archivosTraducidos.sum()
+                + ", \"en_cola\": " + trabajadores.getQueue().size()
+                + "},\n\"motor\": " + MetricasTraductor.GLOBAL.volcarJson() + "}\n";
+    }
+}
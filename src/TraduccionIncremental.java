@@ -0,0 +1,287 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traducción que se mantiene línea a línea para poder volver a traducir solo las líneas editadas.
+ * Guarda, por cada línea del código fuente, su traducción, su error (si lo tiene), las marcas de validación
+ * del idioma y el estado del analizador léxico al empezar y al terminar la línea, con contadores globales para
+ * decidir la validación sin recorrer todo el texto. Si una edición cambia el estado con que termina una línea
+ * (por ejemplo, al abrir un comentario de bloque) también se vuelven a traducir las líneas siguientes hasta
+ * que el estado coincida de nuevo.
+ *
+ * Las líneas se numeran como los elementos de un Document de Swing: un texto con n saltos de línea tiene
+ * n + 1 líneas, incluida la última aunque esté vacía. El resultado de getTraduccion() y getErrores() es el
+ * mismo que devuelve Traductor.traducir para el texto completo.
+ */
+public class TraduccionIncremental {
+
+    // Cada cuántas líneas se informa el avance y se revisa si el hilo fue interrumpido
+    private static final int LINEAS_POR_AVANCE = 1024;
+
+    // Estado de una línea del código fuente
+    private static class Linea {
+        String fuente;
+        String salida;
+        CodigoError error;
+        int marcas;
+        int estadoEntrada;
+        int estadoSalida;
+        boolean vacia;
+        boolean conContenido;
+    }
+
+    private final String idiomaOrigen;
+    private final String idiomaDestino;
+    private final ArrayList<Linea> lineas = new ArrayList<>();
+    private final Traductor.TraduccionEnCurso traduccion;
+    private final int[] contadorMarcas = new int[2];
+    private int lineasConContenido;
+
+    public TraduccionIncremental(String idiomaOrigen, String idiomaDestino) {
+        this.idiomaOrigen = idiomaOrigen;
+        this.idiomaDestino = idiomaDestino;
+        this.traduccion = new Traductor.TraduccionEnCurso(idiomaOrigen, idiomaDestino, new ErroresTraduccion(), 256);
+    }
+
+    public String getIdiomaOrigen() {
+        return idiomaOrigen;
+    }
+
+    public String getIdiomaDestino() {
+        return idiomaDestino;
+    }
+
+    /*Descarta el estado y traduce el texto completo.*/
+    public void reconstruir(String codigo) {
+        try {
+            reconstruir(codigo, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Descarta el estado y traduce el texto completo informando el avance.
+     * Si el hilo se interrumpe la traducción se cancela y el estado queda incompleto.
+     *
+     * @param progreso Receptor del avance, o null.
+     * @throws InterruptedException Si el hilo fue interrumpido durante la traducción.
+     */
+    public void reconstruir(String codigo, ProgresoTraduccion progreso) throws InterruptedException {
+        reconstruir(codigo, progreso, null);
+    }
+
+    /**
+     * Igual que reconstruir(String, ProgresoTraduccion), pero además entrega al receptor el error de cada línea
+     * en cuanto se traduce.
+     *
+     * @param receptor Receptor de los errores por línea, o null.
+     * @throws InterruptedException Si el hilo fue interrumpido durante la traducción.
+     */
+    public void reconstruir(String codigo, ProgresoTraduccion progreso, ReceptorErrores receptor) throws InterruptedException {
+        for (Linea linea : lineas) {
+            descontar(linea);
+        }
+        lineas.clear();
+        int inicio = 0;
+        int estado = AnalizadorLexico.NORMAL;
+        while (true) {
+            int salto = codigo.indexOf('\n', inicio);
+            Linea linea = traducir(salto == -1 ? codigo.substring(inicio) : codigo.substring(inicio, salto), estado);
+            lineas.add(linea);
+            if (receptor != null && linea.error != null) {
+                receptor.error(lineas.size(), linea.error, null);
+            }
+            if (salto == -1) {
+                break;
+            }
+            estado = linea.estadoSalida;
+            inicio = salto + 1;
+            if (lineas.size() % LINEAS_POR_AVANCE == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Traducción cancelada");
+                }
+                if (progreso != null) {
+                    progreso.avance(inicio, codigo.length());
+                }
+            }
+        }
+        traduccion.publicarMetricas(esValido());
+        if (progreso != null) {
+            progreso.avance(codigo.length(), codigo.length());
+        }
+    }
+
+    /**
+     * Sustituye las líneas [inicio, inicio + cantidadAnterior) por las nuevas y traduce solo estas, más las
+     * siguientes cuyo estado léxico de entrada haya cambiado.
+     *
+     * @param inicio           Índice (desde 0) de la primera línea modificada.
+     * @param cantidadAnterior Cantidad de líneas que ocupaba el rango antes de la edición.
+     * @param nuevas           Texto actual de las líneas del rango.
+     * @return Índice siguiente a la última línea que se volvió a traducir (al menos inicio + nuevas.size()).
+     */
+    public int actualizar(int inicio, int cantidadAnterior, List<String> nuevas) {
+        return actualizar(inicio, cantidadAnterior, nuevas, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Igual que actualizar(int, int, List), pero traduce como mucho maxCascada líneas posteriores al rango por
+     * cambio de estado léxico; abrir un comentario al principio de un documento grande podría obligar a traducirlo
+     * entero. Si se alcanza el límite devuelve -1 y la traducción queda incompleta: hay que reconstruirla.
+     */
+    public int actualizar(int inicio, int cantidadAnterior, List<String> nuevas, int maxCascada) {
+        List<Linea> rango = lineas.subList(inicio, inicio + cantidadAnterior);
+        for (Linea linea : rango) {
+            descontar(linea);
+        }
+        int estado = inicio == 0 ? AnalizadorLexico.NORMAL : lineas.get(inicio - 1).estadoSalida;
+        List<Linea> traducidas = new ArrayList<>(nuevas.size());
+        for (String texto : nuevas) {
+            Linea linea = traducir(texto, estado);
+            traducidas.add(linea);
+            estado = linea.estadoSalida;
+        }
+        rango.clear();
+        lineas.addAll(inicio, traducidas);
+
+        int fin = inicio + nuevas.size();
+        int limite = (int) Math.min((long) fin + maxCascada, Integer.MAX_VALUE);
+        while (fin < lineas.size() && lineas.get(fin).estadoEntrada != estado) {
+            if (fin >= limite) {
+                return -1;
+            }
+            Linea anterior = lineas.get(fin);
+            descontar(anterior);
+            Linea linea = traducir(anterior.fuente, estado);
+            lineas.set(fin, linea);
+            estado = linea.estadoSalida;
+            fin++;
+        }
+        traduccion.publicarMetricas(esValido());
+        return fin;
+    }
+
+    public int getCantidadLineas() {
+        return lineas.size();
+    }
+
+    /*Texto original de la línea indicada (desde 0).*/
+    public String getFuente(int linea) {
+        return lineas.get(linea).fuente;
+    }
+
+    /*Traducción de la línea indicada (desde 0), o null si la línea tiene un error y no se traduce.*/
+    public String getSalida(int linea) {
+        return lineas.get(linea).salida;
+    }
+
+    /*Mensaje de error de la línea indicada (desde 0), o null si no tiene.*/
+    public String getError(int linea) {
+        CodigoError error = lineas.get(linea).error;
+        return error == null ? null : error.mensaje(null);
+    }
+
+    public boolean esVacio() {
+        return lineasConContenido == 0;
+    }
+
+    /*Indica si el par está soportado y el texto pasa la validación del idioma de origen.*/
+    public boolean esValido() {
+        if (traduccion.par == null) {
+            return false;
+        }
+        int marcas = (contadorMarcas[0] > 0 ? Traductor.ValidadorIncremental.MARCA_A : 0)
+                | (contadorMarcas[1] > 0 ? Traductor.ValidadorIncremental.MARCA_B : 0);
+        return traduccion.validador.esValido(marcas);
+    }
+
+    /*Errores del texto completo, igual que en Traductor.traducir.*/
+    public List<Traductor.ErrorInfo> getErrores() {
+        ErroresTraduccion errores = new ErroresTraduccion();
+        if (traduccion.par == null) {
+            errores.add(Traductor.errorNoSoportado(idiomaOrigen, idiomaDestino));
+            return errores;
+        }
+        if (!esValido()) {
+            errores.add(Traductor.ValidadorIncremental.error(traduccion.validador));
+            return errores;
+        }
+        int fin = finTraducido();
+        for (int i = 0; i < fin; i++) {
+            CodigoError error = lineas.get(i).error;
+            if (error != null) {
+                errores.agregar(i + 1, error);
+            }
+        }
+        return errores;
+    }
+
+    /*Código traducido del texto completo, igual que en Traductor.traducir.*/
+    public String getTraduccion() {
+        if (!esValido()) {
+            return "";
+        }
+        StringBuilder resultado = new StringBuilder();
+        int fin = finTraducido();
+        for (int i = 0; i < fin; i++) {
+            String salida = lineas.get(i).salida;
+            if (salida != null) {
+                resultado.append(salida).append('\n');
+            }
+        }
+        return resultado.toString();
+    }
+
+    // Igual que split("\\n"), las líneas vacías del final no forman parte de la traducción.
+    private int finTraducido() {
+        int fin = lineas.size();
+        while (fin > 0 && lineas.get(fin - 1).vacia) {
+            fin--;
+        }
+        return fin;
+    }
+
+    private Linea traducir(String texto, int estadoEntrada) {
+        Linea linea = new Linea();
+        linea.fuente = texto;
+        linea.estadoEntrada = estadoEntrada;
+        traduccion.errores.clear();
+        traduccion.salida.setLength(0);
+        traduccion.estado = estadoEntrada;
+        traduccion.procesarLinea(texto, 1);
+        linea.estadoSalida = traduccion.estado;
+        // Una línea puede traducirse y tener error a la vez (par no soportado) o no traducirse (palabra 'error').
+        if (traduccion.salida.length() > 0) {
+            linea.salida = traduccion.salida.substring(0, traduccion.salida.length() - 1);
+        }
+        if (!traduccion.errores.isEmpty()) {
+            linea.error = traduccion.errores.get(0).codigo;
+        }
+        linea.marcas = traduccion.marcasLinea;
+        linea.vacia = texto.isEmpty();
+        linea.conContenido = !texto.trim().isEmpty();
+        if ((linea.marcas & Traductor.ValidadorIncremental.MARCA_A) != 0) {
+            contadorMarcas[0]++;
+        }
+        if ((linea.marcas & Traductor.ValidadorIncremental.MARCA_B) != 0) {
+            contadorMarcas[1]++;
+        }
+        if (linea.conContenido) {
+            lineasConContenido++;
+        }
+        return linea;
+    }
+
+    private void descontar(Linea linea) {
+        if ((linea.marcas & Traductor.ValidadorIncremental.MARCA_A) != 0) {
+            contadorMarcas[0]--;
+        }
+        if ((linea.marcas & Traductor.ValidadorIncremental.MARCA_B) != 0) {
+            contadorMarcas[1]--;
+        }
+        if (linea.conContenido) {
+            lineasConContenido--;
+        }
+    }
+}
@@ -1,16 +1,43 @@
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public class Traductor {
 
-    // Clase para almacenar información de errores en la traducción
+    // Tamaño del búfer de caracteres usado por la traducción en flujo
+    private static final int TAMANO_BUFFER = 8192;
+
+    // A partir de este tamaño (en caracteres) la traducción se reparte entre varios hilos
+    private static final int UMBRAL_PARALELO = 1 << 20;
+
+    // Tamaño mínimo de cada trozo de la traducción en paralelo
+    private static final int TAMANO_MINIMO_TROZO = 64 * 1024;
+
+    // Error de la traducción: la línea, el código y el mensaje ya armado a partir de la plantilla del código
     public static class ErrorInfo {
-        public int linea;
-        public String mensaje;
+        public final int linea;
+        public final String mensaje;
+        public final CodigoError codigo;
+        final String detalle;
 
         public ErrorInfo(int linea, String mensaje) {
+            this(linea, CodigoError.GENERAL, mensaje);
+        }
+
+        public ErrorInfo(int linea, CodigoError codigo, String detalle) {
             this.linea = linea;
-            this.mensaje = mensaje;
+            this.codigo = codigo;
+            this.detalle = codigo.tieneDetalle() ? detalle : null;
+            this.mensaje = codigo.mensaje(detalle);
         }
     }
 
@@ -27,7 +54,10 @@ public class Traductor {
 
     /**
      * Método principal que realiza la traducción del código.
-     * Primero valida que el código corresponda al lenguaje de origen y luego traduce línea a línea.
+     * Traduce línea a línea y, en la misma pasada del analizador léxico, valida que el código corresponda
+     * al lenguaje de origen; si no corresponde se descarta la traducción y solo se informa ese error.
+     * Si RegistroIdiomas no tiene el par, se informa un único error sin recorrer el código.
+     * Los errores se guardan en un ErroresTraduccion con el límite predeterminado.
      *
      * @param codigo       Código fuente a traducir.
      * @param idiomaOrigen Idioma de origen (por ejemplo, "Java", "C++", "JS").
@@ -36,181 +66,616 @@ public class Traductor {
      * @throws Exception Si el código es nulo o está vacío.
      */
     public static ResultadoTraduccion traducir(String codigo, String idiomaOrigen, String idiomaDestino) throws Exception {
-        List<ErrorInfo> errores = new ArrayList<>();
+        return traducir(codigo, idiomaOrigen, idiomaDestino, new ErroresTraduccion());
+    }
 
+    /**
+     * Igual que traducir(String, String, String), pero guarda los errores en la colección indicada, con su
+     * límite y su receptor. Si tiene receptor la traducción no se reparte entre varios hilos, para que los
+     * errores lleguen en orden mientras se traduce.
+     */
+    public static ResultadoTraduccion traducir(String codigo, String idiomaOrigen, String idiomaDestino,
+                                               ErroresTraduccion errores) throws Exception {
         if (codigo == null || codigo.trim().isEmpty()) {
             throw new Exception("El código es nulo o está vacío.");
         }
+        if (RegistroIdiomas.buscar(idiomaOrigen, idiomaDestino) == null) {
+            return resultadoNoSoportado(idiomaOrigen, idiomaDestino, errores);
+        }
+
+        // Se recorre el texto con indexOf en lugar de split("\\n"); igual que split, las líneas
+        // vacías del final no se traducen.
+        int fin = codigo.length();
+        while (fin > 0 && codigo.charAt(fin - 1) == '\n') {
+            fin--;
+        }
+        if (fin >= UMBRAL_PARALELO && ForkJoinPool.getCommonPoolParallelism() > 1 && errores.getReceptor() == null) {
+            return traducirEnParalelo(codigo, fin, idiomaOrigen, idiomaDestino, TAMANO_MINIMO_TROZO, errores);
+        }
 
+        long inicio = System.nanoTime();
+        TraduccionEnCurso traduccion = new TraduccionEnCurso(idiomaOrigen, idiomaDestino, errores, codigo.length());
+        traduccion.procesarRango(codigo, 0, fin, 1);
         // Validar que el código fuente tenga los elementos mínimos del idioma de origen.
-        if (!validarCodigo(codigo, idiomaOrigen, errores)) {
-            return new ResultadoTraduccion("", errores);
+        boolean valido = validar(traduccion.validador, traduccion.marcas);
+        traduccion.publicarMetricas(valido);
+        MetricasTraductor.GLOBAL.registrarTraduccion(codigo.length(), System.nanoTime() - inicio);
+        if (!valido) {
+            return resultadoInvalido(traduccion.validador, errores);
         }
+        return new ResultadoTraduccion(traduccion.salida.toString(), errores);
+    }
 
-        StringBuilder traduccion = new StringBuilder();
-        String[] lineas = codigo.split("\\n");
-        int numLinea = 1;
-        for (String linea : lineas) {
-            if (linea.contains("error")) {
-                errores.add(new ErrorInfo(numLinea, "Se encontró la palabra 'error' en la línea."));
-                numLinea++;
-                continue;
-            }
+    // Validación final de las marcas de todo el código, cronometrada como fase de validación
+    private static boolean validar(ValidadorIdioma validador, int marcas) {
+        long inicio = System.nanoTime();
+        boolean valido = validador.esValido(marcas);
+        MetricasTraductor.GLOBAL.registrarFase(MetricasTraductor.FASE_VALIDACION, System.nanoTime() - inicio);
+        return valido;
+    }
 
-            String lineaTraducida = traducirLinea(linea, idiomaOrigen, idiomaDestino, numLinea, errores);
-            traduccion.append(lineaTraducida).append("\n");
-            numLinea++;
-        }
+    // Los errores por línea se descartan y queda solo el de validación
+    private static ResultadoTraduccion resultadoInvalido(ValidadorIdioma validador, ErroresTraduccion errores) {
+        errores.clear();
+        errores.add(ValidadorIncremental.error(validador));
+        MetricasTraductor.GLOBAL.registrarErrores(validador.getError(), 1);
+        return new ResultadoTraduccion("", errores);
+    }
 
-        return new ResultadoTraduccion(traduccion.toString(), errores);
+    private static ResultadoTraduccion resultadoNoSoportado(String idiomaOrigen, String idiomaDestino, ErroresTraduccion errores) {
+        errores.add(errorNoSoportado(idiomaOrigen, idiomaDestino));
+        MetricasTraductor.GLOBAL.registrarErrores(CodigoError.PAR_NO_SOPORTADO, 1);
+        return new ResultadoTraduccion("", errores);
     }
 
-    /*Valida que el código fuente corresponda al idioma de origen esperado.*/
-    private static boolean validarCodigo(String codigo, String idiomaOrigen, List<ErrorInfo> errores) {
-        boolean valido = true;
-        if (idiomaOrigen.equals("Java")) {
-            if (!codigo.contains("class") || !codigo.contains("main(")) {
-                errores.add(new ErrorInfo(1, "El código fuente no parece ser Java (faltan 'class' o 'main')."));
-                valido = false;
-            }
-        } else if (idiomaOrigen.equals("C++")) {
-            if (!codigo.contains("#include") || !codigo.contains("main(")) {
-                errores.add(new ErrorInfo(1, "El código fuente no parece ser C++ (faltan '#include' o 'main')."));
-                valido = false;
+    static ErrorInfo errorNoSoportado(String idiomaOrigen, String idiomaDestino) {
+        return new ErrorInfo(1, CodigoError.PAR_NO_SOPORTADO, idiomaOrigen + " a " + idiomaDestino);
+    }
+
+    /**
+     * Traduce el código repartiéndolo en trozos de líneas completas que se procesan en el ForkJoinPool común.
+     * Cada trozo tiene su propia salida y lista de errores; al final se unen en orden y se corrigen los
+     * números de línea, por lo que el resultado es idéntico al de la traducción secuencial.
+     * Cada trozo supone que empieza fuera de comentarios y cadenas; si el trozo anterior termina dentro de uno,
+     * ese trozo se vuelve a traducir con el estado léxico correcto al unir los resultados.
+     * traducir(String, ...) usa este modo automáticamente para entradas grandes.
+     */
+    public static ResultadoTraduccion traducirEnParalelo(String codigo, String idiomaOrigen, String idiomaDestino) throws Exception {
+        return traducirEnParalelo(codigo, idiomaOrigen, idiomaDestino, TAMANO_MINIMO_TROZO);
+    }
+
+    static ResultadoTraduccion traducirEnParalelo(String codigo, String idiomaOrigen, String idiomaDestino, int tamanoMinimoTrozo) throws Exception {
+        return traducirEnParalelo(codigo, idiomaOrigen, idiomaDestino, tamanoMinimoTrozo, new ErroresTraduccion());
+    }
+
+    static ResultadoTraduccion traducirEnParalelo(String codigo, String idiomaOrigen, String idiomaDestino, int tamanoMinimoTrozo,
+                                                  ErroresTraduccion errores) throws Exception {
+        if (codigo == null || codigo.trim().isEmpty()) {
+            throw new Exception("El código es nulo o está vacío.");
+        }
+        if (RegistroIdiomas.buscar(idiomaOrigen, idiomaDestino) == null) {
+            return resultadoNoSoportado(idiomaOrigen, idiomaDestino, errores);
+        }
+        int fin = codigo.length();
+        while (fin > 0 && codigo.charAt(fin - 1) == '\n') {
+            fin--;
+        }
+        return traducirEnParalelo(codigo, fin, idiomaOrigen, idiomaDestino, tamanoMinimoTrozo, errores);
+    }
+
+    private static ResultadoTraduccion traducirEnParalelo(String codigo, int fin, String idiomaOrigen, String idiomaDestino,
+                                                          int tamanoMinimoTrozo, ErroresTraduccion errores) {
+        long comienzo = System.nanoTime();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        // Unos cuantos trozos por hilo para repartir mejor la carga cuando las líneas no cuestan lo mismo.
+        int tamanoTrozo = Math.max(tamanoMinimoTrozo, fin / (pool.getParallelism() * 4));
+        List<TrozoTraduccion> trozos = new ArrayList<>();
+        int inicio = 0;
+        while (inicio < fin) {
+            int corte = inicio + tamanoTrozo >= fin ? -1 : codigo.indexOf('\n', inicio + tamanoTrozo);
+            int finTrozo = corte == -1 || corte >= fin ? fin : corte + 1;
+            trozos.add(new TrozoTraduccion(codigo, inicio, finTrozo, idiomaOrigen, idiomaDestino, errores.getLimite()));
+            inicio = finTrozo;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(trozos);
             }
-        } else if (idiomaOrigen.equals("JS")) {
-            if (!codigo.contains("function") && !codigo.contains("console.log")) {
-                errores.add(new ErrorInfo(1, "El código fuente no parece ser JavaScript (faltan 'function' o 'console.log')."));
-                valido = false;
+        });
+
+        int longitud = 0;
+        int estado = AnalizadorLexico.NORMAL;
+        int marcas = 0;
+        for (TrozoTraduccion trozo : trozos) {
+            if (trozo.estadoEntrada != estado) {
+                trozo.traducir(estado);
             }
+            estado = trozo.traduccion.estado;
+            marcas |= trozo.traduccion.marcas;
+            longitud += trozo.traduccion.salida.length();
         }
-        return valido;
+        ValidadorIdioma validador = trozos.get(0).traduccion.validador;
+        boolean valido = validar(validador, marcas);
+        for (TrozoTraduccion trozo : trozos) {
+            trozo.traduccion.publicarMetricas(valido);
+        }
+        MetricasTraductor.GLOBAL.registrarTraduccion(codigo.length(), System.nanoTime() - comienzo);
+        if (!valido) {
+            return resultadoInvalido(validador, errores);
+        }
+        StringBuilder salida = new StringBuilder(longitud);
+        for (TrozoTraduccion trozo : trozos) {
+            salida.append(trozo.traduccion.salida);
+        }
+        long inicioErrores = System.nanoTime();
+        int desplazamiento = 0;
+        for (TrozoTraduccion trozo : trozos) {
+            errores.agregarTodos(trozo.traduccion.errores, desplazamiento);
+            desplazamiento += trozo.lineas;
+        }
+        MetricasTraductor.GLOBAL.registrarFase(MetricasTraductor.FASE_ERRORES, System.nanoTime() - inicioErrores);
+        return new ResultadoTraduccion(salida.toString(), errores);
     }
 
+    /*
+     * Trozo de líneas completas que se traduce de forma independiente, numerando sus líneas desde 1. Sus errores
+     * se guardan con el límite de la colección final, así que ningún trozo omite un error que ella guardaría.
+     */
+    private static class TrozoTraduccion extends RecursiveAction {
+        private final String codigo;
+        private final int inicio;
+        private final int fin;
+        private final String idiomaOrigen;
+        private final String idiomaDestino;
+        private final int limiteErrores;
+        private TraduccionEnCurso traduccion;
+        private int estadoEntrada;
+        private int lineas;
 
-    private static String traducirLinea(String linea, String idiomaOrigen, String idiomaDestino, int numLinea, List<ErrorInfo> errores) {
-        // Si el idioma de origen y destino son iguales, se retorna la línea sin cambios.
-        if (idiomaOrigen.equals(idiomaDestino)) {
-            return linea;
+        TrozoTraduccion(String codigo, int inicio, int fin, String idiomaOrigen, String idiomaDestino, int limiteErrores) {
+            this.codigo = codigo;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.idiomaOrigen = idiomaOrigen;
+            this.idiomaDestino = idiomaDestino;
+            this.limiteErrores = limiteErrores;
         }
 
-        if (idiomaOrigen.equals("Java")) {
-            if (idiomaDestino.equals("JS")) {
-                return traducirLineaJavaToJS(linea, numLinea, errores);
-            } else if (idiomaDestino.equals("C++")) {
-                return traducirLineaJavaToCpp(linea, numLinea, errores);
-            }
-        } else if (idiomaOrigen.equals("C++")) {
-            if (idiomaDestino.equals("JS")) {
-                return traducirLineaCppToJS(linea, numLinea, errores);
-            } else if (idiomaDestino.equals("Java")) {
-                return traducirLineaCppToJava(linea, numLinea, errores);
+        @Override
+        protected void compute() {
+            traducir(AnalizadorLexico.NORMAL);
+        }
+
+        void traducir(int estado) {
+            estadoEntrada = estado;
+            traduccion = new TraduccionEnCurso(idiomaOrigen, idiomaDestino,
+                    new ErroresTraduccion(limiteErrores, null), fin - inicio);
+            traduccion.estado = estado;
+            lineas = traduccion.procesarRango(codigo, inicio, fin, 1) - 1;
+        }
+    }
+
+    /**
+     * Traduce el código leyendo de un Reader y escribiendo en un Writer en una sola pasada.
+     * Solo se mantiene en memoria la línea actual, por lo que el consumo no depende del tamaño de la entrada.
+     * La salida es la misma que produce traducir(String, ...); como la validación solo puede
+     * decidirse al final, si la lista devuelta contiene el error de validación la salida escrita debe descartarse.
+     *
+     * @param entrada      Origen del código fuente.
+     * @param salida       Destino del código traducido.
+     * @param idiomaOrigen Idioma de origen (por ejemplo, "Java", "C++", "JS").
+     * @param idiomaDestino Idioma destino (por ejemplo, "JS" o "C++").
+     * @return Lista de errores encontrados durante la traducción.
+     * @throws Exception Si la entrada es nula, está vacía o falla la lectura/escritura.
+     */
+    public static List<ErrorInfo> traducir(Reader entrada, Writer salida, String idiomaOrigen, String idiomaDestino) throws Exception {
+        return traducir(entrada, salida, idiomaOrigen, idiomaDestino, new ErroresTraduccion());
+    }
+
+    /*Igual que traducir(Reader, Writer, ...), pero guarda los errores en la colección indicada y la devuelve.*/
+    public static ErroresTraduccion traducir(Reader entrada, Writer salida, String idiomaOrigen, String idiomaDestino,
+                                             ErroresTraduccion errores) throws Exception {
+        traducirFlujo(entrada, salida, idiomaOrigen, idiomaDestino, errores);
+        return errores;
+    }
+
+    /**
+     * Traduce un archivo a otro sin cargarlos en memoria: la entrada se mapea con FileChannel.map y se
+     * decodifica por ventanas, y la salida se codifica en un búfer directo que se escribe en el canal.
+     * El consumo de memoria no depende del tamaño del archivo. Si el código no pasa la validación el archivo
+     * de salida queda vacío, igual que la traducción de traducir(String, ...); si la traducción falla se borra.
+     *
+     * @return Lista de errores encontrados durante la traducción.
+     * @throws Exception Si el archivo está vacío o falla la lectura/escritura.
+     */
+    public static List<ErrorInfo> traducirArchivo(Path entrada, Path salida, String idiomaOrigen, String idiomaDestino) throws Exception {
+        return traducirArchivo(entrada, salida, idiomaOrigen, idiomaDestino, new ErroresTraduccion());
+    }
+
+    /*
+     * Igual que traducirArchivo(Path, Path, ...), pero guarda los errores en la colección indicada y la devuelve.
+     * Con un receptor, los errores de un archivo grande se pueden mostrar mientras se traduce.
+     */
+    public static ErroresTraduccion traducirArchivo(Path entrada, Path salida, String idiomaOrigen, String idiomaDestino,
+                                                    ErroresTraduccion errores) throws Exception {
+        boolean completo = false;
+        try (FileChannel canalEntrada = FileChannel.open(entrada, StandardOpenOption.READ);
+             FileChannel canalSalida = FileChannel.open(salida, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            ArchivoMapeado.Escritor escritor = new ArchivoMapeado.Escritor(canalSalida);
+            boolean valido = traducirFlujo(new ArchivoMapeado.Lector(canalEntrada), escritor, idiomaOrigen, idiomaDestino, errores);
+            escritor.close();
+            if (!valido) {
+                canalSalida.truncate(0);
             }
-        } else if (idiomaOrigen.equals("JS")) {
-            if (idiomaDestino.equals("Java")) {
-                return traducirLineaJSToJava(linea, numLinea, errores);
-            } else if (idiomaDestino.equals("C++")) {
-                return traducirLineaJSToCpp(linea, numLinea, errores);
+            completo = true;
+        } finally {
+            if (!completo) {
+                Files.deleteIfExists(salida);
             }
         }
-        // Si la conversión no está soportada, se notifica el error.
-        errores.add(new ErrorInfo(numLinea, "Conversión de " + idiomaOrigen + " a " + idiomaDestino + " no soportada."));
-        return linea;
+        return errores;
     }
 
-    /*Traduce una línea de código de Java a JavaScript.*/
-    private static String traducirLineaJavaToJS(String linea, int numLinea, List<ErrorInfo> errores) {
-        String resultado = linea;
-        if (resultado.trim().startsWith("public class")) {
-            return "// Clase omitida en JS";
+    /*Traducción en flujo; devuelve false si la salida escrita debe descartarse (par no soportado o código inválido).*/
+    private static boolean traducirFlujo(Reader entrada, Writer salida, String idiomaOrigen, String idiomaDestino,
+                                         ErroresTraduccion errores) throws Exception {
+        if (entrada == null) {
+            throw new Exception("El código es nulo o está vacío.");
         }
-        if (resultado.contains("public static void main")) {
-            resultado = resultado.replace("public static void main(String[] args)", "function main()");
+        if (RegistroIdiomas.buscar(idiomaOrigen, idiomaDestino) == null) {
+            // Solo se lee hasta encontrar contenido, para distinguir la entrada vacía igual que con un String.
+            if (!tieneContenido(entrada)) {
+                throw new Exception("El código es nulo o está vacío.");
+            }
+            resultadoNoSoportado(idiomaOrigen, idiomaDestino, errores);
+            return false;
         }
-        if (resultado.contains("System.out.println")) {
-            resultado = resultado.replace("System.out.println", "console.log");
+
+        long comienzo = System.nanoTime();
+        long caracteres = 0;
+        TraduccionEnCurso traduccion = new TraduccionEnCurso(idiomaOrigen, idiomaDestino, errores, TAMANO_BUFFER);
+        char[] buffer = new char[TAMANO_BUFFER];
+        StringBuilder linea = new StringBuilder();
+        boolean hayContenido = false;
+        int lineasVaciasPendientes = 0;
+        int numLinea = 1;
+
+        int leidos;
+        while ((leidos = entrada.read(buffer)) != -1) {
+            caracteres += leidos;
+            int inicio = 0;
+            for (int i = 0; i < leidos; i++) {
+                char c = buffer[i];
+                if (c > ' ') {
+                    hayContenido = true;
+                }
+                if (c != '\n') {
+                    continue;
+                }
+                linea.append(buffer, inicio, i - inicio);
+                inicio = i + 1;
+                if (linea.length() == 0) {
+                    // Las líneas vacías solo se traducen si después aparece otra con contenido.
+                    lineasVaciasPendientes++;
+                    continue;
+                }
+                numLinea = traduccion.procesarVacias(lineasVaciasPendientes, numLinea);
+                lineasVaciasPendientes = 0;
+                traduccion.procesarLinea(linea.toString(), numLinea++);
+                linea.setLength(0);
+                if (traduccion.salida.length() >= TAMANO_BUFFER) {
+                    salida.append(traduccion.salida);
+                    traduccion.salida.setLength(0);
+                }
+            }
+            linea.append(buffer, inicio, leidos - inicio);
         }
-        return resultado;
-    }
+        if (linea.length() > 0) {
+            numLinea = traduccion.procesarVacias(lineasVaciasPendientes, numLinea);
+            traduccion.procesarLinea(linea.toString(), numLinea);
+        }
+        salida.append(traduccion.salida);
+        salida.flush();
 
-    /*Traduce una línea de código de Java a C++.*/
-    private static String traducirLineaJavaToCpp(String linea, int numLinea, List<ErrorInfo> errores) {
-        String resultado = linea;
-        if (resultado.trim().startsWith("public class")) {
-            return "// Clase traducida omitida en C++";
+        if (!hayContenido) {
+            throw new Exception("El código es nulo o está vacío.");
         }
-        if (resultado.contains("public static void main")) {
-            resultado = resultado.replace("public static void main(String[] args)", "int main()");
+        boolean valido = validar(traduccion.validador, traduccion.marcas);
+        traduccion.publicarMetricas(valido);
+        MetricasTraductor.GLOBAL.registrarTraduccion(caracteres, System.nanoTime() - comienzo);
+        if (!valido) {
+            resultadoInvalido(traduccion.validador, errores);
         }
-        if (resultado.contains("System.out.println")) {
-            resultado = resultado.replace("System.out.println", "std::cout << ");
-            if (resultado.contains(");")) {
-                resultado = resultado.replace(");", " << std::endl;");
+        return valido;
+    }
+
+    private static boolean tieneContenido(Reader entrada) throws Exception {
+        char[] buffer = new char[TAMANO_BUFFER];
+        int leidos;
+        while ((leidos = entrada.read(buffer)) != -1) {
+            for (int i = 0; i < leidos; i++) {
+                if (buffer[i] > ' ') {
+                    return true;
+                }
             }
         }
-        return resultado;
+        return false;
     }
 
-    /*Traduce una línea de código de C++ a JavaScript.*/
-    private static String traducirLineaCppToJS(String linea, int numLinea, List<ErrorInfo> errores) {
-        String resultado = linea;
+    /*
+     * Estado de una traducción: la salida acumulada, los errores, el estado del analizador léxico, las marcas
+     * de validación vistas y los arreglos de trabajo. Se crea uno por llamada, así que las traducciones
+     * concurrentes no comparten nada mutable.
+     */
+    static class TraduccionEnCurso {
+        final String idiomaOrigen;
+        final String idiomaDestino;
+        final ErroresTraduccion errores;
+        final StringBuilder salida;
+        final ParIdiomas par; // null si la conversión no está soportada; las líneas se copian sin cambios
+        final ValidadorIdioma validador; // Del idioma de origen, resuelto una vez con el par
+        int estado = AnalizadorLexico.NORMAL; // Estado léxico al terminar la última línea
+        int marcas; // Marcas de validación de todas las líneas procesadas
+        int marcasLinea; // Marcas de validación de la última línea procesada
+        private final AnalizadorLexico lexico;
+        // Cifras para MetricasTraductor, acumuladas sin sincronizar hasta publicarMetricas
+        private long lineas;
+        private long lineasMuestreadas;
+        private final long[] nanosFases = new long[MetricasTraductor.CANTIDAD_FASES];
+        private long erroresPalabra;
+        private final long[] reglasUsadas; // Por regla del par; se publican solo si el resultado se acepta
+        private final AnalizadorLexico.Tokens tokens = new AnalizadorLexico.Tokens();
+        private final AhoCorasick.Coincidencias coincidencias = new AhoCorasick.Coincidencias();
 
-        if (resultado.trim().startsWith("#include")) {
-            return "// Directiva de preprocesador omitida";
-        }
-        if (resultado.trim().startsWith("using namespace")) {
-            return "";
+        TraduccionEnCurso(String idiomaOrigen, String idiomaDestino, ErroresTraduccion errores, int capacidad) {
+            this.idiomaOrigen = idiomaOrigen;
+            this.idiomaDestino = idiomaDestino;
+            this.errores = errores;
+            this.salida = new StringBuilder(capacidad);
+            this.par = RegistroIdiomas.buscar(idiomaOrigen, idiomaDestino);
+            // El par entrega el dialecto léxico y el validador de su origen; sin par se usan los del nombre
+            if (par != null) {
+                this.lexico = new AnalizadorLexico(par.getDialectoOrigen());
+                this.validador = par.getValidadorOrigen();
+            } else {
+                this.lexico = new AnalizadorLexico(AnalizadorLexico.dialecto(idiomaOrigen));
+                this.validador = ValidadorIncremental.para(idiomaOrigen);
+            }
+            this.reglasUsadas = par == null ? null : new long[par.getCantidadReglas()];
         }
-        if (resultado.contains("int main(")) {
-            resultado = resultado.replace("int main()", "function main()");
+
+        /*Traduce las líneas de codigo[inicio, fin) y devuelve el número de la línea siguiente.*/
+        int procesarRango(String codigo, int inicio, int fin, int numLinea) {
+            while (inicio < fin) {
+                int salto = codigo.indexOf('\n', inicio);
+                if (salto == -1 || salto > fin) {
+                    salto = fin;
+                }
+                procesarLinea(codigo.substring(inicio, salto), numLinea++);
+                inicio = salto + 1;
+            }
+            return numLinea;
         }
-        if (resultado.contains("std::cout")) {
-            int start = resultado.indexOf("std::cout");
-            int posInicio = resultado.indexOf("<<", start);
-            int posFin = resultado.indexOf("<< std::endl");
-            if (posInicio != -1 && posFin != -1 && posFin > posInicio) {
-                String contenido = resultado.substring(posInicio + 2, posFin).trim();
-                resultado = "console.log(" + contenido + ");";
-            } else {
-                resultado = resultado.replace("std::cout", "console.log");
+
+        /*Traduce las líneas vacías que quedaron pendientes y devuelve el siguiente número de línea.*/
+        int procesarVacias(int pendientes, int numLinea) {
+            for (int i = 0; i < pendientes; i++) {
+                procesarLinea("", numLinea++);
             }
+            return numLinea;
         }
-        return resultado;
-    }
 
-    /*Traduce una línea de código de C++ a Java.*/
-    private static String traducirLineaCppToJava(String linea, int numLinea, List<ErrorInfo> errores) {
-        String resultado = linea;
-        if (resultado.contains("int main(")) {
-            resultado = resultado.replace("int main()", "public static void main(String[] args)");
+        /*
+         * Analiza la línea una sola vez y usa los tokens para la validación, la búsqueda de la palabra 'error'
+         * (solo como identificador, no dentro de cadenas o comentarios) y la traducción.
+         */
+        void procesarLinea(String linea, int numLinea) {
+            boolean muestrear = (++lineas & MetricasTraductor.MASCARA_MUESTREO) == 0;
+            long inicio = muestrear ? System.nanoTime() : 0;
+            tokens.limpiar();
+            int entrada = estado;
+            estado = lexico.analizar(linea, 0, linea.length(), entrada, tokens);
+            long finLexico = muestrear ? System.nanoTime() : 0;
+            marcasLinea = validador.marcas(linea, tokens);
+            marcas |= marcasLinea;
+            long finValidacion = muestrear ? System.nanoTime() : 0;
+            boolean conError = contieneIdentificador(linea, "error");
+            if (conError) {
+                errores.agregar(numLinea, CodigoError.PALABRA_ERROR);
+                erroresPalabra++;
+            }
+            long finErrores = muestrear ? System.nanoTime() : 0;
+            if (!conError) {
+                if (par != null) {
+                    par.traducir(linea, tokens, entrada, salida, coincidencias, reglasUsadas);
+                } else {
+                    salida.append(linea);
+                }
+                salida.append('\n');
+            }
+            if (muestrear) {
+                lineasMuestreadas++;
+                nanosFases[MetricasTraductor.FASE_LEXICO] += finLexico - inicio;
+                nanosFases[MetricasTraductor.FASE_VALIDACION] += finValidacion - finLexico;
+                nanosFases[MetricasTraductor.FASE_ERRORES] += finErrores - finValidacion;
+                nanosFases[MetricasTraductor.FASE_REESCRITURA] += System.nanoTime() - finErrores;
+            }
         }
-        if (resultado.contains("console.log")) {
-            resultado = resultado.replace("console.log", "System.out.println");
+
+        /*
+         * Publica en MetricasTraductor lo acumulado desde la última publicación. Los errores por línea y las
+         * reglas aplicadas solo cuentan si el código resultó válido, porque si no la traducción se descarta y se
+         * informa el error de validación. Un trozo que se vuelve a traducir crea otra TraduccionEnCurso, así que
+         * lo de la pasada descartada nunca se publica.
+         */
+        void publicarMetricas(boolean valido) {
+            MetricasTraductor metricas = MetricasTraductor.GLOBAL;
+            metricas.registrarLineas(lineas, lineasMuestreadas, nanosFases);
+            if (valido) {
+                metricas.registrarErrores(CodigoError.PALABRA_ERROR, erroresPalabra);
+                if (par != null) {
+                    par.publicarAplicaciones(reglasUsadas);
+                }
+            }
+            if (reglasUsadas != null) {
+                Arrays.fill(reglasUsadas, 0);
+            }
+            lineas = 0;
+            lineasMuestreadas = 0;
+            Arrays.fill(nanosFases, 0);
+            erroresPalabra = 0;
         }
-        if (resultado.trim().startsWith("#include") || resultado.trim().startsWith("using namespace")) {
-            return "// Directiva omitida en Java";
+
+        private boolean contieneIdentificador(String linea, String identificador) {
+            for (int i = 0; i < tokens.cantidad(); i++) {
+                if (tokens.tipo(i) == AnalizadorLexico.IDENTIFICADOR && tokens.es(linea, i, identificador)) {
+                    return true;
+                }
+            }
+            return false;
         }
-        return resultado;
     }
 
-    /*Traduce una línea de código de JavaScript a Java.*/
-    private static String traducirLineaJSToJava(String linea, int numLinea, List<ErrorInfo> errores) {
-        String resultado = linea;
-        if (resultado.contains("console.log")) {
-            resultado = resultado.replace("console.log", "System.out.println");
+    /*
+     * Validadores de los idiomas incluidos: marcas mínimas que debe tener el código de cada uno, buscadas en los
+     * tokens de cada línea (las que aparecen dentro de cadenas o comentarios no cuentan).
+     */
+    static class ValidadorIncremental {
+        static final int MARCA_A = ValidadorIdioma.MARCA_A;
+        static final int MARCA_B = ValidadorIdioma.MARCA_B;
+
+        // Java: 'class' y una llamada o declaración de main
+        static final ValidadorIdioma JAVA = new ValidadorIdioma() {
+            @Override
+            public int marcas(String linea, AnalizadorLexico.Tokens tokens) {
+                int marcas = 0;
+                for (int i = 0; i < tokens.cantidad(); i++) {
+                    if (tokens.tipo(i) == AnalizadorLexico.IDENTIFICADOR && tokens.es(linea, i, "class")) {
+                        marcas |= MARCA_A;
+                    } else if (esLlamada(linea, tokens, i, "main")) {
+                        marcas |= MARCA_B;
+                    }
+                }
+                return marcas;
+            }
+
+            @Override
+            public boolean esValido(int marcas) {
+                return marcas == (MARCA_A | MARCA_B);
+            }
+
+            @Override
+            public CodigoError getError() {
+                return CodigoError.NO_ES_JAVA;
+            }
+        };
+
+        // C++: '#include' y main
+        static final ValidadorIdioma CPP = new ValidadorIdioma() {
+            @Override
+            public int marcas(String linea, AnalizadorLexico.Tokens tokens) {
+                int marcas = 0;
+                for (int i = 0; i < tokens.cantidad(); i++) {
+                    if (tokens.tipo(i) == AnalizadorLexico.DIRECTIVA && esInclude(linea, tokens.inicio(i), tokens.fin(i))) {
+                        marcas |= MARCA_A;
+                    } else if (esLlamada(linea, tokens, i, "main")) {
+                        marcas |= MARCA_B;
+                    }
+                }
+                return marcas;
+            }
+
+            @Override
+            public boolean esValido(int marcas) {
+                return marcas == (MARCA_A | MARCA_B);
+            }
+
+            @Override
+            public CodigoError getError() {
+                return CodigoError.NO_ES_CPP;
+            }
+        };
+
+        // JS: 'function' o console.log
+        static final ValidadorIdioma JS = new ValidadorIdioma() {
+            @Override
+            public int marcas(String linea, AnalizadorLexico.Tokens tokens) {
+                int marcas = 0;
+                for (int i = 0; i < tokens.cantidad(); i++) {
+                    if (tokens.tipo(i) != AnalizadorLexico.IDENTIFICADOR) {
+                        continue;
+                    }
+                    if (tokens.es(linea, i, "function")) {
+                        marcas |= MARCA_A;
+                    } else if (tokens.es(linea, i, "console") && i + 2 < tokens.cantidad()
+                            && tokens.es(linea, i + 1, ".") && tokens.es(linea, i + 2, "log")) {
+                        marcas |= MARCA_B;
+                    }
+                }
+                return marcas;
+            }
+
+            @Override
+            public boolean esValido(int marcas) {
+                return marcas != 0;
+            }
+
+            @Override
+            public CodigoError getError() {
+                return CodigoError.NO_ES_JS;
+            }
+        };
+
+        // Idiomas sin validación: se acepta cualquier código
+        static final ValidadorIdioma NINGUNO = new ValidadorIdioma() {
+            @Override
+            public int marcas(String linea, AnalizadorLexico.Tokens tokens) {
+                return 0;
+            }
+
+            @Override
+            public boolean esValido(int marcas) {
+                return true;
+            }
+
+            @Override
+            public CodigoError getError() {
+                return CodigoError.GENERAL;
+            }
+        };
+
+        /*Validador de un idioma incluido, o NINGUNO si el idioma no es Java, C++ ni JS.*/
+        static ValidadorIdioma para(String idioma) {
+            if (idioma.equals("Java")) {
+                return JAVA;
+            } else if (idioma.equals("C++")) {
+                return CPP;
+            } else if (idioma.equals("JS")) {
+                return JS;
+            }
+            return NINGUNO;
         }
-        return resultado;
-    }
 
-    /* Traduce una línea de código de JavaScript a C++.*/
-    private static String traducirLineaJSToCpp(String linea, int numLinea, List<ErrorInfo> errores) {
-        String resultado = linea;
-        if (resultado.contains("console.log")) {
-            resultado = resultado.replace("console.log", "std::cout << ");
-            if (resultado.contains(");")) {
-                resultado = resultado.replace(");", " << std::endl;");
+        // Identificador seguido de '('
+        private static boolean esLlamada(String linea, AnalizadorLexico.Tokens tokens, int i, String nombre) {
+            return tokens.tipo(i) == AnalizadorLexico.IDENTIFICADOR && tokens.es(linea, i, nombre)
+                    && i + 1 < tokens.cantidad() && tokens.es(linea, i + 1, "(");
+        }
+
+        // '#', espacios opcionales y la palabra include
+        private static boolean esInclude(String linea, int inicio, int fin) {
+            int i = inicio + 1;
+            while (i < fin && linea.charAt(i) <= ' ') {
+                i++;
             }
+            return linea.startsWith("include", i)
+                    && (i + 7 >= fin || !AnalizadorLexico.esParteIdentificador(linea.charAt(i + 7)));
+        }
+
+        static ErrorInfo error(ValidadorIdioma validador) {
+            return new ErrorInfo(1, validador.getError(), null);
         }
-        return resultado;
     }
 }
@@ -0,0 +1,117 @@
+/**
+ * Modo de traducción estructural: en lugar de reescribir línea a línea, analiza el código con
+ * AnalizadorSintactico y genera el destino con EmisorCodigo, así que las sentencias que ocupan varias líneas,
+ * los cuerpos de las clases y los bucles se traducen completos. Solo admite Java, C++ y JS.
+ *
+ * Cada hilo reutiliza su ArbolSintactico entre traducciones, de modo que después de la primera no se asigna
+ * memoria para tokens ni nodos; un árbol que creció por un código muy grande se descarta al terminar.
+ * La validación del idioma de origen y los errores de la palabra 'error' son los mismos que en
+ * Traductor.traducir, a los que se suman los errores de sintaxis de lo que el modo no reconoce.
+ * Un código con más niveles de anidamiento de los que admite AnalizadorSintactico se traduce en el modo por
+ * líneas, con un error ANIDAMIENTO que lo indica.
+ */
+public class TraductorEstructural {
+
+    // Un árbol con más tokens que esto no se conserva para la siguiente traducción
+    private static final int TOKENS_RETENIDOS = 1 << 20;
+
+    private static final ThreadLocal<ArbolSintactico> ARBOLES = new ThreadLocal<ArbolSintactico>() {
+        @Override
+        protected ArbolSintactico initialValue() {
+            return new ArbolSintactico();
+        }
+    };
+
+    /**
+     * Traduce el código en modo estructural.
+     *
+     * @param codigo        Código fuente a traducir.
+     * @param idiomaOrigen  Idioma de origen ("Java", "C++" o "JS").
+     * @param idiomaDestino Idioma destino.
+     * @return Código traducido y errores, ordenados por línea.
+     * @throws Exception Si el código es nulo o está vacío.
+     */
+    public static Traductor.ResultadoTraduccion traducir(String codigo, String idiomaOrigen, String idiomaDestino) throws Exception {
+        return traducir(codigo, idiomaOrigen, idiomaDestino, new ErroresTraduccion());
+    }
+
+    /*Igual que traducir(String, String, String), pero guarda los errores en la colección indicada.*/
+    public static Traductor.ResultadoTraduccion traducir(String codigo, String idiomaOrigen, String idiomaDestino,
+                                                         ErroresTraduccion errores) throws Exception {
+        if (codigo == null || codigo.trim().isEmpty()) {
+            throw new Exception("El código es nulo o está vacío.");
+        }
+        if (RegistroIdiomas.buscar(idiomaOrigen, idiomaDestino) == null) {
+            errores.add(Traductor.errorNoSoportado(idiomaOrigen, idiomaDestino));
+            MetricasTraductor.GLOBAL.registrarErrores(CodigoError.PAR_NO_SOPORTADO, 1);
+            return new Traductor.ResultadoTraduccion("", errores);
+        }
+        int origen = AnalizadorSintactico.idioma(idiomaOrigen);
+        int destino = AnalizadorSintactico.idioma(idiomaDestino);
+        if (origen == -1 || destino == -1) {
+            errores.agregar(1, CodigoError.IDIOMAS_ESTRUCTURAL);
+            return new Traductor.ResultadoTraduccion("", errores);
+        }
+        if (origen == destino) {
+            return Traductor.traducir(codigo, idiomaOrigen, idiomaDestino, errores);
+        }
+
+        long inicio = System.nanoTime();
+        ArbolSintactico arbol = ARBOLES.get();
+        arbol.limpiar();
+        try {
+            AnalizadorSintactico analizador = new AnalizadorSintactico(arbol, codigo, idiomaOrigen, errores);
+            int marcas = analizador.tokenizar();
+            long finLexico = System.nanoTime();
+            // El analizador sintáctico solo admite los idiomas incluidos, así que se usan sus validadores
+            ValidadorIdioma validador = Traductor.ValidadorIncremental.para(idiomaOrigen);
+            boolean valido = validador.esValido(marcas);
+            long finValidacion = System.nanoTime();
+            // Cada fase se mide completa, sin muestrear líneas
+            MetricasTraductor metricas = MetricasTraductor.GLOBAL;
+            metricas.registrarLineas(analizador.getLineas());
+            metricas.registrarFase(MetricasTraductor.FASE_LEXICO, finLexico - inicio);
+            metricas.registrarFase(MetricasTraductor.FASE_VALIDACION, finValidacion - finLexico);
+            if (!valido) {
+                metricas.registrarTraduccion(codigo.length(), System.nanoTime() - inicio);
+                metricas.registrarErrores(validador.getError(), 1);
+                errores.clear();
+                errores.add(Traductor.ValidadorIncremental.error(validador));
+                return new Traductor.ResultadoTraduccion("", errores);
+            }
+
+            int raiz = analizador.analizar();
+            if (analizador.excedioAnidamiento()) {
+                metricas.registrarFase(MetricasTraductor.FASE_REESCRITURA, System.nanoTime() - finValidacion);
+                return traducirPorLineas(codigo, idiomaOrigen, idiomaDestino, analizador.getLineaAnidamiento(), errores);
+            }
+            String traduccion = new EmisorCodigo(arbol, codigo, origen, destino, errores).emitir(raiz);
+            long finReescritura = System.nanoTime();
+            errores.ordenar();
+            long fin = System.nanoTime();
+            metricas.registrarFase(MetricasTraductor.FASE_REESCRITURA, finReescritura - finValidacion);
+            metricas.registrarFase(MetricasTraductor.FASE_ERRORES, fin - finReescritura);
+            metricas.registrarErrores(errores);
+            metricas.registrarTraduccion(codigo.length(), fin - inicio);
+            return new Traductor.ResultadoTraduccion(traduccion, errores);
+        } finally {
+            if (arbol.getCantidadTokens() > TOKENS_RETENIDOS) {
+                ARBOLES.remove();
+            }
+        }
+    }
+
+    /*
+     * Los errores del análisis incompleto se descartan y quedan el de anidamiento y los del modo por líneas.
+     * El de anidamiento se agrega primero para que no lo omita el límite de errores.
+     */
+    private static Traductor.ResultadoTraduccion traducirPorLineas(String codigo, String idiomaOrigen, String idiomaDestino,
+                                                                   int linea, ErroresTraduccion errores) throws Exception {
+        errores.clear();
+        errores.agregar(linea, CodigoError.ANIDAMIENTO, Integer.toString(AnalizadorSintactico.MAX_ANIDAMIENTO));
+        Traductor.ResultadoTraduccion resultado = Traductor.traducir(codigo, idiomaOrigen, idiomaDestino, errores);
+        errores.ordenar();
+        MetricasTraductor.GLOBAL.registrarErrores(CodigoError.ANIDAMIENTO, 1);
+        return resultado;
+    }
+}
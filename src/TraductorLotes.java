@@ -0,0 +1,490 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo de línea de comandos que traduce todos los archivos de un directorio.
+ *
+ *   java -jar traductor_de_codigo_A_S.jar --from Java --to JS --in src/ --out out/
+ *
+ * Los archivos pasan por una tubería acotada: el recorrido del árbol lanza la lectura de cada archivo en el
+ * ejecutor de E/S, los hilos de traducción (uno por núcleo) toman el contenido de una cola acotada y la escritura
+ * vuelve al ejecutor de E/S. Un semáforo limita cuántos archivos hay en vuelo, así que la memoria no depende del
+ * tamaño del árbol.
+ *
+ * Con --modo estructural los archivos se traducen con TraductorEstructural: se leen siempre completos, porque el
+ * análisis necesita todo el archivo, y no pasan por la caché, que guarda traducciones del modo por líneas.
+ *
+ * Con --from auto se traducen los archivos de todos los idiomas salvo el de destino, y el idioma de origen de cada
+ * uno se detecta con DetectorIdioma a partir de su contenido; si no se puede decidir se usa el de su extensión.
+ * Dos archivos que darían el mismo archivo de salida (a.cpp y a.js, o a.cpp y a.h) no se sobrescriben: se traduce
+ * el primero que encuentra el recorrido y el otro se informa como error.
+ *
+ * De cada archivo se informan como mucho --max-errores errores (1000 si no se indica) y una línea con la cantidad
+ * de los que no se muestran. Los errores de los archivos grandes se guardan hasta ese límite y se escriben al
+ * terminar, cuando ya se sabe si el archivo pasó la validación.
+ */
+public class TraductorLotes {
+
+    // Caracteres que la caché mantiene en memoria durante una ejecución por lotes
+    private static final long TAMANO_CACHE = 64L * 1024 * 1024;
+
+    // Los archivos de este tamaño o más se traducen de archivo a archivo sin cargarlos en memoria
+    private static final long UMBRAL_MAPEO = 64L * 1024 * 1024;
+
+    // Marca de fin para los hilos de traducción
+    private static final Trabajo FIN = new Trabajo(null, null, null, null);
+
+    // Valor de --from para detectar el idioma de cada archivo
+    static final String AUTOMATICO = "auto";
+
+    // Archivo leído que espera ser traducido; codigo es null si el archivo es grande y se traduce desde el disco
+    private static class Trabajo {
+        final Path entrada;
+        final Path salida;
+        final String codigo;
+        final String idioma;
+
+        Trabajo(Path entrada, Path salida, String codigo, String idioma) {
+            this.entrada = entrada;
+            this.salida = salida;
+            this.codigo = codigo;
+            this.idioma = idioma;
+        }
+    }
+
+    private final String idiomaOrigen;
+    private final boolean automatico; // Idioma de origen detectado en cada archivo
+    private final String idiomaDestino;
+    private final Path dirEntrada;
+    private final Path dirSalida;
+    private final int hilosTraduccion;
+    private final int capacidad;
+    private final Semaphore enVuelo;
+    private final BlockingQueue<Trabajo> colaTraduccion;
+    private final ExecutorService ejecutorIO;
+    private CacheTraduccion cache;
+    private boolean estructural;
+
+    private final AtomicLong archivos = new AtomicLong();
+    private final AtomicLong bytesLeidos = new AtomicLong();
+    private final AtomicLong errores = new AtomicLong();
+    private final AtomicLong archivosConErrores = new AtomicLong();
+
+    public TraductorLotes(String idiomaOrigen, String idiomaDestino, Path dirEntrada, Path dirSalida, int hilosTraduccion) {
+        this.idiomaOrigen = idiomaOrigen;
+        this.automatico = idiomaOrigen.equals(AUTOMATICO);
+        this.idiomaDestino = idiomaDestino;
+        this.dirEntrada = dirEntrada;
+        this.dirSalida = dirSalida;
+        this.hilosTraduccion = hilosTraduccion;
+        this.capacidad = hilosTraduccion * 4;
+        this.enVuelo = new Semaphore(capacidad);
+        this.colaTraduccion = new ArrayBlockingQueue<>(capacidad);
+        this.ejecutorIO = crearEjecutorIO();
+    }
+
+    /*
+     * Punto de entrada sin interfaz gráfica, equivalente a Main con argumentos. Es el que usa la imagen nativa,
+     * que así no arrastra Swing ni AWT.
+     */
+    public static void main(String[] args) {
+        System.exit(ejecutar(args));
+    }
+
+    /**
+     * Punto de entrada del modo por lotes.
+     *
+     * @param args Argumentos de la línea de comandos.
+     * @return Código de salida: 0 si todo se tradujo, 1 si hubo errores de traducción, 2 si los argumentos son inválidos.
+     */
+    public static int ejecutar(String[] args) {
+        String origen = null;
+        String destino = null;
+        String entrada = null;
+        String salida = null;
+        String dirCache = null;
+        String metricas = null;
+        String modo = "lineas";
+        int hilos = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String opcion = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Falta el valor de " + opcion);
+                }
+                String valor = args[++i];
+                if (opcion.equals("--from")) {
+                    origen = valor.equalsIgnoreCase(AUTOMATICO) ? AUTOMATICO : normalizarIdioma(valor);
+                } else if (opcion.equals("--to")) {
+                    destino = normalizarIdioma(valor);
+                } else if (opcion.equals("--in")) {
+                    entrada = valor;
+                } else if (opcion.equals("--out")) {
+                    salida = valor;
+                } else if (opcion.equals("--cache")) {
+                    dirCache = valor;
+                } else if (opcion.equals("--metricas")) {
+                    metricas = valor;
+                } else if (opcion.equals("--modo")) {
+                    if (!valor.equals("lineas") && !valor.equals("estructural")) {
+                        throw new IllegalArgumentException("Modo desconocido: " + valor);
+                    }
+                    modo = valor;
+                } else if (opcion.equals("--max-errores")) {
+                    ErroresTraduccion.setLimitePredeterminado(Integer.parseInt(valor));
+                } else if (opcion.equals("--hilos")) {
+                    hilos = Math.max(1, Integer.parseInt(valor));
+                } else {
+                    throw new IllegalArgumentException("Opción desconocida: " + opcion);
+                }
+            }
+            if (origen == null || destino == null || entrada == null || salida == null) {
+                throw new IllegalArgumentException("Se requieren --from, --to, --in y --out.");
+            }
+            if (!origen.equals(AUTOMATICO) && RegistroIdiomas.buscar(origen, destino) == null) {
+                throw new IllegalArgumentException(Traductor.errorNoSoportado(origen, destino).mensaje);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: java -jar traductor_de_codigo_A_S.jar --from <idioma|auto> --to <idioma> --in <dir> --out <dir> [--modo lineas|estructural] [--cache <dir>] [--hilos N] [--max-errores N] [--metricas <archivo.json|->]");
+            return 2;
+        }
+
+        Path dirEntrada = Paths.get(entrada);
+        if (!Files.isDirectory(dirEntrada)) {
+            System.err.println("No existe el directorio de entrada: " + entrada);
+            return 2;
+        }
+        try {
+            TraductorLotes lotes = new TraductorLotes(origen, destino, dirEntrada, Paths.get(salida), hilos);
+            if (modo.equals("estructural")) {
+                lotes.usarModoEstructural();
+            } else if (dirCache != null) {
+                lotes.usarCache(new CacheTraduccion(TAMANO_CACHE, Paths.get(dirCache)));
+            }
+            boolean correcto = lotes.traducirDirectorio();
+            if (metricas != null) {
+                escribirMetricas(metricas);
+            }
+            return correcto ? 0 : 1;
+        } catch (Exception e) {
+            System.err.println("Error durante la traducción: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /*Escribe el volcado JSON de MetricasTraductor en el archivo, o en la salida estándar si es "-".*/
+    private static void escribirMetricas(String destino) throws IOException {
+        String json = MetricasTraductor.GLOBAL.volcarJson();
+        if (destino.equals("-")) {
+            System.out.print(json);
+        } else {
+            Files.write(Paths.get(destino), json.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /*Usa la caché para no volver a traducir archivos cuyo contenido ya se tradujo en otra ejecución.*/
+    public void usarCache(CacheTraduccion cache) {
+        this.cache = cache;
+    }
+
+    /*Traduce con TraductorEstructural en lugar de Traductor; la caché no se usa en este modo.*/
+    public void usarModoEstructural() {
+        this.estructural = true;
+    }
+
+    /**
+     * Recorre el directorio de entrada y traduce cada archivo del idioma de origen.
+     *
+     * @return true si ningún archivo tuvo errores.
+     */
+    public boolean traducirDirectorio() throws Exception {
+        long inicio = System.nanoTime();
+        Thread[] traductores = new Thread[hilosTraduccion];
+        for (int i = 0; i < traductores.length; i++) {
+            traductores[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    traducirPendientes();
+                }
+            }, "traductor-" + i);
+            traductores[i].start();
+        }
+
+        // Archivo de entrada de cada archivo de salida; solo lo usa el hilo que recorre el árbol
+        final Map<Path, Path> destinos = new HashMap<>();
+        try {
+            Files.walkFileTree(dirEntrada, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path archivo, BasicFileAttributes atributos) throws IOException {
+                    if (atributos.isRegularFile() && esEntrada(archivo)) {
+                        Path relativa = dirEntrada.relativize(archivo);
+                        Path destino = dirSalida.resolve(relativa)
+                                .resolveSibling(cambiarExtension(relativa.getFileName().toString()));
+                        Path anterior = destinos.putIfAbsent(destino, archivo);
+                        if (anterior != null) {
+                            informarFalloArchivo(archivo, "No se traduce: su salida " + destino
+                                    + " es la misma que la de " + anterior);
+                        } else {
+                            encolarLectura(archivo, destino);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            // Cuando se recuperan todos los permisos no queda ningún archivo en vuelo.
+            enVuelo.acquire(capacidad);
+        } finally {
+            for (int i = 0; i < traductores.length; i++) {
+                colaTraduccion.put(FIN);
+            }
+            for (Thread traductor : traductores) {
+                traductor.join();
+            }
+            ejecutorIO.shutdown();
+            ejecutorIO.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        double segundos = Math.max(System.nanoTime() - inicio, 1) / 1e9;
+        double megas = bytesLeidos.get() / (1024.0 * 1024.0);
+        System.out.println(String.format("Archivos: %d (%.1f archivos/s), %.2f MB (%.2f MB/s), errores: %d en %d archivos, tiempo: %.2f s",
+                archivos.get(), archivos.get() / segundos, megas, megas / segundos,
+                errores.get(), archivosConErrores.get(), segundos));
+        if (cache != null) {
+            System.out.println(cache);
+        }
+        return errores.get() == 0;
+    }
+
+    private void encolarLectura(final Path archivo, final Path destino) throws IOException {
+        try {
+            enVuelo.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Recorrido interrumpido", e);
+        }
+        ejecutorIO.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    long tamano = Files.size(archivo);
+                    if (tamano >= UMBRAL_MAPEO && !estructural) {
+                        bytesLeidos.addAndGet(tamano);
+                        String idioma = !automatico ? idiomaOrigen
+                                : elegirIdioma(archivo, DetectorIdioma.detectar(archivo));
+                        colaTraduccion.put(new Trabajo(archivo, destino, null, idioma));
+                        return;
+                    }
+                    byte[] contenido = Files.readAllBytes(archivo);
+                    bytesLeidos.addAndGet(contenido.length);
+                    String codigo = new String(contenido, StandardCharsets.UTF_8);
+                    String idioma = !automatico ? idiomaOrigen
+                            : elegirIdioma(archivo, DetectorIdioma.detectar(codigo));
+                    colaTraduccion.put(new Trabajo(archivo, destino, codigo, idioma));
+                } catch (Throwable e) {
+                    informarFalloArchivo(archivo, "No se pudo leer el archivo: " + e.getMessage());
+                    enVuelo.release();
+                }
+            }
+        });
+    }
+
+    private void traducirPendientes() {
+        while (true) {
+            final Trabajo trabajo;
+            try {
+                trabajo = colaTraduccion.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (trabajo == FIN) {
+                return;
+            }
+            archivos.incrementAndGet();
+            if (trabajo.codigo == null) {
+                traducirArchivoGrande(trabajo);
+                continue;
+            }
+            // El permiso se devuelve aquí salvo que la escritura quede a cargo del ejecutor de E/S. Se captura
+            // Throwable para que un archivo que provoca un Error no deje el hilo muerto con su permiso.
+            boolean liberar = true;
+            try {
+                final Traductor.ResultadoTraduccion resultado = estructural
+                        ? TraductorEstructural.traducir(trabajo.codigo, trabajo.idioma, idiomaDestino)
+                        : cache != null
+                        ? cache.traducir(trabajo.codigo, trabajo.idioma, idiomaDestino)
+                        : Traductor.traducir(trabajo.codigo, trabajo.idioma, idiomaDestino);
+                // Igual que en la ventana, un archivo con errores no se escribe.
+                if (!resultado.errores.isEmpty()) {
+                    informarErrores(trabajo.entrada, resultado.errores);
+                    continue;
+                }
+                ejecutorIO.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Files.createDirectories(trabajo.salida.getParent());
+                            Files.write(trabajo.salida, resultado.traduccion.getBytes(StandardCharsets.UTF_8));
+                        } catch (IOException e) {
+                            informarFalloArchivo(trabajo.salida, "No se pudo escribir el archivo: " + e.getMessage());
+                        } finally {
+                            enVuelo.release();
+                        }
+                    }
+                });
+                liberar = false;
+            } catch (Throwable e) {
+                informarFalloArchivo(trabajo.entrada, descripcion(e));
+            } finally {
+                if (liberar) {
+                    enVuelo.release();
+                }
+            }
+        }
+    }
+
+    /*
+     * Traduce un archivo grande en este mismo hilo de archivo mapeado a canal de salida, sin pasar por la caché.
+     * La salida se escribe mientras se traduce, así que si hay errores se borra después. Los errores no se
+     * informan hasta el final: ErroresTraduccion guarda los primeros --max-errores y, si el código no pasa la
+     * validación, los reemplaza por el error de validación, igual que en un archivo chico.
+     */
+    private void traducirArchivoGrande(final Trabajo trabajo) {
+        try {
+            Files.createDirectories(trabajo.salida.getParent());
+            ErroresTraduccion erroresArchivo = Traductor.traducirArchivo(trabajo.entrada, trabajo.salida,
+                    trabajo.idioma, idiomaDestino, new ErroresTraduccion());
+            if (!erroresArchivo.isEmpty()) {
+                informarErrores(trabajo.entrada, erroresArchivo);
+                try {
+                    Files.deleteIfExists(trabajo.salida);
+                } catch (IOException e) {
+                    // El archivo ya se contó con sus errores
+                    informarError(trabajo.salida, 0, "No se pudo borrar la salida: " + e.getMessage());
+                }
+            }
+        } catch (Throwable e) {
+            informarFalloArchivo(trabajo.entrada, descripcion(e));
+        } finally {
+            enVuelo.release();
+        }
+    }
+
+    // Errores de traducción de un archivo; el resumen de los errores omitidos cuenta como todos los que resume
+    private void informarErrores(Path archivo, List<Traductor.ErrorInfo> lista) {
+        archivosConErrores.incrementAndGet();
+        for (Traductor.ErrorInfo error : lista) {
+            if (error.codigo == CodigoError.ERRORES_OMITIDOS) {
+                errores.addAndGet(Long.parseLong(error.detalle) - 1);
+            }
+            informarError(archivo, error.linea, error.mensaje);
+        }
+    }
+
+    // Un archivo que no se pudo leer, traducir o escribir cuenta como archivo con errores
+    private void informarFalloArchivo(Path archivo, String mensaje) {
+        archivosConErrores.incrementAndGet();
+        informarError(archivo, 0, mensaje);
+    }
+
+    private void informarError(Path archivo, int linea, String mensaje) {
+        errores.incrementAndGet();
+        System.err.println(archivo + ":" + linea + ": " + mensaje);
+    }
+
+    // Las excepciones de entrada traen su mensaje; de un Error inesperado se informa el tipo
+    private static String descripcion(Throwable e) {
+        if (e instanceof Exception && e.getMessage() != null) {
+            return e.getMessage();
+        }
+        return "Error interno al traducir el archivo: " + e;
+    }
+
+    private String cambiarExtension(String nombre) {
+        int punto = nombre.lastIndexOf('.');
+        String base = punto == -1 ? nombre : nombre.substring(0, punto);
+        return base + extensiones(idiomaDestino)[0];
+    }
+
+    // Con --from auto se traducen los archivos de cualquier idioma salvo el de destino
+    private boolean esEntrada(Path archivo) {
+        if (!automatico) {
+            return esDelIdioma(archivo, idiomaOrigen);
+        }
+        String idioma = idiomaPorExtension(archivo);
+        return idioma != null && !idioma.equals(idiomaDestino);
+    }
+
+    // El idioma detectado, o el de la extensión si la detección no pudo decidir
+    private String elegirIdioma(Path archivo, DetectorIdioma.Deteccion deteccion) {
+        return deteccion.idioma != null ? deteccion.idioma : idiomaPorExtension(archivo);
+    }
+
+    static String idiomaPorExtension(Path archivo) {
+        for (String idioma : RegistroIdiomas.idiomas()) {
+            if (esDelIdioma(archivo, idioma)) {
+                return idioma;
+            }
+        }
+        return null;
+    }
+
+    static boolean esDelIdioma(Path archivo, String idioma) {
+        String nombre = archivo.getFileName().toString().toLowerCase();
+        for (String extension : extensiones(idioma)) {
+            if (nombre.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // La primera extensión es la que se usa para los archivos generados; los idiomas agregados por un
+    // proveedor usan su nombre en minúsculas.
+    static String[] extensiones(String idioma) {
+        if (idioma.equals("Java")) {
+            return new String[]{".java"};
+        } else if (idioma.equals("C++")) {
+            return new String[]{".cpp", ".cc", ".cxx", ".hpp", ".h"};
+        } else if (idioma.equals("JS")) {
+            return new String[]{".js", ".mjs"};
+        }
+        return new String[]{"." + idioma.toLowerCase()};
+    }
+
+    static String normalizarIdioma(String valor) {
+        String idioma = RegistroIdiomas.normalizar(valor);
+        if (idioma == null) {
+            throw new IllegalArgumentException("Idioma no soportado: " + valor);
+        }
+        return idioma;
+    }
+
+    /*
+     * Ejecutor para la lectura y escritura de archivos: hilos virtuales si la JVM los tiene (Java 21+),
+     * o un pool de hilos de plataforma en caso contrario. La concurrencia ya la limita el semáforo.
+     */
+    static ExecutorService crearEjecutorIO() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Validación mínima del código de un idioma de origen. En cada línea se buscan en los tokens hasta dos marcas
+ * (MARCA_A y MARCA_B, por ejemplo 'class' y 'main' en Java) y al final se decide con las marcas de todo el código
+ * si parece de ese idioma. ParIdiomas entrega el validador de su idioma de origen y la traducción lo resuelve una
+ * sola vez al empezar, así que las implementaciones no deben comparar nombres de idiomas por línea.
+ * Las implementaciones se comparten entre hilos y no deben guardar estado mutable.
+ */
+public interface ValidadorIdioma {
+
+    int MARCA_A = 1;
+    int MARCA_B = 2;
+
+    /*Marcas que aparecen en los tokens de la línea; las de cadenas y comentarios no deben contar.*/
+    int marcas(String linea, AnalizadorLexico.Tokens tokens);
+
+    /*Indica si las marcas de todo el código alcanzan para aceptarlo.*/
+    boolean esValido(int marcas);
+
+    /*Error que se informa cuando el código no es válido.*/
+    CodigoError getError();
+}
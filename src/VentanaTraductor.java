@@ -1,24 +1,51 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
 import java.awt.*;
 import java.awt.datatransfer.*;
 import java.awt.event.*;
+import java.util.ArrayList;
 import java.util.List;
 
 public class VentanaTraductor extends JFrame {
 
     private JTextArea txtCodigo;
     private JTable tablaErrores;
-    private DefaultTableModel modeloErrores;
+    private ModeloErrores modeloErrores;
     private JButton btnTraducir;
     private JButton btnLimpiar;
     private JButton btnNuevo;
+    private JButton btnMetricas;
     private JLabel lblMensajeError;
+    private JProgressBar barraProgreso;
     private JComboBox<String> comboOrigen;
     private JComboBox<String> comboDestino;
     private JFrame ventanaTraduccion; // Ventana para mostrar el código traducido
+    private JTable tablaTraducido; // Visor del código traducido; solo pinta las filas visibles
+    private final ModeloTraduccion modeloTraduccion = new ModeloTraduccion();
+    private JPanel panelTraduccion; // Alterna entre el visor de la traducción y la vista de diferencias
+    private VistaDiferencias vistaDiferencias;
+    private JToggleButton btnDiferencias;
     private final String PLACEHOLDER = "Copia o pega tu código aquí";
 
+    private TraduccionIncremental traduccionActual; // Traducción línea a línea del último texto traducido
+    private boolean salidaSincronizada; // Indica si tablaTraducido refleja traduccionActual
+    private final SeguimientoCambios cambios = new SeguimientoCambios();
+    private Timer temporizadorEnVivo; // Vuelve a traducir poco después de cada edición mientras la traducción está abierta
+    private TrabajoTraduccion trabajoActual; // Traducción completa que se ejecuta fuera del hilo de eventos
+    private Timer temporizadorDeteccion; // Detecta el idioma de origen poco después de cada edición
+    private boolean origenElegido; // El usuario eligió el idioma de origen; ya no se cambia al detectarlo
+    private boolean detectandoOrigen; // El cambio de comboOrigen lo hace la detección, no el usuario
+    private JLabel lblDeteccion;
+
+    // Rangos editados de hasta esta cantidad de líneas se traducen directamente en el hilo de eventos, y también
+    // como mucho esta cantidad de líneas posteriores cuyo estado léxico cambió con la edición
+    private static final int MAX_LINEAS_EN_EDT = 5000;
+
     public VentanaTraductor() {
         setTitle("Traductor de Código");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -63,6 +90,24 @@ public class VentanaTraductor extends JFrame {
                 }
             }
         });
+        txtCodigo.getDocument().addDocumentListener(cambios);
+        temporizadorEnVivo = new Timer(400, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // Una traducción completa en curso no se reinicia; las ediciones se aplican cuando termine.
+                if (trabajoActual == null && ventanaTraduccion != null && ventanaTraduccion.isVisible()) {
+                    traducirCodigo();
+                }
+            }
+        });
+        temporizadorEnVivo.setRepeats(false);
+        temporizadorDeteccion = new Timer(300, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                detectarIdiomaOrigen();
+            }
+        });
+        temporizadorDeteccion.setRepeats(false);
         JScrollPane scrollCodigo = new JScrollPane(txtCodigo);
         scrollCodigo.setBorder(BorderFactory.createTitledBorder("Código Fuente"));
         scrollCodigo.setPreferredSize(new Dimension(0, 400));
@@ -76,10 +121,22 @@ public class VentanaTraductor extends JFrame {
         JPanel panelOpciones = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 10));
         panelOpciones.setBackground(Color.WHITE);
         panelOpciones.add(new JLabel("Idioma Origen:"));
-        comboOrigen = new JComboBox<>(new String[]{"Java", "C++", "JS"});
+        comboOrigen = new JComboBox<>(RegistroIdiomas.idiomas());
+        comboOrigen.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!detectandoOrigen) {
+                    origenElegido = true;
+                    lblDeteccion.setText("");
+                }
+            }
+        });
         panelOpciones.add(comboOrigen);
+        lblDeteccion = new JLabel("");
+        lblDeteccion.setForeground(Color.GRAY);
+        panelOpciones.add(lblDeteccion);
         panelOpciones.add(new JLabel("Idioma Destino:"));
-        comboDestino = new JComboBox<>(new String[]{"Java", "C++", "JS"});
+        comboDestino = new JComboBox<>(RegistroIdiomas.idiomas());
         panelOpciones.add(comboDestino);
 
         btnTraducir = new JButton("Traducir");
@@ -121,10 +178,34 @@ public class VentanaTraductor extends JFrame {
         });
         panelOpciones.add(btnNuevo);
 
+        btnMetricas = new JButton("Métricas");
+        btnMetricas.setBackground(new Color(96, 125, 139));
+        btnMetricas.setForeground(Color.WHITE);
+        btnMetricas.setFocusPainted(false);
+        btnMetricas.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        btnMetricas.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                mostrarMetricas();
+            }
+        });
+        panelOpciones.add(btnMetricas);
+
         bottomPanel.add(panelOpciones, BorderLayout.NORTH);
 
-        modeloErrores = new DefaultTableModel(new Object[]{"Linea", "Error"}, 0);
+        modeloErrores = new ModeloErrores();
         tablaErrores = new JTable(modeloErrores);
+        tablaErrores.getColumnModel().getColumn(0).setMaxWidth(80);
+        // Al hacer clic en un error se selecciona su línea en el código fuente (y en la traducción, si está abierta).
+        tablaErrores.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int fila = tablaErrores.rowAtPoint(e.getPoint());
+                if (fila != -1) {
+                    irALinea(modeloErrores.getLinea(fila));
+                }
+            }
+        });
         JScrollPane scrollErrores = new JScrollPane(tablaErrores);
         scrollErrores.setBorder(BorderFactory.createTitledBorder("Errores"));
         scrollErrores.setPreferredSize(new Dimension(0, 150));
@@ -133,10 +214,19 @@ public class VentanaTraductor extends JFrame {
         lblMensajeError.setForeground(Color.RED);
         lblMensajeError.setFont(new Font("Segoe UI", Font.BOLD, 16));
 
+        barraProgreso = new JProgressBar(0, 100);
+        barraProgreso.setStringPainted(true);
+        barraProgreso.setVisible(false);
+
+        JPanel panelEstado = new JPanel(new BorderLayout(10, 0));
+        panelEstado.setBackground(Color.WHITE);
+        panelEstado.add(lblMensajeError, BorderLayout.CENTER);
+        panelEstado.add(barraProgreso, BorderLayout.EAST);
+
         JPanel panelErrores = new JPanel(new BorderLayout());
         panelErrores.setBackground(Color.WHITE);
         panelErrores.add(scrollErrores, BorderLayout.CENTER);
-        panelErrores.add(lblMensajeError, BorderLayout.SOUTH);
+        panelErrores.add(panelEstado, BorderLayout.SOUTH);
 
         bottomPanel.add(panelErrores, BorderLayout.CENTER);
 
@@ -176,13 +266,13 @@ public class VentanaTraductor extends JFrame {
     private JTextArea crearTextArea() {
         JTextArea textArea = new JTextArea();
         textArea.setFont(new Font("Consolas", Font.PLAIN, 16));
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
+        // Sin ajuste de línea el área solo mide y pinta las líneas visibles, aunque el documento sea muy largo.
+        textArea.setLineWrap(false);
         return textArea;
     }
 
     private void traducirCodigo() {
-        modeloErrores.setRowCount(0);
+        cancelarTraduccion();
         lblMensajeError.setText("");
 
         String codigo = txtCodigo.getText();
@@ -194,51 +284,299 @@ public class VentanaTraductor extends JFrame {
         String idiomaDestino = (String) comboDestino.getSelectedItem();
 
         if (codigo.trim().isEmpty()) {
+            modeloErrores.limpiar();
             lblMensajeError.setText("Por favor ingresa el código fuente.");
             return;
         }
 
-        // Se realiza la traducción. Si existen errores (por ejemplo, lenguaje incorrecto),
-        // se devolverá un resultado con errores y no se mostrará la traducción.
+        // Si los idiomas no cambiaron y la edición es pequeña solo se vuelven a traducir las líneas editadas;
+        // en otro caso se traduce todo el texto en segundo plano.
+        boolean completa = traduccionActual == null
+                || !traduccionActual.getIdiomaOrigen().equals(idiomaOrigen)
+                || !traduccionActual.getIdiomaDestino().equals(idiomaDestino)
+                || cambios.fin - cambios.inicio > MAX_LINEAS_EN_EDT;
+        if (completa) {
+            iniciarTraduccionCompleta(codigo, idiomaOrigen, idiomaDestino);
+            return;
+        }
+
+        int inicio = 0;
+        int anteriores = 0;
+        int nuevas = 0;
         try {
-            Traductor.ResultadoTraduccion resultado = Traductor.traducir(codigo, idiomaOrigen, idiomaDestino);
-            List<Traductor.ErrorInfo> errores = resultado.errores;
-            if (!errores.isEmpty()) {
-                for (Traductor.ErrorInfo error : errores) {
-                    modeloErrores.addRow(new Object[]{error.linea, error.mensaje});
+            if (cambios.hayCambios()) {
+                inicio = cambios.inicio;
+                anteriores = cambios.fin - cambios.inicio - cambios.diferencia;
+                // Abrir o cerrar un comentario puede obligar a traducir también líneas posteriores; si son
+                // demasiadas se traduce todo el texto en segundo plano.
+                int fin = traduccionActual.actualizar(inicio, anteriores,
+                        leerLineas(txtCodigo.getDocument(), inicio, cambios.fin), MAX_LINEAS_EN_EDT);
+                if (fin == -1) {
+                    iniciarTraduccionCompleta(codigo, idiomaOrigen, idiomaDestino);
+                    return;
                 }
-                lblMensajeError.setText("El código fuente a traducir es incorrecto o no es el lenguaje que se espera.");
-                return;
+                nuevas = fin - inicio;
+                anteriores += fin - cambios.fin;
             }
-            // Si no hay errores, se muestra el código traducido en otra ventana
-            mostrarTraduccion(resultado.traduccion);
+            cambios.reiniciar();
         } catch (Exception e) {
+            traduccionActual = null;
             lblMensajeError.setText("Error durante la traducción: " + e.getMessage());
+            return;
+        }
+
+        modeloErrores.actualizar(traduccionActual, inicio, anteriores, nuevas);
+        mostrarResultado(inicio, anteriores, nuevas);
+    }
+
+    // Si existen errores (por ejemplo, lenguaje incorrecto) se muestran y no se muestra la traducción.
+    private void mostrarResultado(int inicio, int anteriores, int nuevas) {
+        if (modeloErrores.getRowCount() > 0) {
+            salidaSincronizada = false;
+            lblMensajeError.setText("El código fuente a traducir es incorrecto o no es el lenguaje que se espera.");
+            return;
         }
+        // Si no hay errores, se muestra el código traducido en otra ventana
+        mostrarTraduccion(inicio, anteriores, nuevas);
     }
 
-    // Muestra la ventana del código traducido y botón "Copiar"
-    private void mostrarTraduccion(String codigoTraducido) {
-        if (ventanaTraduccion != null) {
-            ventanaTraduccion.dispose();
+    // Traduce todo el texto en un SwingWorker; las ediciones posteriores se registran respecto de este texto.
+    private void iniciarTraduccionCompleta(String codigo, String idiomaOrigen, String idiomaDestino) {
+        traduccionActual = null;
+        salidaSincronizada = false;
+        cambios.reiniciar();
+        modeloErrores.limpiar();
+        barraProgreso.setValue(0);
+        barraProgreso.setVisible(true);
+        trabajoActual = new TrabajoTraduccion(codigo, idiomaOrigen, idiomaDestino);
+        trabajoActual.addPropertyChangeListener(new java.beans.PropertyChangeListener() {
+            @Override
+            public void propertyChange(java.beans.PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName())) {
+                    barraProgreso.setValue((Integer) evt.getNewValue());
+                }
+            }
+        });
+        trabajoActual.execute();
+    }
+
+    // Cancela la traducción en segundo plano, si hay una en curso
+    private void cancelarTraduccion() {
+        if (trabajoActual != null) {
+            trabajoActual.cancel(true);
+            trabajoActual = null;
+        }
+        barraProgreso.setVisible(false);
+    }
+
+    /*
+     * Traducción completa fuera del hilo de eventos. El avance llega por la propiedad "progress" y los primeros
+     * errores se publican a la tabla mientras se traduce; al terminar la tabla lee los errores directamente de la
+     * traducción.
+     */
+    private class TrabajoTraduccion extends SwingWorker<TraduccionIncremental, Traductor.ErrorInfo> {
+        private final String codigo;
+        private final String idiomaOrigen;
+        private final String idiomaDestino;
+        private int publicados;
+
+        TrabajoTraduccion(String codigo, String idiomaOrigen, String idiomaDestino) {
+            this.codigo = codigo;
+            this.idiomaOrigen = idiomaOrigen;
+            this.idiomaDestino = idiomaDestino;
         }
+
+        @Override
+        protected TraduccionIncremental doInBackground() throws Exception {
+            TraduccionIncremental traduccion = new TraduccionIncremental(idiomaOrigen, idiomaDestino);
+            traduccion.reconstruir(codigo, new ProgresoTraduccion() {
+                @Override
+                public void avance(long procesado, long total) {
+                    setProgress((int) (procesado * 100 / Math.max(total, 1)));
+                }
+            }, new ReceptorErrores() {
+                @Override
+                public void error(int linea, CodigoError codigo, String detalle) {
+                    if (publicados++ < ErroresTraduccion.getLimitePredeterminado()) {
+                        publish(new Traductor.ErrorInfo(linea, codigo, detalle));
+                    }
+                }
+            });
+            return traduccion;
+        }
+
+        @Override
+        protected void process(List<Traductor.ErrorInfo> errores) {
+            if (trabajoActual != this) {
+                return;
+            }
+            modeloErrores.agregarEnCurso(errores);
+        }
+
+        @Override
+        protected void done() {
+            if (trabajoActual != this || isCancelled()) {
+                return;
+            }
+            trabajoActual = null;
+            barraProgreso.setVisible(false);
+            try {
+                traduccionActual = get();
+            } catch (Exception e) {
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                lblMensajeError.setText("Error durante la traducción: " + causa.getMessage());
+                return;
+            }
+            modeloErrores.cargar(traduccionActual);
+            mostrarResultado(0, 0, 0);
+            if (cambios.hayCambios()) {
+                temporizadorEnVivo.restart();
+            }
+        }
+    }
+
+    // Texto de las líneas [desde, hasta) de un documento, sin los saltos de línea
+    private List<String> leerLineas(Document documento, int desde, int hasta) throws BadLocationException {
+        Element raiz = documento.getDefaultRootElement();
+        List<String> lineas = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            Element linea = raiz.getElement(i);
+            lineas.add(documento.getText(linea.getStartOffset(), linea.getEndOffset() - 1 - linea.getStartOffset()));
+        }
+        return lineas;
+    }
+
+    // Muestra la ventana del código traducido y botón "Copiar".
+    // Si la ventana ya refleja la traducción anterior, solo se avisa al visor de las líneas del rango editado.
+    private void mostrarTraduccion(int inicio, int anteriores, int nuevas) {
+        if (ventanaTraduccion == null) {
+            crearVentanaTraduccion();
+            salidaSincronizada = false;
+        }
+        if (!salidaSincronizada) {
+            modeloTraduccion.mostrar(traduccionActual);
+            FontMetrics metricas = tablaTraducido.getFontMetrics(tablaTraducido.getFont());
+            int digitos = String.valueOf(modeloTraduccion.getRowCount()).length();
+            tablaTraducido.getColumnModel().getColumn(0).setPreferredWidth(metricas.charWidth('0') * (digitos + 1) + 8);
+            tablaTraducido.getColumnModel().getColumn(1).setPreferredWidth(0);
+            ajustarAnchoTraducido(0, modeloTraduccion.getRowCount());
+            tablaTraducido.scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+            salidaSincronizada = true;
+            compararSiCorresponde();
+        } else if (anteriores > 0 || nuevas > 0) {
+            modeloTraduccion.actualizar(inicio, anteriores, nuevas);
+            ajustarAnchoTraducido(inicio, inicio + nuevas);
+            compararSiCorresponde();
+        }
+        if (!ventanaTraduccion.isVisible()) {
+            ventanaTraduccion.setVisible(true);
+        }
+    }
+
+    // Si la vista de diferencias está activa, vuelve a calcularlas en segundo plano con la traducción actual
+    private void compararSiCorresponde() {
+        if (btnDiferencias.isSelected() && salidaSincronizada) {
+            vistaDiferencias.comparar(traduccionActual);
+        }
+    }
+
+    // Ensancha la columna del código traducido si alguna línea del rango no entra; la fuente es de ancho fijo.
+    private void ajustarAnchoTraducido(int desde, int hasta) {
+        FontMetrics metricas = tablaTraducido.getFontMetrics(tablaTraducido.getFont());
+        int ancho = modeloTraduccion.largoMaximo(desde, hasta) * metricas.charWidth('m') + 16;
+        javax.swing.table.TableColumn columna = tablaTraducido.getColumnModel().getColumn(1);
+        if (ancho > columna.getPreferredWidth()) {
+            columna.setPreferredWidth(ancho);
+        }
+    }
+
+    // Selecciona la línea indicada (desde 1) en el código fuente y, si está sincronizada, en la traducción
+    private void irALinea(int linea) {
+        Element raiz = txtCodigo.getDocument().getDefaultRootElement();
+        if (linea < 1 || linea > raiz.getElementCount()) {
+            return;
+        }
+        Element elemento = raiz.getElement(linea - 1);
+        txtCodigo.requestFocusInWindow();
+        txtCodigo.select(elemento.getStartOffset(), elemento.getEndOffset() - 1);
+        try {
+            txtCodigo.scrollRectToVisible(txtCodigo.modelToView2D(elemento.getStartOffset()).getBounds());
+        } catch (BadLocationException e) {
+            // La línea existe, así que su posición siempre es válida.
+        }
+        if (salidaSincronizada && tablaTraducido != null && linea <= modeloTraduccion.getRowCount()) {
+            tablaTraducido.changeSelection(linea - 1, 1, false, false);
+        }
+    }
+
+    // Muestra el volcado JSON de las métricas del motor, con un botón para copiarlo.
+    private void mostrarMetricas() {
+        final String json = MetricasTraductor.GLOBAL.volcarJson();
+        JTextArea txtMetricas = new JTextArea(json, 24, 60);
+        txtMetricas.setEditable(false);
+        txtMetricas.setFont(new Font("Consolas", Font.PLAIN, 13));
+        Object[] opciones = {"Copiar", "Cerrar"};
+        int opcion = JOptionPane.showOptionDialog(this, new JScrollPane(txtMetricas), "Métricas del traductor",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, opciones, opciones[1]);
+        if (opcion == 0) {
+            Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(json), null);
+        }
+    }
+
+    private void crearVentanaTraduccion() {
         ventanaTraduccion = new JFrame("Código Traducido");
         ventanaTraduccion.setSize(600, 400);
         ventanaTraduccion.setLocationRelativeTo(null);
         ventanaTraduccion.setLayout(new BorderLayout());
         
-        JTextArea txtTraducido = new JTextArea();
-        txtTraducido.setEditable(false);
-        txtTraducido.setFont(new Font("Consolas", Font.PLAIN, 16));
-        txtTraducido.setText(codigoTraducido);
-        txtTraducido.setLineWrap(true);
-        txtTraducido.setWrapStyleWord(true);
-        JScrollPane scrollTraducido = new JScrollPane(txtTraducido);
+        // Una fila por línea, con alto fijo: la tabla calcula qué filas son visibles sin medir las demás.
+        tablaTraducido = new JTable(modeloTraduccion) {
+            @Override
+            public boolean getScrollableTracksViewportWidth() {
+                return getParent() instanceof JViewport && getPreferredSize().width < getParent().getWidth();
+            }
+        };
+        tablaTraducido.setFont(new Font("Consolas", Font.PLAIN, 16));
+        tablaTraducido.setRowHeight(tablaTraducido.getFontMetrics(tablaTraducido.getFont()).getHeight());
+        tablaTraducido.setTableHeader(null);
+        tablaTraducido.setShowGrid(false);
+        tablaTraducido.setIntercellSpacing(new Dimension(0, 0));
+        tablaTraducido.setFillsViewportHeight(true);
+        tablaTraducido.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        tablaTraducido.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        DefaultTableCellRenderer numeros = new DefaultTableCellRenderer();
+        numeros.setHorizontalAlignment(SwingConstants.RIGHT);
+        numeros.setForeground(Color.GRAY);
+        tablaTraducido.getColumnModel().getColumn(0).setCellRenderer(numeros);
+        JScrollPane scrollTraducido = new JScrollPane(tablaTraducido);
         scrollTraducido.setBorder(BorderFactory.createTitledBorder("Código Traducido"));
-        ventanaTraduccion.add(scrollTraducido, BorderLayout.CENTER);
+        vistaDiferencias = new VistaDiferencias();
+        vistaDiferencias.setBorder(BorderFactory.createTitledBorder("Diferencias"));
+        panelTraduccion = new JPanel(new CardLayout());
+        panelTraduccion.add(scrollTraducido, "traduccion");
+        panelTraduccion.add(vistaDiferencias, "diferencias");
+        ventanaTraduccion.add(panelTraduccion, BorderLayout.CENTER);
         
-        // Panel inferior para el botón "Copiar"
+        // Panel inferior para los botones "Diferencias" y "Copiar"
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btnDiferencias = new JToggleButton("Diferencias");
+        btnDiferencias.setFocusPainted(false);
+        btnDiferencias.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                CardLayout tarjetas = (CardLayout) panelTraduccion.getLayout();
+                if (btnDiferencias.isSelected()) {
+                    // Lado a lado hace falta más ancho que para la traducción sola.
+                    ventanaTraduccion.setSize(Math.max(ventanaTraduccion.getWidth(), 1000), ventanaTraduccion.getHeight());
+                    tarjetas.show(panelTraduccion, "diferencias");
+                    compararSiCorresponde();
+                } else {
+                    vistaDiferencias.cancelar();
+                    tarjetas.show(panelTraduccion, "traduccion");
+                }
+            }
+        });
+        panelBotones.add(btnDiferencias);
         JButton btnCopiar = new JButton("Copiar");
         btnCopiar.setBackground(new Color(33, 150, 243));
         btnCopiar.setForeground(Color.WHITE);
@@ -247,7 +585,8 @@ public class VentanaTraductor extends JFrame {
         btnCopiar.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                StringSelection stringSelection = new StringSelection(txtTraducido.getText());
+                // Se copia la traducción exacta, sin las líneas vacías finales que muestra el área de texto.
+                StringSelection stringSelection = new StringSelection(traduccionActual.getTraduccion());
                 Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
                 clipboard.setContents(stringSelection, null);
                 JOptionPane.showMessageDialog(ventanaTraduccion, "Código copiado al portapapeles.");
@@ -255,25 +594,144 @@ public class VentanaTraductor extends JFrame {
         });
         panelBotones.add(btnCopiar);
         ventanaTraduccion.add(panelBotones, BorderLayout.SOUTH);
-        
-        ventanaTraduccion.setVisible(true);
+    }
+
+    /*
+     * Registra qué líneas del código fuente cambiaron desde la última traducción.
+     * El rango [inicio, fin) está en líneas del documento actual y diferencia es cuántas líneas más (o menos)
+     * tiene el documento que cuando se tradujo, así que el rango ocupaba fin - inicio - diferencia líneas.
+     */
+    private class SeguimientoCambios implements DocumentListener {
+        int inicio = -1;
+        int fin;
+        int diferencia;
+
+        boolean hayCambios() {
+            return inicio != -1;
+        }
+
+        void reiniciar() {
+            inicio = -1;
+            fin = 0;
+            diferencia = 0;
+        }
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            Element raiz = e.getDocument().getDefaultRootElement();
+            int linea = raiz.getElementIndex(e.getOffset());
+            int agregadas = lineasAgregadas(e, raiz);
+            if (inicio == -1) {
+                inicio = linea;
+                fin = linea + agregadas + 1;
+            } else {
+                if (fin > linea) {
+                    fin += agregadas;
+                }
+                inicio = Math.min(inicio, linea);
+                fin = Math.max(fin, linea + agregadas + 1);
+            }
+            diferencia += agregadas;
+            programarTraduccion();
+            programarDeteccion();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            Element raiz = e.getDocument().getDefaultRootElement();
+            int linea = raiz.getElementIndex(e.getOffset());
+            int quitadas = -lineasAgregadas(e, raiz);
+            if (inicio == -1) {
+                inicio = linea;
+                fin = linea + 1;
+            } else {
+                if (fin > linea + quitadas) {
+                    fin -= quitadas;
+                } else if (fin > linea) {
+                    fin = linea + 1;
+                }
+                inicio = Math.min(inicio, linea);
+                fin = Math.max(fin, linea + 1);
+            }
+            diferencia -= quitadas;
+            programarTraduccion();
+            programarDeteccion();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            // Solo cambian atributos, no el texto.
+        }
+
+        private int lineasAgregadas(DocumentEvent e, Element raiz) {
+            DocumentEvent.ElementChange cambio = e.getChange(raiz);
+            return cambio == null ? 0 : cambio.getChildrenAdded().length - cambio.getChildrenRemoved().length;
+        }
+
+        private void programarTraduccion() {
+            if (temporizadorEnVivo != null && ventanaTraduccion != null && ventanaTraduccion.isVisible()) {
+                temporizadorEnVivo.restart();
+            }
+        }
+    }
+
+    private void programarDeteccion() {
+        if (temporizadorDeteccion != null && !origenElegido) {
+            temporizadorDeteccion.restart();
+        }
+    }
+
+    /*
+     * Selecciona en comboOrigen el idioma detectado en el principio del código, mientras el usuario no haya elegido
+     * uno. Solo se lee el tramo que examina DetectorIdioma, así que no depende del tamaño del documento.
+     */
+    private void detectarIdiomaOrigen() {
+        Document documento = txtCodigo.getDocument();
+        String muestra;
+        try {
+            muestra = documento.getText(0, Math.min(documento.getLength(), DetectorIdioma.MAX_MUESTRA));
+        } catch (BadLocationException e) {
+            return;
+        }
+        if (origenElegido || muestra.equals(PLACEHOLDER) || muestra.trim().isEmpty()) {
+            return;
+        }
+        DetectorIdioma.Deteccion deteccion = DetectorIdioma.detectar(muestra);
+        if (deteccion.idioma == null) {
+            lblDeteccion.setText("");
+            return;
+        }
+        detectandoOrigen = true;
+        comboOrigen.setSelectedItem(deteccion.idioma);
+        detectandoOrigen = false;
+        lblDeteccion.setText(String.format("Detectado (%d %%)", Math.round(deteccion.confianza * 100)));
     }
 
     // Limpia únicamente el área de código fuente
     private void limpiarCodigoFuente() {
+        cancelarTraduccion();
+        origenElegido = false;
+        lblDeteccion.setText("");
         txtCodigo.setText(PLACEHOLDER);
         txtCodigo.setForeground(Color.GRAY);
     }
 
     // Reinicia ambas ventanas: limpia el código fuente, los errores y cierra la ventana de traducción si existe
     private void reiniciarVentanas() {
+        cancelarTraduccion();
+        origenElegido = false;
+        lblDeteccion.setText("");
         txtCodigo.setText(PLACEHOLDER);
         txtCodigo.setForeground(Color.GRAY);
-        modeloErrores.setRowCount(0);
+        modeloErrores.limpiar();
         lblMensajeError.setText("");
         if (ventanaTraduccion != null) {
+            vistaDiferencias.cancelar();
             ventanaTraduccion.dispose();
             ventanaTraduccion = null;
+            tablaTraducido = null;
+            vistaDiferencias = null;
         }
+        traduccionActual = null;
     }
 }
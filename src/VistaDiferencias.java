@@ -0,0 +1,220 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vista lado a lado del código fuente y su traducción, con las líneas que cambiaron resaltadas.
+ * Las diferencias se calculan con Diferencias en un SwingWorker sobre una copia de las líneas tomada en el hilo de
+ * eventos, así que la traducción puede seguir editándose mientras tanto. La tabla solo pinta las filas visibles y
+ * el tramo cambiado dentro de cada línea modificada se calcula al pintarla.
+ */
+public class VistaDiferencias extends JPanel {
+
+    private static final Color FONDO_QUITADA = new Color(255, 235, 233);
+    private static final Color TRAMO_QUITADO = new Color(255, 192, 185);
+    private static final Color FONDO_AGREGADA = new Color(230, 255, 236);
+    private static final Color TRAMO_AGREGADO = new Color(172, 242, 189);
+
+    private final ModeloDiferencias modelo = new ModeloDiferencias();
+    private final JTable tabla;
+    private final JLabel lblResumen = new JLabel(" ");
+    private SwingWorker<Diferencias, Void> trabajo;
+
+    public VistaDiferencias() {
+        super(new BorderLayout());
+        tabla = new JTable(modelo);
+        Font fuente = new Font("Consolas", Font.PLAIN, 14);
+        tabla.setFont(fuente);
+        tabla.setRowHeight(tabla.getFontMetrics(fuente).getHeight());
+        tabla.setShowGrid(false);
+        tabla.setIntercellSpacing(new Dimension(0, 0));
+        tabla.setFillsViewportHeight(true);
+        tabla.getTableHeader().setReorderingAllowed(false);
+        DefaultTableCellRenderer numeros = new DefaultTableCellRenderer();
+        numeros.setHorizontalAlignment(SwingConstants.RIGHT);
+        numeros.setForeground(Color.GRAY);
+        RenderLinea lineas = new RenderLinea();
+        for (int columna = 0; columna < 4; columna++) {
+            if (columna % 2 == 0) {
+                tabla.getColumnModel().getColumn(columna).setCellRenderer(numeros);
+                tabla.getColumnModel().getColumn(columna).setMaxWidth(70);
+            } else {
+                tabla.getColumnModel().getColumn(columna).setCellRenderer(lineas);
+            }
+        }
+        add(new JScrollPane(tabla), BorderLayout.CENTER);
+        lblResumen.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        add(lblResumen, BorderLayout.SOUTH);
+    }
+
+    /*Calcula en segundo plano las diferencias entre el código fuente y la traducción y las muestra al terminar.*/
+    public void comparar(TraduccionIncremental traduccion) {
+        cancelar();
+        final String[] fuente = new String[traduccion.getCantidadLineas()];
+        List<String> salida = new ArrayList<>(fuente.length);
+        for (int i = 0; i < fuente.length; i++) {
+            fuente[i] = traduccion.getFuente(i);
+            agregarLineas(traduccion.getSalida(i), salida);
+        }
+        final String[] traducido = salida.toArray(new String[0]);
+        lblResumen.setText("Comparando...");
+        trabajo = new SwingWorker<Diferencias, Void>() {
+            private long nanos;
+
+            @Override
+            protected Diferencias doInBackground() {
+                long inicio = System.nanoTime();
+                Diferencias diferencias = Diferencias.comparar(fuente, traducido);
+                nanos = System.nanoTime() - inicio;
+                return diferencias;
+            }
+
+            @Override
+            protected void done() {
+                if (trabajo != this || isCancelled()) {
+                    return;
+                }
+                trabajo = null;
+                try {
+                    modelo.mostrar(fuente, traducido, get());
+                } catch (Exception e) {
+                    lblResumen.setText("No se pudieron calcular las diferencias: " + e.getMessage());
+                    return;
+                }
+                lblResumen.setText(String.format("%d líneas cambiadas de %d (%d ms)",
+                        modelo.diferencias.getCantidadCambios(), fuente.length, nanos / 1_000_000));
+            }
+        };
+        trabajo.execute();
+    }
+
+    public void cancelar() {
+        if (trabajo != null) {
+            trabajo.cancel(true);
+            trabajo = null;
+        }
+    }
+
+    // Una línea del código fuente puede traducirse a varias, o a ninguna si tiene un error
+    private static void agregarLineas(String salida, List<String> destino) {
+        if (salida == null) {
+            return;
+        }
+        int inicio = 0;
+        int salto;
+        while ((salto = salida.indexOf('\n', inicio)) != -1) {
+            destino.add(salida.substring(inicio, salto));
+            inicio = salto + 1;
+        }
+        destino.add(inicio == 0 ? salida : salida.substring(inicio));
+    }
+
+    // Filas de Diferencias en cuatro columnas: número y texto de la línea fuente, número y texto de la traducida
+    private static class ModeloDiferencias extends AbstractTableModel {
+        private static final String[] COLUMNAS = {"", "Código Fuente", "", "Código Traducido"};
+
+        private String[] fuente = new String[0];
+        private String[] traducido = new String[0];
+        private Diferencias diferencias;
+
+        void mostrar(String[] fuente, String[] traducido, Diferencias diferencias) {
+            this.fuente = fuente;
+            this.traducido = traducido;
+            this.diferencias = diferencias;
+            fireTableDataChanged();
+        }
+
+        // Texto de un lado de la fila, o null si ese lado no tiene línea
+        String texto(int fila, boolean izquierda) {
+            int linea = izquierda ? diferencias.getLineaIzquierda(fila) : diferencias.getLineaDerecha(fila);
+            return linea == -1 ? null : izquierda ? fuente[linea] : traducido[linea];
+        }
+
+        @Override
+        public int getRowCount() {
+            return diferencias == null ? 0 : diferencias.getCantidadFilas();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNAS.length;
+        }
+
+        @Override
+        public String getColumnName(int columna) {
+            return COLUMNAS[columna];
+        }
+
+        @Override
+        public Object getValueAt(int fila, int columna) {
+            boolean izquierda = columna < 2;
+            if (columna % 2 == 0) {
+                int linea = izquierda ? diferencias.getLineaIzquierda(fila) : diferencias.getLineaDerecha(fila);
+                return linea == -1 ? "" : linea + 1;
+            }
+            String texto = texto(fila, izquierda);
+            return texto == null ? "" : texto;
+        }
+    }
+
+    /*
+     * Pinta una línea con el fondo de su tipo de cambio. En las líneas modificadas también resalta el tramo que
+     * difiere de la línea del otro lado, quitando el prefijo y el sufijo comunes.
+     */
+    private class RenderLinea extends JComponent implements TableCellRenderer {
+        private String texto;
+        private Color fondo;
+        private Color colorTramo;
+        private int inicioTramo;
+        private int finTramo;
+        private boolean seleccionada;
+
+        @Override
+        public Component getTableCellRendererComponent(JTable tabla, Object valor, boolean seleccionada,
+                                                       boolean foco, int fila, int columna) {
+            boolean izquierda = columna < 2;
+            this.seleccionada = seleccionada;
+            texto = (String) valor;
+            fondo = null;
+            colorTramo = null;
+            int tipo = modelo.diferencias.getTipo(fila);
+            if (tipo == Diferencias.IGUAL) {
+                return this;
+            }
+            if (tipo == Diferencias.MODIFICADA) {
+                String otro = modelo.texto(fila, !izquierda);
+                inicioTramo = Diferencias.prefijoComun(texto, otro);
+                finTramo = texto.length() - Diferencias.sufijoComun(texto, otro, inicioTramo);
+                colorTramo = izquierda ? TRAMO_QUITADO : TRAMO_AGREGADO;
+                fondo = izquierda ? FONDO_QUITADA : FONDO_AGREGADA;
+            } else if (tipo == Diferencias.QUITADA && izquierda) {
+                fondo = FONDO_QUITADA;
+            } else if (tipo == Diferencias.AGREGADA && !izquierda) {
+                fondo = FONDO_AGREGADA;
+            }
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Color base = seleccionada ? tabla.getSelectionBackground() : fondo != null ? fondo : tabla.getBackground();
+            g.setColor(base);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setFont(tabla.getFont());
+            FontMetrics metricas = g.getFontMetrics();
+            int x = 4;
+            if (colorTramo != null && finTramo > inicioTramo) {
+                int desde = x + metricas.stringWidth(texto.substring(0, inicioTramo));
+                int ancho = metricas.stringWidth(texto.substring(inicioTramo, finTramo));
+                g.setColor(colorTramo);
+                g.fillRect(desde, 0, ancho, getHeight());
+            }
+            g.setColor(seleccionada ? tabla.getSelectionForeground() : tabla.getForeground());
+            g.drawString(texto, x, metricas.getAscent());
+        }
+    }
+}